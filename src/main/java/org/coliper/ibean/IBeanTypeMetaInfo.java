@@ -18,9 +18,12 @@ import static java.util.Objects.requireNonNull;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
  * Class that holds all IBean relevant meta information about a specific bean
@@ -34,6 +37,7 @@ public class IBeanTypeMetaInfo<T> {
     private final Class<T> beanType;
     private final BeanStyle beanStyle;
     private final List<IBeanFieldMetaInfo> fieldMetaInfos;
+    private final ImmutableMap<String, IBeanFieldMetaInfo> fieldMetaInfosByName;
     private final Optional<Method> customEqualsMethods;
     private final Optional<Method> customHashCodeMethod;
 
@@ -65,6 +69,8 @@ public class IBeanTypeMetaInfo<T> {
         this.beanType = beanType;
         this.beanStyle = beanStyle;
         this.fieldMetaInfos = ImmutableList.copyOf(fieldMetaInfos);
+        this.fieldMetaInfosByName =
+                Maps.uniqueIndex(this.fieldMetaInfos, IBeanFieldMetaInfo::fieldName);
         this.customEqualsMethods = Optional.ofNullable(customEqualsMethod);
         this.customHashCodeMethod = Optional.ofNullable(customHashCodeMethod);
     }
@@ -150,8 +156,9 @@ public class IBeanTypeMetaInfo<T> {
     }
 
     /**
-     * Iterates over all contained {@code IBeanFieldMetaInfo} and returns the
-     * field meta info that belongs to a field with a given name.
+     * Returns the field meta info that belongs to a field with a given name.
+     * The lookup uses an index created with this meta info, it does not
+     * iterate over all fields.
      * 
      * @param fieldName
      *            the name of a field to search for
@@ -160,12 +167,17 @@ public class IBeanTypeMetaInfo<T> {
      */
     public Optional<IBeanFieldMetaInfo> findFieldMetaWithFieldName(String fieldName) {
         requireNonNull(fieldName, "fieldName");
-        for (IBeanFieldMetaInfo fieldMeta : fieldMetaInfos) {
-            if (fieldMeta.fieldName().equals(fieldName)) {
-                return Optional.of(fieldMeta);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(this.fieldMetaInfosByName.get(fieldName));
+    }
+
+    /**
+     * Provides all fields of the bean type indexed by their names.
+     * 
+     * @return an immutable map with field names as keys, iterating in the
+     *         same order as {@link #fieldMetaInfos()}
+     */
+    public Map<String, IBeanFieldMetaInfo> fieldMetaInfosByName() {
+        return this.fieldMetaInfosByName;
     }
 
     /*
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import org.coliper.ibean.proxy.ConcurrencyMode;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * Extension interface that provides atomic operations on single fields of a
+ * bean, similar to the operations of the classes in
+ * <code>java.util.concurrent.atomic</code>. Fields are either identified by
+ * their name or by their ordinal, which is the index of the field in the list
+ * of all fields of the bean type sorted by name.
+ * <p>
+ * The operations are atomic with respect to each other. Beans created by a
+ * factory in {@link ConcurrencyMode#ATOMIC} (see
+ * {@link ProxyIBeanFactory.Builder#withConcurrencyMode(ConcurrencyMode)})
+ * store their field values in atomic slots. Here the operations are lock-free
+ * and also atomic with respect to concurrent setter calls. In other modes the
+ * operations are implemented with a lock on the bean and setter calls running
+ * at the same time might be lost.
+ * <p>
+ * Changes done by the operations are treated like setter calls by all other
+ * extension interfaces, for example they are rejected if the bean is
+ * {@link Freezable frozen} and they mark a field as modified for
+ * {@link ModificationAware}.
+ * <pre>
+ * <code>
+ * public interface Statistics extends AtomicFields {
+ *     long getRequestCount();
+ *     void setRequestCount(long count);
+ * }
+ *
+ * long count = statistics.incrementAndGet("requestCount");
+ * </code>
+ * </pre>
+ *
+ * @author alex@coliper.org
+ */
+public interface AtomicFields {
+
+    /**
+     * Atomically sets a field to a new value if it currently holds the
+     * expected value. For fields of a primitive type the values are compared
+     * with {@link Object#equals(Object)}, so the expected value needs to be
+     * given as the respective wrapper type, for example {@link Integer} for
+     * an <code>int</code> field. All other field values are compared by
+     * identity.
+     *
+     * @param fieldName
+     *            the name of the field
+     * @param expectedValue
+     *            the value the field is expected to have
+     * @param newValue
+     *            the value to set
+     * @return <code>true</code> if the field has been changed
+     * @throws IllegalArgumentException
+     *             if the bean has no field with the given name
+     */
+    boolean compareAndSet(String fieldName, Object expectedValue, Object newValue);
+
+    /**
+     * Same as {@link #compareAndSet(String, Object, Object)} with the field
+     * given by its ordinal.
+     *
+     * @param ordinal
+     *            the ordinal of the field
+     * @param expectedValue
+     *            the value the field is expected to have
+     * @param newValue
+     *            the value to set
+     * @return <code>true</code> if the field has been changed
+     * @throws IllegalArgumentException
+     *             if the ordinal is out of range
+     */
+    boolean compareAndSet(int ordinal, Object expectedValue, Object newValue);
+
+    /**
+     * Atomically sets a field to a new value and returns the old value.
+     *
+     * @param fieldName
+     *            the name of the field
+     * @param newValue
+     *            the value to set
+     * @return the value the field had before
+     * @throws IllegalArgumentException
+     *             if the bean has no field with the given name
+     */
+    Object getAndSet(String fieldName, Object newValue);
+
+    /**
+     * Same as {@link #getAndSet(String, Object)} with the field given by its
+     * ordinal.
+     *
+     * @param ordinal
+     *            the ordinal of the field
+     * @param newValue
+     *            the value to set
+     * @return the value the field had before
+     * @throws IllegalArgumentException
+     *             if the ordinal is out of range
+     */
+    Object getAndSet(int ordinal, Object newValue);
+
+    /**
+     * Atomically adds a value to a field of type <code>int</code> or
+     * <code>long</code>. For <code>int</code> fields the result overflows
+     * like a Java <code>int</code> addition.
+     *
+     * @param fieldName
+     *            the name of the field
+     * @param delta
+     *            the value to add
+     * @return the value the field had before
+     * @throws IllegalArgumentException
+     *             if the bean has no field with the given name or the field
+     *             is neither of type <code>int</code> nor <code>long</code>
+     */
+    long getAndAdd(String fieldName, long delta);
+
+    /**
+     * Same as {@link #getAndAdd(String, long)} with the field given by its
+     * ordinal.
+     *
+     * @param ordinal
+     *            the ordinal of the field
+     * @param delta
+     *            the value to add
+     * @return the value the field had before
+     * @throws IllegalArgumentException
+     *             if the ordinal is out of range or the field is neither of
+     *             type <code>int</code> nor <code>long</code>
+     */
+    long getAndAdd(int ordinal, long delta);
+
+    /**
+     * Atomically increments a field of type <code>int</code> or
+     * <code>long</code> by one.
+     *
+     * @param fieldName
+     *            the name of the field
+     * @return the new value of the field
+     * @throws IllegalArgumentException
+     *             if the bean has no field with the given name or the field
+     *             is neither of type <code>int</code> nor <code>long</code>
+     */
+    long incrementAndGet(String fieldName);
+
+    /**
+     * Same as {@link #incrementAndGet(String)} with the field given by its
+     * ordinal.
+     *
+     * @param ordinal
+     *            the ordinal of the field
+     * @return the new value of the field
+     * @throws IllegalArgumentException
+     *             if the ordinal is out of range or the field is neither of
+     *             type <code>int</code> nor <code>long</code>
+     */
+    long incrementAndGet(int ordinal);
+}
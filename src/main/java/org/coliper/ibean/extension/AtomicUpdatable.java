@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Extension interface that allows changing several fields of a bean as one
+ * atomic step and reading several fields as one consistent snapshot. Meant
+ * for beans that are written by one or a few threads and read by many
+ * others, where readers must never see a half-done change:
+ *
+ * <pre>
+ * <code>
+ * public interface Quote extends AtomicUpdatable&lt;Quote&gt; {
+ *     ...
+ * }
+ *
+ * // writer thread
+ * quote.update(q -&gt; {
+ *     q.setBid(bid);
+ *     q.setAsk(ask);
+ * });
+ *
+ * // reader threads
+ * double spread = quote.read(q -&gt; q.getAsk() - q.getBid());
+ * </code>
+ * </pre>
+ * <p>
+ * Updates are mutually exclusive. Reads are optimistic like in a sequence
+ * lock: the reader function is executed without any locking and repeated if
+ * an update happened in the meantime. Therefore readers never block writers.
+ * Only if a read fails repeatedly because of ongoing updates, the read is
+ * finally done holding a lock to guarantee progress. As a consequence the
+ * reader function might be called more than once and must not have side
+ * effects. It also must not change the bean.
+ * <p>
+ * The consistency guarantee only covers changes done within
+ * {@link #update(Consumer)}. Setters called directly are not coordinated with
+ * readers. Calls of {@link #update(Consumer)} and
+ * {@link #read(Function)} can be nested within the same thread.
+ *
+ * @param <T>
+ *            the bean type itself
+ * @author alex@coliper.org
+ */
+public interface AtomicUpdatable<T> {
+
+    /**
+     * Executes the given function that is supposed to change the bean. No
+     * other update is running at the same time and readers calling
+     * {@link #read(Function)} see either none or all of the changes. If the
+     * updater throws an exception the changes done so far are kept.
+     *
+     * @param updater
+     *            gets the bean itself as parameter
+     * @return this (the bean itself)
+     */
+    T update(Consumer<? super T> updater);
+
+    /**
+     * Executes the given function on a consistent state of the bean, that is
+     * the function does not observe an update executed via
+     * {@link #update(Consumer)} only partially.
+     *
+     * @param reader
+     *            gets the bean itself as parameter, might be called several
+     *            times and must not have side effects
+     * @param <R>
+     *            the result type of the reader
+     * @return the result of the reader function
+     */
+    <R> R read(Function<? super T, ? extends R> reader);
+}
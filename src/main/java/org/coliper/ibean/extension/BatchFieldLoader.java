@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import java.util.List;
+
+/**
+ * Loads several lazy fields of many {@link LazyLoadable} beans with one call.
+ * Used with {@link LazyLoadable#prefetch(List, BatchFieldLoader, String...)}.
+ *
+ * @param <B>
+ *            the bean type
+ * @see LazyLoadable
+ * @author alex@coliper.org
+ */
+@FunctionalInterface
+public interface BatchFieldLoader<B> {
+
+    /**
+     * Loads the values of the given fields for all given beans.
+     *
+     * @param beans
+     *            the beans to load fields for
+     * @param fieldNames
+     *            the names of the fields to load
+     * @return an array with one row per bean in the order of
+     *         <code>beans</code>, each row containing the field values in the
+     *         order of <code>fieldNames</code>
+     */
+    Object[][] loadAll(List<B> beans, List<String> fieldNames);
+}
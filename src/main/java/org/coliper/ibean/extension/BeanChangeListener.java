@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+/**
+ * Listener that is notified about field changes of an {@link ObservableBean}.
+ * Listeners are registered with
+ * {@link ObservableBean#addChangeListener(BeanChangeListener)}.
+ *
+ * @see ObservableBean
+ * @author alex@coliper.org
+ */
+@FunctionalInterface
+public interface BeanChangeListener {
+
+    /**
+     * Called after one or more fields of an {@link ObservableBean} have been
+     * changed. Outside of a change batch this method is called once per setter
+     * call, within a batch it is called once when the batch ends with all
+     * fields changed during the batch.
+     *
+     * @param bean
+     *            the bean whose fields have been changed
+     * @param changedFields
+     *            the ordinals of all changed fields, see
+     *            {@link org.coliper.ibean.IBeanFieldMetaInfo#ordinal()}. The
+     *            set is immutable and may be shared between listeners and
+     *            notifications.
+     */
+    void beanChanged(Object bean, ChangedFields changedFields);
+}
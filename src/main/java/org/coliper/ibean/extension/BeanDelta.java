@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Immutable set of field changes of a bean as recorded by a {@link Journaled}
+ * bean. Each entry consists of the field ordinal, the value of the field
+ * before the change and the value after the change. Entries are sorted by the
+ * order of the first change of a field.
+ * <p>
+ * A delta can be replayed onto another bean of the same type with
+ * {@link #applyTo(Object)}.
+ *
+ * @see Journaled
+ * @author alex@coliper.org
+ */
+public final class BeanDelta {
+
+    private final IBeanTypeMetaInfo<?> metaInfo;
+    private final int[] ordinals;
+    private final Object[] oldValues;
+    private final Object[] newValues;
+
+    /**
+     * Creates a new {@link BeanDelta}. Normally only used by
+     * {@link Journaled} handlers. The given arrays are not copied, they must
+     * not be changed after being passed to this constructor.
+     *
+     * @param metaInfo
+     *            meta information of the bean type the delta belongs to
+     * @param ordinals
+     *            the ordinals of all changed fields
+     * @param oldValues
+     *            the values of the fields before the change, same length as
+     *            <code>ordinals</code>
+     * @param newValues
+     *            the values of the fields after the change, same length as
+     *            <code>ordinals</code>
+     */
+    public BeanDelta(IBeanTypeMetaInfo<?> metaInfo, int[] ordinals, Object[] oldValues,
+            Object[] newValues) {
+        requireNonNull(metaInfo, "metaInfo");
+        requireNonNull(ordinals, "ordinals");
+        requireNonNull(oldValues, "oldValues");
+        requireNonNull(newValues, "newValues");
+        checkArgument(ordinals.length == oldValues.length && ordinals.length == newValues.length,
+                "arrays need to have same length");
+        this.metaInfo = metaInfo;
+        this.ordinals = ordinals;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+    }
+
+    /**
+     * Provides the bean type the delta belongs to.
+     *
+     * @return the bean type
+     */
+    public Class<?> beanType() {
+        return this.metaInfo.beanType();
+    }
+
+    /**
+     * Provides the number of changed fields contained in this delta.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return this.ordinals.length;
+    }
+
+    /**
+     * @return <code>true</code> if this delta does not contain any changes
+     */
+    public boolean isEmpty() {
+        return this.ordinals.length == 0;
+    }
+
+    /**
+     * Provides the ordinal of the field changed in a given entry.
+     *
+     * @param index
+     *            entry index between 0 and {@link #size()} - 1
+     * @return the field ordinal, see {@link IBeanFieldMetaInfo#ordinal()}
+     */
+    public int ordinal(int index) {
+        return this.ordinals[index];
+    }
+
+    /**
+     * Provides the name of the field changed in a given entry.
+     *
+     * @param index
+     *            entry index between 0 and {@link #size()} - 1
+     * @return the field name
+     */
+    public String fieldName(int index) {
+        return this.fieldMeta(index).fieldName();
+    }
+
+    /**
+     * Provides the value of the field before it was changed.
+     *
+     * @param index
+     *            entry index between 0 and {@link #size()} - 1
+     * @return the old field value; may be <code>null</code>
+     */
+    public Object oldValue(int index) {
+        return this.oldValues[index];
+    }
+
+    /**
+     * Provides the value of the field after the latest change.
+     *
+     * @param index
+     *            entry index between 0 and {@link #size()} - 1
+     * @return the new field value; may be <code>null</code>
+     */
+    public Object newValue(int index) {
+        return this.newValues[index];
+    }
+
+    private IBeanFieldMetaInfo fieldMeta(int index) {
+        return this.metaInfo.fieldMetaInfos().get(this.ordinals[index]);
+    }
+
+    /**
+     * Replays all changes of this delta onto the given bean by calling the
+     * respective setters with the new values. As the setters are used all
+     * extension interfaces of the target bean take effect, for example a
+     * {@link Freezable} target will reject the changes if frozen.
+     *
+     * @param targetBean
+     *            a bean of type {@link #beanType()}
+     * @throws IllegalArgumentException
+     *             if <code>targetBean</code> is not an instance of
+     *             {@link #beanType()}
+     */
+    public void applyTo(Object targetBean) {
+        requireNonNull(targetBean, "targetBean");
+        checkArgument(this.metaInfo.beanType().isInstance(targetBean),
+                "target bean %s is not of type %s", targetBean, this.metaInfo.beanType());
+        for (int i = 0; i < this.ordinals.length; i++) {
+            final Method setter = this.fieldMeta(i).setterMethod();
+            try {
+                setter.invoke(targetBean, this.newValues[i]);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("unexpected exception calling " + setter, e);
+            } catch (InvocationTargetException e) {
+                Throwables.throwIfUnchecked(e.getTargetException());
+                throw new RuntimeException(e.getTargetException());
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("BeanDelta [beanType=");
+        builder.append(this.metaInfo.beanType().getName());
+        for (int i = 0; i < this.ordinals.length; i++) {
+            builder.append(", ").append(this.fieldName(i)).append(": ")
+                    .append(this.oldValues[i]).append(" -> ").append(this.newValues[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Thrown from beans that are extended with the {@link Validated} interface
+ * when a setter is called with a value that violates a constraint of the
+ * field or when calling {@link Validated#assertValid()} on an invalid bean.
+ * 
+ * @see Validated
+ * @author alex@coliper.org
+ */
+public class BeanValidationException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> violations;
+
+    public BeanValidationException(List<String> violations) {
+        super(String.join(", ", violations));
+        this.violations = ImmutableList.copyOf(violations);
+    }
+
+    /**
+     * @return one message per violated constraint
+     */
+    public List<String> violations() {
+        return this.violations;
+    }
+}
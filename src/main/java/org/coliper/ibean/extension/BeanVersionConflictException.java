@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+/**
+ * Thrown from beans that are extended with {@link Versioned} interface if
+ * their version does not match to an expected version.
+ * 
+ * @see Versioned#assertUnchangedSince(long)
+ * @author alex@coliper.org
+ */
+public class BeanVersionConflictException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    /**
+     * Creates a new {@link BeanVersionConflictException}.
+     * 
+     * @param expectedVersion
+     *            the version the bean was expected to have
+     * @param actualVersion
+     *            the current version of the bean
+     */
+    public BeanVersionConflictException(long expectedVersion, long actualVersion) {
+        super("bean has been changed, expected version " + expectedVersion
+                + " but current version is " + actualVersion);
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    /**
+     * @return the version the bean was expected to have
+     */
+    public long expectedVersion() {
+        return this.expectedVersion;
+    }
+
+    /**
+     * @return the version of the bean at the time of the check
+     */
+    public long actualVersion() {
+        return this.actualVersion;
+    }
+}
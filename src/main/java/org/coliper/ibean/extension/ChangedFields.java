@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import org.coliper.ibean.IBeanFieldMetaInfo;
+
+/**
+ * Immutable set of field ordinals as passed to
+ * {@link BeanChangeListener#beanChanged(Object, ChangedFields)}. As it cannot
+ * be modified the same instance can be handed to all listeners of a bean.
+ *
+ * @see BeanChangeListener
+ * @author alex@coliper.org
+ */
+public final class ChangedFields {
+
+    private final long[] words;
+
+    /**
+     * Creates a new {@link ChangedFields}. Normally only used by
+     * {@link ObservableBean} handlers. The given array is not copied, it must
+     * not be changed after being passed to this constructor.
+     *
+     * @param words
+     *            the field ordinals packed into <code>long</code>s like in
+     *            {@link BitSet#valueOf(long[])}: bit <code>n % 64</code> of
+     *            element <code>n / 64</code> is set if the field with ordinal
+     *            <code>n</code> has been changed
+     */
+    public ChangedFields(long[] words) {
+        requireNonNull(words, "words");
+        this.words = words;
+    }
+
+    /**
+     * Creates a new {@link ChangedFields} containing a single field.
+     *
+     * @param ordinal
+     *            the ordinal of the changed field, see
+     *            {@link IBeanFieldMetaInfo#ordinal()}
+     * @return the new instance
+     */
+    public static ChangedFields ofSingleField(int ordinal) {
+        checkArgument(ordinal >= 0, "negative ordinal %s", ordinal);
+        final long[] words = new long[(ordinal >> 6) + 1];
+        words[ordinal >> 6] = 1L << ordinal;
+        return new ChangedFields(words);
+    }
+
+    /**
+     * Checks if a given field is part of this set.
+     *
+     * @param ordinal
+     *            the ordinal of the field, see
+     *            {@link IBeanFieldMetaInfo#ordinal()}
+     * @return <code>true</code> if the field has been changed
+     */
+    public boolean contains(int ordinal) {
+        final int wordIndex = ordinal >> 6;
+        return ordinal >= 0 && wordIndex < this.words.length
+                && (this.words[wordIndex] & (1L << ordinal)) != 0L;
+    }
+
+    /**
+     * @return the number of changed fields
+     */
+    public int size() {
+        int size = 0;
+        for (long word : this.words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return <code>true</code> if no field is contained
+     */
+    public boolean isEmpty() {
+        for (long word : this.words) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calls the given action for the ordinal of each changed field in
+     * ascending order. Does not allocate any objects.
+     *
+     * @param action
+     *            receives the ordinals
+     */
+    public void forEach(IntConsumer action) {
+        requireNonNull(action, "action");
+        for (int wordIndex = 0; wordIndex < this.words.length; wordIndex++) {
+            long word = this.words[wordIndex];
+            while (word != 0L) {
+                action.accept((wordIndex << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return a new {@link BitSet} containing the ordinals of all changed
+     *         fields; changing it does not affect this set
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(this.words);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        // same as BitSet.hashCode(), trailing empty words do not contribute
+        long hash = 1234L;
+        for (int i = 0; i < this.words.length; i++) {
+            hash ^= this.words[i] * (i + 1);
+        }
+        return (int) ((hash >> 32) ^ hash);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ChangedFields)) {
+            return false;
+        }
+        final long[] otherWords = ((ChangedFields) obj).words;
+        final int commonLength = Math.min(this.words.length, otherWords.length);
+        for (int i = 0; i < commonLength; i++) {
+            if (this.words[i] != otherWords[i]) {
+                return false;
+            }
+        }
+        // remaining words of the longer array must be empty
+        final long[] longerWords = this.words.length > commonLength ? this.words : otherWords;
+        for (int i = commonLength; i < longerWords.length; i++) {
+            if (longerWords[i] != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "ChangedFields " + this.toBitSet();
+    }
+}
@@ -18,6 +18,7 @@ import java.util.Collection;
 
 import org.coliper.ibean.IBean;
 import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
 
 /**
  * Enables cloning of beans via {@link Object#clone()}. To enable cloning the
@@ -53,6 +54,11 @@ public interface CloneableBean<T> extends Cloneable {
      * initial state on any extension interface. If field value is an object the newly created
      * bean will also reference the same object. If you need the field values also cloned use
      * {@link #deepClone()}.
+     * <p>
+     * Field values are copied directly between the beans, getters and setters are not
+     * invoked during cloning. If the factory is configured for copy-on-write cloning
+     * (see {@link ProxyIBeanFactory.Builder#withCopyOnWriteCloning(boolean)}) clone and
+     * origin even share the same field value storage until one of them is changed.
      * 
      * @return an IBean of the same type
      */
@@ -73,8 +79,12 @@ public interface CloneableBean<T> extends Cloneable {
      * </li> 
      * </ul>
      * 
-     * {@link #deepClone()} has no cycle detection. If you need cycle detection or a more 
-     * sophisticated cloning use one of the deep cloning Java frameworks out there.
+     * Each object of the bean graph is cloned only once. If the same object is referenced
+     * several times in the origin graph all references in the cloned graph point to the same
+     * clone. This also covers cycles, for example a bean referencing itself.
+     * <p>
+     * Large collections can be cloned in parallel, see 
+     * {@link ProxyIBeanFactory.Builder#withParallelDeepCloning(int)}.
      *  
      * @return an IBean of the same type
      */
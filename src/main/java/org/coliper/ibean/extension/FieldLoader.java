@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import org.coliper.ibean.IBeanFieldMetaInfo;
+
+/**
+ * Loads the value of a single lazy field of a {@link LazyLoadable} bean.
+ * Loaders are registered with
+ * {@link LazyLoadable#registerFieldLoader(FieldLoader)}.
+ *
+ * @see LazyLoadable
+ * @author alex@coliper.org
+ */
+@FunctionalInterface
+public interface FieldLoader {
+
+    /**
+     * Called with the first getter call of a lazy field that has neither been
+     * loaded nor set before.
+     *
+     * @param bean
+     *            the bean the field belongs to
+     * @param fieldMeta
+     *            meta information about the field to load
+     * @return the value of the field; may only be <code>null</code> for
+     *         fields of a non-primitive type
+     */
+    Object load(Object bean, IBeanFieldMetaInfo fieldMeta);
+}
@@ -29,6 +29,13 @@ import org.coliper.ibean.beanstyle.ModernBeanStyle;
  * The bean instance is set to immutable (aka frozen) by calling
  * {@link #freeze()}. All subsequent calls to any setter will cause a
  * {@link BeanFrozenException} to be thrown from the setter.
+ * <p>
+ * {@link #freeze()} also serves as publication point for the field values:
+ * a thread that gets <code>true</code> from {@link #isFrozen()} sees all
+ * field values set before the bean got frozen, even if it obtained the bean
+ * reference before. The bean reference itself still needs to be handed over
+ * safely, for example via a volatile or final field or a concurrent
+ * collection, as the bean proxy is not safely published by itself.
  * 
  * @author alex@coliper.org
  */
@@ -41,6 +48,33 @@ public interface Freezable<T> {
      */
     T freeze();
 
+    /**
+     * Freezes the bean together with the whole object graph reachable from
+     * it, producing a snapshot that can be shared between threads without any
+     * defensive copying.
+     * <ul>
+     * <li>Nested beans that are {@link Freezable} themselves are deep frozen
+     * recursively. They are frozen in place, so a sub-bean referenced from
+     * several places of the graph remains one single instance. Cycles in the
+     * graph are supported.</li>
+     * <li>Fields of type {@link java.util.List}, {@link java.util.Set} or
+     * {@link java.util.Map} are replaced by immutable copies, preferably Guava
+     * immutable collections. Elements of these collections are frozen the same
+     * way. A collection referenced by several fields is replaced by one single
+     * copy. A collection field is only replaced if the declared field type
+     * allows it, for example a field of type {@link java.util.ArrayList} keeps
+     * its value.</li>
+     * </ul>
+     * The replacement of collection values neither counts as modification of
+     * the bean nor as setter call for any other extension interface.
+     * <p>
+     * Other threads must not change the graph while it is being deep frozen.
+     * 
+     * @return this (the bean itself); used for chaining with setter calls in
+     *         {@link ModernBeanStyle}
+     */
+    T deepFreeze();
+
     /**
      * @return <code>true</code> if the bean was switched to immutable with a
      *         previous {@link #freeze()} call
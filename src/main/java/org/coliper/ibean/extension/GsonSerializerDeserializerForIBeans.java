@@ -14,6 +14,8 @@
 
 package org.coliper.ibean.extension;
 
+import static java.util.Objects.requireNonNull;
+
 import java.lang.reflect.Type;
 
 import org.coliper.ibean.IBean;
@@ -67,6 +69,7 @@ public class GsonSerializerDeserializerForIBeans
         implements JsonSerializer<GsonSupport>, JsonDeserializer<GsonSupport> {
 
     private final IBeanFactory iBeanFactory;
+    private final JsonSerializationMode serializationMode;
 
     /**
      * Creates a new {@code GsonSerializerDeserializerForIBeans} with no
@@ -89,7 +92,28 @@ public class GsonSerializerDeserializerForIBeans
      *            used for creation of new IBeans during deserializaion.
      */
     public GsonSerializerDeserializerForIBeans(IBeanFactory iBeanFactory) {
+        this(iBeanFactory, JsonSerializationMode.ALL_FIELDS);
+    }
+
+    /**
+     * Creates a new {@code GsonSerializerDeserializerForIBeans} with a given
+     * {@link IBeanFactory} and a {@link JsonSerializationMode} that decides
+     * which fields of an IBean are written during serialization. Using
+     * {@link JsonSerializationMode#MODIFIED_FIELDS} for example only fields
+     * modified according to {@link ModificationAwareExt} are written.
+     * 
+     * @param iBeanFactory
+     *            the factory to use by the deserializer to create new IBeans.
+     *            If <code>null</code> default factory in {@link IBean} will be
+     *            used for creation of new IBeans during deserializaion.
+     * @param serializationMode
+     *            the mode used for serialization of all IBeans including
+     *            nested ones
+     */
+    public GsonSerializerDeserializerForIBeans(IBeanFactory iBeanFactory,
+            JsonSerializationMode serializationMode) {
         this.iBeanFactory = iBeanFactory;
+        this.serializationMode = requireNonNull(serializationMode, "serializationMode");
     }
 
     private <T> T createBean(Class<T> beanType) {
@@ -125,7 +149,7 @@ public class GsonSerializerDeserializerForIBeans
     public JsonElement serialize(GsonSupport src, Type typeOfSrc,
             JsonSerializationContext context) {
         final JsonObject jsonObject = new JsonObject();
-        src.writeToJsonObject(jsonObject, context);
+        src.writeToJsonObject(jsonObject, context, this.serializationMode);
         return jsonObject;
     }
 
@@ -14,6 +14,10 @@
 
 package org.coliper.ibean.extension;
 
+import static java.util.Objects.requireNonNull;
+
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
 import com.google.gson.Gson;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
@@ -66,4 +70,37 @@ public interface GsonSupport {
      */
     void writeToJsonObject(JsonObject jsonObject, JsonSerializationContext context);
 
+    /**
+     * Writes the field values of this IBean out into a JsonObject, selecting
+     * the fields to write by a given {@link JsonSerializationMode}.
+     * <p>
+     * You normally do not use this method directly. It is mainly called from
+     * {@link GsonSerializerDeserializerForIBeans} during JSON serialization.
+     * 
+     * <p>
+     * IBeans created by {@link ProxyIBeanFactory} support all modes. The
+     * default implementation, meant for other implementations of this
+     * interface, only supports {@link JsonSerializationMode#ALL_FIELDS} and
+     * delegates to {@link #writeToJsonObject(JsonObject, JsonSerializationContext)}.
+     * 
+     * @param jsonObject
+     *            the target where to write the field value to
+     * @param context
+     *            the Gson serialization context
+     * @param mode
+     *            decides which fields are written, for example only modified
+     *            fields
+     * @throws UnsupportedOperationException
+     *             if the implementation does not support the given mode
+     */
+    default void writeToJsonObject(JsonObject jsonObject, JsonSerializationContext context,
+            JsonSerializationMode mode) {
+        requireNonNull(mode, "mode");
+        if (mode != JsonSerializationMode.ALL_FIELDS) {
+            throw new UnsupportedOperationException(
+                    "serialization mode " + mode + " not supported by " + this.getClass());
+        }
+        this.writeToJsonObject(jsonObject, context);
+    }
+
 }
@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.deser.Deserializers;
 
 /**
@@ -58,6 +59,20 @@ import com.fasterxml.jackson.databind.deser.Deserializers;
  *     BeanType deserializedBean = mapper.readValue(json, BeanType.class);
  * </code>
  * </pre>
+ * <p>
+ * To write only the modified fields of beans extending
+ * {@link ModificationAwareExt} provide a {@link JsonSerializationMode} as
+ * attribute {@link #SERIALIZATION_MODE_ATTRIBUTE} of the used
+ * {@link ObjectWriter}:
+ * 
+ * <pre>
+ * <code>
+ *     String patch = mapper.writer()
+ *             .withAttribute(Jackson2ModuleForIBeans.SERIALIZATION_MODE_ATTRIBUTE,
+ *                     JsonSerializationMode.MERGE_PATCH)
+ *             .writeValueAsString(someBean);
+ * </code>
+ * </pre>
  * 
  * @author alex@coliper.org
  */
@@ -65,6 +80,16 @@ public class Jackson2ModuleForIBeans extends Module {
     @SuppressWarnings("unused")
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Key of the serialization attribute that holds the
+     * {@link JsonSerializationMode} used for writing IBeans. If the attribute
+     * is not set {@link JsonSerializationMode#ALL_FIELDS} is used.
+     * 
+     * @see ObjectWriter#withAttribute(Object, Object)
+     */
+    public static final String SERIALIZATION_MODE_ATTRIBUTE =
+            JsonSerializationMode.class.getName();
+
     private static class IBeanDeserializers extends Deserializers.Base {
 
         private final IBeanFactory iBeanFactory;
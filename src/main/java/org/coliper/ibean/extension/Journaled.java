@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+/**
+ * Extension interface that records all changes of a bean in a journal. For
+ * each changed field the journal holds the value the field had before the
+ * first change and the value it has after the latest change. Several setter
+ * calls on the same field are merged into one journal entry.
+ * <p>
+ * The journal can be taken out of the bean as a {@link BeanDelta} with
+ * {@link #drainJournal()}. A {@link BeanDelta} can then be applied to another
+ * bean of the same type, for example to keep a replica in sync without copying
+ * all fields:
+ *
+ * <pre>
+ * <code>
+ * public interface Order extends Journaled {
+ *     ...
+ * }
+ *
+ * order.setQuantity(100);
+ * order.setPrice(price);
+ * BeanDelta delta = order.drainJournal(); // journal of order is empty now
+ * delta.applyTo(replica);
+ * </code>
+ * </pre>
+ * <p>
+ * Like {@link ModificationAware} a field counts as changed as soon as its
+ * setter is called, regardless whether the value actually changed.
+ *
+ * @see BeanDelta
+ * @author alex@coliper.org
+ */
+public interface Journaled {
+
+    /**
+     * Tells if the journal contains any changes.
+     *
+     * @return <code>true</code> if a setter has been called since creation of
+     *         the bean or since the last call of {@link #drainJournal()} or
+     *         {@link #clearJournal()}
+     */
+    boolean hasJournalEntries();
+
+    /**
+     * Returns all changes recorded in the journal and empties the journal.
+     *
+     * @return an immutable delta containing one entry per changed field. Never
+     *         <code>null</code>, if there are no changes the delta is empty.
+     */
+    BeanDelta drainJournal();
+
+    /**
+     * Empties the journal without returning its content.
+     */
+    void clearJournal();
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+/**
+ * Selects which fields of an IBean are written during JSON serialization with
+ * {@link GsonSupport} or {@link Jackson2Support}. Modes other than
+ * {@link #ALL_FIELDS} rely on the modification tracking of
+ * {@link ModificationAwareExt} and are meant for sending only the changes of a
+ * bean, for example as body of a HTTP PATCH request.
+ * <p>
+ * For Gson the mode is provided when creating the
+ * {@link GsonSerializerDeserializerForIBeans}, for Jackson2 it is provided as attribute
+ * {@link Jackson2ModuleForIBeans#SERIALIZATION_MODE_ATTRIBUTE} of the
+ * <code>ObjectWriter</code>.
+ * <p>
+ * Beans that do not implement {@link ModificationAwareExt} cannot tell which
+ * fields have been modified and are therefore always written completely.
+ *
+ * @author alex@coliper.org
+ */
+public enum JsonSerializationMode {
+    /**
+     * All fields are written. This is the default.
+     */
+    ALL_FIELDS,
+
+    /**
+     * Only fields reported as modified by
+     * {@link ModificationAwareExt#getModifiedFieldBits(long[])} are written.
+     * Additionally fields are written if their value is a nested
+     * {@link ModificationAware} bean that is modified itself. Nested beans are
+     * written in the same mode, so only their modified fields are contained
+     * in the output.
+     */
+    MODIFIED_FIELDS,
+
+    /**
+     * Like {@link #MODIFIED_FIELDS} but the output follows the rules of a JSON
+     * Merge Patch (RFC 7386): a nested bean that has been replaced by calling
+     * the setter of the field is written completely, as merging a partial
+     * object would keep outdated fields of the previous bean in the target.
+     * Nested beans that stayed the same instance but were modified are written
+     * as patch containing only their modified fields. Fields set to
+     * <code>null</code> are written as explicit JSON <code>null</code> which
+     * means removal in a merge patch. With Gson this requires
+     * <code>GsonBuilder.serializeNulls()</code> to be configured, otherwise Gson
+     * drops <code>null</code> members.
+     */
+    MERGE_PATCH;
+}
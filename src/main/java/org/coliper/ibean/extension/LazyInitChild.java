@@ -66,6 +66,13 @@ package org.coliper.ibean.extension;
  * {@link LazyInitParent}s. That of course means that their bean style needs to
  * match.
  * </p>
+ * <p>
+ * A child created on the fly is stored in the parent's field, so subsequent
+ * getter calls return the same child instance. The child is stored directly
+ * without calling the parent's setter, therefore it does not count as a
+ * modification (see {@link ModificationAware}). If several threads call the
+ * getter concurrently on the same parent they all receive the same child.
+ * </p>
  * 
  * @author alex@coliper.org
  */
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Extension interface for beans with fields that are loaded on demand. Fields
+ * whose getter is annotated with {@link Lazy} are populated by a registered
+ * {@link FieldLoader} with the first getter call, unless the field has been
+ * set before. This is useful if beans are hydrated from a slow store and most
+ * users of a bean only need a few of its expensive fields:
+ *
+ * <pre>
+ * <code>
+ * public interface Customer extends LazyLoadable {
+ *     String getName();
+ *     void setName(String name);
+ *
+ *     &#64;Lazy
+ *     List&lt;Order&gt; getOrders();
+ *     void setOrders(List&lt;Order&gt; orders);
+ * }
+ *
+ * customer.registerFieldLoader((bean, fieldMeta) -&gt; orderStore.ordersOf(bean));
+ * customer.getOrders(); // calls the loader
+ * customer.getOrders(); // returns the loaded value
+ * </code>
+ * </pre>
+ * <p>
+ * For loading fields of many beans at once use
+ * {@link #prefetch(List, BatchFieldLoader, String...)}.
+ * <p>
+ * Loading a field does not count as a modification, for example
+ * {@link ModificationAware} beans are not marked as modified. Methods that
+ * access fields without calling getters, like <code>toString()</code>,
+ * <code>equals()</code> or JSON serialization, do not trigger loading. If the
+ * loader throws an exception the field stays unloaded and the next getter call
+ * tries again. Like the rest of the bean lazy loading is not synchronized.
+ * Beans shared between threads should be prefetched before.
+ * <p>
+ * Frozen {@link Freezable} beans and {@link Snapshotable} snapshots do not
+ * change anymore, therefore they do not load. Lazy fields not loaded before
+ * keep their current value and {@link #supplyLoadedValue(String, Object)} is
+ * rejected. A loaded value of a boxed primitive type is widened to the field
+ * type, for example an {@link Integer} loaded for a <code>long</code> field.
+ * <p>
+ * Clones and reset pool beans do not take over the loader of the original
+ * bean.
+ *
+ * @see FieldLoader
+ * @see BatchFieldLoader
+ * @author alex@coliper.org
+ */
+public interface LazyLoadable {
+
+    /**
+     * Marks a field to be loaded on demand. Needs to be put on the getter.
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public static @interface Lazy {
+    }
+
+    /**
+     * Registers the loader that is used to load lazy fields of this bean.
+     * Replaces a loader registered before. Without a registered loader lazy
+     * fields behave like ordinary fields.
+     *
+     * @param loader
+     *            the loader to use
+     */
+    void registerFieldLoader(FieldLoader loader);
+
+    /**
+     * Tells if a lazy field already has its value.
+     *
+     * @param fieldName
+     *            name of a field
+     * @return <code>true</code> if the field has been loaded or set before or
+     *         if it is not a lazy field
+     * @throws IllegalArgumentException
+     *             if the bean does not have a field named
+     *             <code>fieldName</code>
+     */
+    boolean isFieldLoaded(String fieldName);
+
+    /**
+     * Provides a loaded value for a lazy field from outside, for example from
+     * a {@link BatchFieldLoader}. The value is stored without calling the
+     * setter and the field counts as loaded afterwards.
+     *
+     * @param fieldName
+     *            name of a lazy field
+     * @param value
+     *            the loaded value
+     * @throws IllegalArgumentException
+     *             if the bean does not have a lazy field named
+     *             <code>fieldName</code> or if the value does not fit the field
+     *             type
+     * @throws BeanFrozenException
+     *             if the bean is frozen
+     * @throws UnsupportedOperationException
+     *             if the bean is a snapshot
+     */
+    void supplyLoadedValue(String fieldName, Object value);
+
+    /**
+     * Loads the given lazy fields of many beans with one call of
+     * <code>loader</code>. The loader is only called for beans that have at
+     * least one of the fields not loaded yet. Fields that have been loaded or
+     * set before keep their values.
+     *
+     * @param beans
+     *            the beans to load the fields of
+     * @param loader
+     *            the loader providing the values
+     * @param fieldNames
+     *            the names of the lazy fields to load
+     * @param <B>
+     *            the bean type
+     * @throws IllegalStateException
+     *             if the loader does not return one row per bean with one
+     *             value per field
+     */
+    static <B extends LazyLoadable> void prefetch(List<B> beans, BatchFieldLoader<B> loader,
+            String... fieldNames) {
+        requireNonNull(beans, "beans");
+        requireNonNull(loader, "loader");
+        requireNonNull(fieldNames, "fieldNames");
+        final List<B> beansToLoad = new ArrayList<>();
+        for (B bean : beans) {
+            for (String fieldName : fieldNames) {
+                if (!bean.isFieldLoaded(fieldName)) {
+                    beansToLoad.add(bean);
+                    break;
+                }
+            }
+        }
+        if (beansToLoad.isEmpty()) {
+            return;
+        }
+        final Object[][] values = loader.loadAll(beansToLoad, Arrays.asList(fieldNames));
+        checkState(values != null && values.length == beansToLoad.size(),
+                "loader needs to return one row per bean");
+        for (int i = 0; i < values.length; i++) {
+            final B bean = beansToLoad.get(i);
+            checkState(values[i] != null && values[i].length == fieldNames.length,
+                    "loader needs to return one value per field");
+            for (int j = 0; j < fieldNames.length; j++) {
+                if (!bean.isFieldLoaded(fieldNames[j])) {
+                    bean.supplyLoadedValue(fieldNames[j], values[i][j]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import java.util.Map;
+
+/**
+ * Extension interface that gives map-shaped access to the fields of a bean,
+ * for example for template engines, rule engines or JDBC helpers.
+ * <p>
+ * {@link #asMap()} returns a live view of the bean with the field names as
+ * keys. The view does not copy any values, reading from the view reads the
+ * current field values directly from the bean and writing into the view
+ * changes the fields of the bean:
+ *
+ * <pre>
+ * <code>
+ * public interface Customer extends MapView {
+ *     ...
+ * }
+ *
+ * Map&lt;String, Object&gt; map = customer.asMap();
+ * template.render(map);
+ * map.put("name", "Smith"); // same as customer.setName("Smith")
+ * </code>
+ * </pre>
+ * <p>
+ * The other way round {@link #loadFromMap(Map)} populates a bean with all
+ * entries of a map in one go.
+ * <p>
+ * Values are read from and written to the field storage of the bean without
+ * calling getters or setters. Extension handlers still see changes like with
+ * a setter call, for example a frozen bean rejects them and a
+ * {@link ModificationAware} bean gets marked as modified. Getter related
+ * extensions like {@link NullSafe} do not apply to reading via the map view.
+ * <p>
+ * Numbers and characters are widened to numeric field types like in a Java
+ * assignment, for example an {@link Integer} put into a <code>long</code> or
+ * {@link Long} field is stored as {@link Long}. Narrowing is rejected.
+ *
+ * @author alex@coliper.org
+ */
+public interface MapView {
+
+    /**
+     * Provides a live map view of the fields of this bean. The view contains
+     * exactly one entry per field, in the same order as the fields in the
+     * meta information of the bean type. Existing entries can be changed but
+     * entries cannot be added or removed. {@link Map#put(Object, Object)}
+     * throws an {@link IllegalArgumentException} if the key is not a field
+     * name or if the value does not fit the field type.
+     *
+     * @return a map view backed by this bean
+     */
+    Map<String, Object> asMap();
+
+    /**
+     * Sets the fields of this bean to the values of the given map. The keys
+     * of the map are field names. Fields without an entry in the map keep
+     * their values. All keys and values are checked before any field is
+     * changed.
+     *
+     * @param values
+     *            maps field names to new values
+     * @throws IllegalArgumentException
+     *             if a key of the map is not a field name or if a value does
+     *             not fit the type of its field
+     */
+    void loadFromMap(Map<String, ?> values);
+}
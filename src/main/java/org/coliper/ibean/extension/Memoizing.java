@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Extension interface that caches the results of default methods of the bean
+ * type. Default methods are often used for derived values like totals or
+ * formatted keys. Normally they are evaluated with every call, which can be
+ * costly. A default method annotated with {@link Memoized} is only evaluated
+ * with its first call, later calls return the cached result until a setter
+ * of one of the fields the method depends on is called:
+ *
+ * <pre>
+ * <code>
+ * public interface OrderLine extends Memoizing {
+ *     BigDecimal getPrice();
+ *     void setPrice(BigDecimal price);
+ *
+ *     int getQuantity();
+ *     void setQuantity(int quantity);
+ *
+ *     String getComment();
+ *     void setComment(String comment);
+ *
+ *     &#64;Memoized(dependsOn = { "price", "quantity" })
+ *     default BigDecimal total() {
+ *         return getPrice().multiply(BigDecimal.valueOf(getQuantity()));
+ *     }
+ * }
+ *
+ * line.total(); // computes the total
+ * line.setComment("urgent");
+ * line.total(); // returns the cached total
+ * line.setQuantity(2);
+ * line.total(); // computes the total again
+ * </code>
+ * </pre>
+ * <p>
+ * Only default methods without parameters can be memoized. Results are cached
+ * per bean, <code>null</code> results are cached as well. Exceptions are not
+ * cached. The cache is not synchronized, like the fields of the bean itself.
+ * <p>
+ * Only setter calls invalidate cached results. If a memoized method depends
+ * on something else than the fields of its bean, for example on the fields of
+ * a nested bean, {@link #invalidateMemoizedResults()} needs to be called
+ * explicitly after a change.
+ *
+ * @author alex@coliper.org
+ */
+public interface Memoizing {
+
+    /**
+     * Marks a default method of a bean type to be memoized.
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public static @interface Memoized {
+        /**
+         * @return the names of the fields the result of the method depends
+         *         on. If empty any setter call invalidates the cached result.
+         */
+        String[] dependsOn() default {};
+    }
+
+    /**
+     * Drops all cached results of this bean, the next call of each memoized
+     * method will compute its result again.
+     */
+    void invalidateMemoizedResults();
+}
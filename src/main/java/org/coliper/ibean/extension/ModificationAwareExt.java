@@ -14,6 +14,11 @@
 
 package org.coliper.ibean.extension;
 
+import java.util.BitSet;
+import java.util.function.ObjIntConsumer;
+
+import org.coliper.ibean.IBeanTypeMetaInfo;
+
 /**
  * Extends {@link ModificationAware} with functionality to determine which
  * fields have been modified.
@@ -43,4 +48,45 @@ public interface ModificationAwareExt extends ModificationAware {
      * @return <code>true</code> if each setter had been called
      */
     boolean allFieldsModified();
+
+    /**
+     * Gives the number of bean fields that have been modified since creation
+     * or respectively since the last call of {@link #resetModified()}.
+     * 
+     * @return number of modified fields between 0 and the number of fields of
+     *         the bean type
+     */
+    int getModifiedFieldCount();
+
+    /**
+     * Calls the given visitor for each field that has been modified since
+     * creation or respectively since the last call of {@link #resetModified()}.
+     * In opposite to {@link #getModifiedFieldNames()} this method does not
+     * allocate any objects. Fields are visited in the order of their ordinals.
+     * 
+     * @param visitor
+     *            receives name and ordinal of each modified field. The ordinal
+     *            is the index of the field in
+     *            {@link IBeanTypeMetaInfo#fieldMetaInfos()}.
+     */
+    void forEachModifiedField(ObjIntConsumer<String> visitor);
+
+    /**
+     * Provides the modification state of all fields as a bit set packed into
+     * an array of <code>long</code>s. Bit <code>n % 64</code> of array element
+     * <code>n / 64</code> is set if the field with ordinal <code>n</code> has
+     * been modified. The ordinal is the index of the field in
+     * {@link IBeanTypeMetaInfo#fieldMetaInfos()}. The returned bits are
+     * compatible with {@link BitSet#valueOf(long[])}.
+     * 
+     * @param target
+     *            array to be filled with the bits; must have at least
+     *            <code>(noOfFields + 63) / 64</code> elements. Additional
+     *            elements are set to 0. If <code>null</code> a new array of
+     *            the minimum size is created.
+     * @return the given <code>target</code> array or the newly created array
+     * @throws IllegalArgumentException
+     *             if <code>target</code> is too small
+     */
+    long[] getModifiedFieldBits(long[] target);
 }
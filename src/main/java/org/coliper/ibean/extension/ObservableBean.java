@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+/**
+ * Extension interface that allows to subscribe to field changes of a bean.
+ * Registered {@link BeanChangeListener}s are notified after a setter has
+ * stored a new value. Like {@link ModificationAware} a field counts as changed
+ * as soon as its setter is called, regardless whether the value actually
+ * changed.
+ * <p>
+ * To avoid a notification for each single setter call changes can be grouped
+ * into a batch. Within a batch changes are only collected and the listeners
+ * are notified once when the batch ends, with the set of all fields changed
+ * during the batch:
+ *
+ * <pre>
+ * <code>
+ * public interface Order extends ObservableBean {
+ *     ...
+ * }
+ *
+ * order.addChangeListener((bean, changedFields) -&gt; refreshView(changedFields));
+ * order.beginChangeBatch();
+ * try {
+ *     order.setQuantity(100);
+ *     order.setPrice(price);
+ * } finally {
+ *     order.endChangeBatch(); // listener is called once with two ordinals
+ * }
+ * </code>
+ * </pre>
+ * <p>
+ * Batches can be nested, listeners are notified when the outermost batch
+ * ends. Exceptions thrown by listeners are passed on to the caller of the
+ * setter or of {@link #endChangeBatch()}.
+ * <p>
+ * Clones of a bean do not take over the listeners of the original bean.
+ *
+ * @see BeanChangeListener
+ * @author alex@coliper.org
+ */
+public interface ObservableBean {
+
+    /**
+     * Registers a listener that is notified about all future changes of this
+     * bean.
+     *
+     * @param listener
+     *            the listener to add
+     */
+    void addChangeListener(BeanChangeListener listener);
+
+    /**
+     * Unregisters a listener previously added with
+     * {@link #addChangeListener(BeanChangeListener)}. Does nothing if the
+     * listener is not registered.
+     *
+     * @param listener
+     *            the listener to remove
+     */
+    void removeChangeListener(BeanChangeListener listener);
+
+    /**
+     * Starts a batch of changes. Until the matching call of
+     * {@link #endChangeBatch()} listeners are not notified.
+     */
+    void beginChangeBatch();
+
+    /**
+     * Ends a batch of changes started with {@link #beginChangeBatch()}. If this
+     * ends the outermost batch and fields have been changed during the batch
+     * all listeners are notified once.
+     *
+     * @throws IllegalStateException
+     *             if no batch was started
+     */
+    void endChangeBatch();
+
+    /**
+     * @return <code>true</code> if a change batch has been started and not
+     *         yet ended
+     */
+    boolean isInChangeBatch();
+}
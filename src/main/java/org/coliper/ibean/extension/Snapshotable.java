@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import org.coliper.ibean.proxy.ConcurrencyMode;
+
+/**
+ * Extension interface that provides cheap read-only point-in-time copies of a
+ * bean. {@link #snapshot()} returns a new bean of the same type holding the
+ * field values the bean has at the time of the call. Later changes of the
+ * bean are not visible in the snapshot.
+ * <p>
+ * Taking a snapshot does not copy any field values. Snapshot and bean share
+ * their field value storage until the bean is changed the next time, then
+ * the bean gets its own copy (copy-on-write). The snapshot is created
+ * without filling a new value array with defaults, so its cost does not
+ * depend on the number of fields, especially if several snapshots are taken
+ * between two changes. A typical use case is handing the current state of a bean to
+ * other threads, for example for serialization or reporting, while the
+ * owning thread keeps changing the bean:
+ *
+ * <pre>
+ * <code>
+ * public interface Statistics extends Snapshotable&lt;Statistics&gt; {
+ *     ...
+ * }
+ *
+ * Statistics current = statistics.snapshot();
+ * reportingExecutor.submit(() -&gt; report(current));
+ * statistics.setCount(statistics.getCount() + 1); // not visible in current
+ * </code>
+ * </pre>
+ * <p>
+ * Snapshots are read-only, all setter calls throw an
+ * {@link UnsupportedOperationException}. Field values are not copied, so
+ * mutable values like collections or nested beans are shared between
+ * snapshot and bean. A snapshot never changes after its creation, but like
+ * any other object it needs to be handed over to other threads safely, for
+ * example via an executor as above, a concurrent collection or a volatile
+ * field. It is not supposed to be taken while another thread is changing
+ * the bean. State of other extension interfaces, for example
+ * modification flags, is not taken over into the snapshot.
+ * <p>
+ * Beans created in {@link ConcurrencyMode#CONCURRENT} or
+ * {@link ConcurrencyMode#ATOMIC} do not share their storage, as concurrent
+ * writers could not tell reliably whether their storage is shared. For them
+ * a snapshot copies all field values.
+ *
+ * @param <T>
+ *            the bean type itself
+ * @author alex@coliper.org
+ */
+public interface Snapshotable<T> {
+
+    /**
+     * Creates a read-only snapshot of the current field values of the bean.
+     * If the bean is a snapshot itself, the bean is returned.
+     *
+     * @return the snapshot, a bean of the same type
+     */
+    T snapshot();
+
+    /**
+     * @return <code>true</code> if the bean has been created by
+     *         {@link #snapshot()} and therefore is read-only
+     */
+    boolean isSnapshot();
+}
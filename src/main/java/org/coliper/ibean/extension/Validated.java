@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extension interface that validates field values against constraints
+ * declared as annotations on the getters of the bean type:
+ * <ul>
+ * <li>{@link NotNull} rejects <code>null</code> values,</li>
+ * <li>{@link Range} restricts numeric values to a range,</li>
+ * <li>{@link Size} restricts the length of strings and the size of
+ * collections, maps and arrays and</li>
+ * <li>{@link Pattern} requires strings to match a regular expression.</li>
+ * </ul>
+ * All constraints except {@link NotNull} accept <code>null</code> values.
+ * <p>
+ * Constraints are checked whenever a setter is called. A setter call with an
+ * invalid value throws a {@link BeanValidationException} and leaves the field
+ * unchanged. As fields are not set when a bean is created, a bean might still
+ * violate constraints like {@link NotNull}. For checking the bean as a whole
+ * use {@link #violations()}, {@link #isValid()} or {@link #assertValid()}, or
+ * {@link #validateAll(Collection)} for checking many beans at once.
+ * <p>
+ * The constraints of a bean type are read and compiled only once, when the
+ * first bean of the type is created, the checks themselves do not use
+ * reflection. A constraint annotation on a field of a type it cannot be
+ * applied to, for example {@link Range} on a <code>String</code> field,
+ * makes the creation of the bean fail with an
+ * {@link org.coliper.ibean.InvalidIBeanTypeException}.
+ *
+ * <pre>
+ * <code>
+ * public interface Customer extends Validated&lt;Customer&gt; {
+ *     &#64;NotNull &#64;Size(min = 1, max = 40)
+ *     String getName();
+ *     void setName(String name);
+ *
+ *     &#64;Range(min = 0, max = 150)
+ *     int getAge();
+ *     void setAge(int age);
+ * }
+ * </code>
+ * </pre>
+ *
+ * @param <T>
+ *            the bean type itself
+ * @author alex@coliper.org
+ */
+public interface Validated<T> {
+
+    /**
+     * The field value must not be <code>null</code>.
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public static @interface NotNull {
+    }
+
+    /**
+     * The field value must be a number between {@link #min()} and
+     * {@link #max()}, both inclusive. Can be used for all primitive numeric
+     * fields and all fields of a {@link Number} type.
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public static @interface Range {
+        /**
+         * @return the lowest allowed value
+         */
+        long min() default Long.MIN_VALUE;
+
+        /**
+         * @return the highest allowed value
+         */
+        long max() default Long.MAX_VALUE;
+    }
+
+    /**
+     * The length of a {@link CharSequence} or array or the size of a
+     * {@link Collection} or {@link Map} must be between {@link #min()} and
+     * {@link #max()}, both inclusive.
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public static @interface Size {
+        /**
+         * @return the lowest allowed length
+         */
+        int min() default 0;
+
+        /**
+         * @return the highest allowed length
+         */
+        int max() default Integer.MAX_VALUE;
+    }
+
+    /**
+     * The field value must be a {@link CharSequence} that matches the regular
+     * expression {@link #value()} completely.
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public static @interface Pattern {
+        /**
+         * @return a regular expression as understood by
+         *         {@link java.util.regex.Pattern}
+         */
+        String value();
+    }
+
+    /**
+     * Checks all fields of the bean against their constraints.
+     *
+     * @return one message per violated constraint; an empty list if the bean
+     *         is valid
+     */
+    List<String> violations();
+
+    /**
+     * @return <code>true</code> if all fields of the bean fulfill their
+     *         constraints
+     */
+    boolean isValid();
+
+    /**
+     * Checks all fields of the bean against their constraints.
+     *
+     * @return this (the bean itself)
+     * @throws BeanValidationException
+     *             if at least one constraint is violated
+     */
+    T assertValid();
+
+    /**
+     * Validates a collection of beans in parallel using the common
+     * {@link java.util.concurrent.ForkJoinPool}. Useful for checking large
+     * numbers of beans, for example after deserialization.
+     *
+     * @param beans
+     *            the beans to validate
+     * @param <B>
+     *            the bean type
+     * @return a map containing all invalid beans as keys and their violations
+     *         as values. Keys are compared by identity. Empty if all beans are
+     *         valid.
+     */
+    static <B extends Validated<?>> Map<B, List<String>> validateAll(
+            Collection<? extends B> beans) {
+        requireNonNull(beans, "beans");
+        final Map<B, List<String>> invalidBeans =
+                Collections.synchronizedMap(new IdentityHashMap<>());
+        beans.parallelStream().forEach(bean -> {
+            final List<String> violations = bean.violations();
+            if (!violations.isEmpty()) {
+                invalidBeans.put(bean, violations);
+            }
+        });
+        return invalidBeans;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.extension;
+
+/**
+ * Extension interface that stamps a bean with a version number. The version
+ * starts with 0 when the bean is created and is increased with every setter
+ * call, regardless whether the setter call actually changed the value of the
+ * field. Setter calls rejected by other extensions, for example on a frozen
+ * {@link Freezable} bean, do not change the version.
+ * <p>
+ * Comparing versions is a cheap alternative to {@link Object#equals(Object)}
+ * or {@link Object#hashCode()} when checking if a bean has been changed, for
+ * example to decide if a cached value derived from the bean is outdated:
+ *
+ * <pre>
+ * <code>
+ * public interface Order extends Versioned {
+ *     ...
+ * }
+ *
+ * long version = order.version();
+ * Price total = calculateTotal(order);
+ * ...
+ * if (!order.isUnchangedSince(version)) {
+ *     total = calculateTotal(order);
+ * }
+ * </code>
+ * </pre>
+ * <p>
+ * The version is safe to be read from any thread. Checking the version is not
+ * atomic with any following setter call though, so
+ * {@link #assertUnchangedSince(long)} only protects writing back a result
+ * calculated from an older state of the bean if there is a single writing
+ * thread. Concurrent writers need to be serialized, for example with
+ * {@link AtomicUpdatable}.
+ *
+ * @author alex@coliper.org
+ */
+public interface Versioned {
+
+    /**
+     * @return the current version of the bean; 0 if no setter has been called
+     *         yet
+     */
+    long version();
+
+    /**
+     * Checks if the bean has been changed since a given version.
+     *
+     * @param version
+     *            a version previously retrieved via {@link #version()}
+     * @return <code>true</code> if the current version equals
+     *         <code>version</code>
+     */
+    boolean isUnchangedSince(long version);
+
+    /**
+     * Makes sure the bean has not been changed since a given version.
+     * <p>
+     * This is a plain check. Another thread may change the bean right after
+     * the check succeeded, therefore it is only reliable for check-then-write
+     * sequences in single-threaded use or under external synchronization.
+     *
+     * @param version
+     *            a version previously retrieved via {@link #version()}
+     * @throws BeanVersionConflictException
+     *             if the current version differs from <code>version</code>
+     */
+    void assertUnchangedSince(long version) throws BeanVersionConflictException;
+}
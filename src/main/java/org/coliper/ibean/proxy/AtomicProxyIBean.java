@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.coliper.ibean.IBeanFieldMetaInfo;
+
+/**
+ * Variant of {@link ProxyIBean} that stores the field values in an
+ * {@link AtomicReferenceArray}. Every read and write of a field value has
+ * volatile semantics and {@link #compareAndSetFieldValue(IBeanFieldMetaInfo,
+ * Object, Object)} is lock-free. Used by factories in
+ * {@link ConcurrencyMode#ATOMIC}.
+ * 
+ * @author alex@coliper.org
+ */
+class AtomicProxyIBean<T> extends ProxyIBean<T> {
+
+    /*
+     * The value array of the super class is not used, all values are kept in
+     * "atomicValues". As there is no way to share an AtomicReferenceArray in a
+     * copy-on-write manner newBeanWithSameFieldValues() copies the values.
+     */
+    private final AtomicReferenceArray<Object> atomicValues;
+
+    AtomicProxyIBean(IBeanContext<T> context, ExtensionHandlerDispatcher handler) {
+        super(context, handler);
+        this.atomicValues = new AtomicReferenceArray<>(this.detachBeanValues());
+    }
+
+    private AtomicProxyIBean(IBeanContext<T> context, ExtensionHandlerDispatcher handler,
+            Object[] values, int missingRequiredFieldCount) {
+        super(context, handler, values, missingRequiredFieldCount);
+        this.atomicValues = new AtomicReferenceArray<>(this.detachBeanValues());
+    }
+
+    @Override
+    ProxyIBean<T> newBeanWithSameFieldValues(ExtensionHandlerDispatcher handler) {
+        // fieldValues() returns a copy already
+        return new AtomicProxyIBean<>(this.context(), handler, this.fieldValues(),
+                this.missingRequiredFieldCount());
+    }
+
+    @Override
+    void resetFieldValues() {
+        final Object[] defaults = new Object[this.atomicValues.length()];
+        fillWithDefaultValues(this.context(), defaults);
+        this.replaceFieldValues(defaults);
+    }
+
+    @Override
+    Object[] fieldValues() {
+        final Object[] values = new Object[this.atomicValues.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.atomicValues.get(i);
+        }
+        return values;
+    }
+
+    @Override
+    void exportFieldValues(Object[] target, int offset) {
+        for (int i = 0; i < this.atomicValues.length(); i++) {
+            target[offset + i] = this.atomicValues.get(i);
+        }
+    }
+
+    @Override
+    void replaceFieldValues(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            this.atomicValues.set(i, values[i]);
+        }
+    }
+
+    @Override
+    Object loadFieldValue(int ordinal) {
+        return this.atomicValues.get(ordinal);
+    }
+
+    @Override
+    Object storeFieldValue(int ordinal, Object newValue) {
+        return this.atomicValues.getAndSet(ordinal, newValue);
+    }
+
+    /*
+     * @see
+     * org.coliper.ibean.proxy.ProxyIBean#compareAndSetFieldValue(org.coliper.
+     * ibean.IBeanFieldMetaInfo, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public boolean compareAndSetFieldValue(IBeanFieldMetaInfo fieldMeta, Object expectedValue,
+            Object newValue) {
+        requireNonNull(fieldMeta, "fieldMeta");
+        if (fieldMeta.fieldType().isPrimitive()) {
+            checkArgument(newValue != null, "primitive type cannot be set to null");
+        }
+        if (!this.atomicValues.compareAndSet(fieldMeta.ordinal(), expectedValue, newValue)) {
+            return false;
+        }
+        if (this.context().isRequiredField(fieldMeta)) {
+            this.updateMissingRequiredFieldCount(expectedValue, newValue);
+        }
+        return true;
+    }
+}
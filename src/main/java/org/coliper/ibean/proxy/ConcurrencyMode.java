@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.coliper.ibean.extension.AtomicFields;
+import org.coliper.ibean.extension.Journaled;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.extension.ObservableBean;
+import org.coliper.ibean.proxy.handler.ConcurrentModificationAwareHandler;
+import org.coliper.ibean.proxy.handler.FreezableHandler;
+import org.coliper.ibean.proxy.handler.ModificationAwareHandler;
+import org.coliper.ibean.proxy.handler.VersionedHandler;
+
+/**
+ * Determines whether a {@link ProxyIBeanFactory} creates beans that are
+ * supposed to be used by several threads at the same time. Set via
+ * {@link ProxyIBeanFactory.Builder#withConcurrencyMode(ConcurrencyMode)}.
+ *
+ * @author alex@coliper.org
+ */
+public enum ConcurrencyMode {
+    /**
+     * Beans are optimized for being used by one thread at a time. Concurrent
+     * setter calls on the same bean might leave the state of stateful
+     * extension handlers inconsistent, for example
+     * {@link ModificationAware#isModified()} might miss a modified field. This
+     * is the default.
+     */
+    UNSYNCHRONIZED,
+
+    /**
+     * Beans can be changed by several threads concurrently. Default extension
+     * handlers that are not thread-safe by themselves are replaced by
+     * lock-free variants, {@link ModificationAwareHandler} is replaced by
+     * {@link ConcurrentModificationAwareHandler}. {@link FreezableHandler}
+     * and {@link VersionedHandler} are thread-safe in all modes. The state of
+     * {@link Journaled} and {@link ObservableBean} beans is still supposed to
+     * be accessed by one thread at a time. Deep modification tracking is not
+     * supported in this mode.
+     */
+    CONCURRENT,
+
+    /**
+     * Like {@link #CONCURRENT} but in addition the field values of the beans
+     * are stored in an {@link AtomicReferenceArray}. Every read and write of
+     * a field has volatile semantics, so changes are immediately visible to
+     * all threads, and atomic operations like the ones of {@link AtomicFields}
+     * are lock-free.
+     */
+    ATOMIC
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+/**
+ * Represents the remaining processing of a call to a default method of a bean
+ * type, passed to
+ * {@link ExtensionHandler#interceptDefaultMethodCall(IBeanContext, java.lang.reflect.Method, Object[], DefaultMethodCall, Object)}.
+ * 
+ * @author alex@coliper.org
+ */
+@FunctionalInterface
+public interface DefaultMethodCall {
+
+    /**
+     * Passes the call on to the next handler or, if there is none, invokes
+     * the default method itself.
+     * 
+     * @return the result of the call
+     * @throws Throwable
+     *             any exception thrown by the default method
+     */
+    Object proceed() throws Throwable;
+}
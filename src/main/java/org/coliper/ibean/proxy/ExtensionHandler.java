@@ -80,7 +80,11 @@ import org.coliper.ibean.proxy.handler.StatelessExtensionHandler;
  * {@link #interceptGetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}
  * or
  * {@link #interceptSetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}
- * for hooking into getter and setter calls.
+ * for hooking into getter and setter calls,
+ * {@link #afterSetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}
+ * for reacting on completed field changes and
+ * {@link #interceptDefaultMethodCall(IBeanContext, Method, Object[], DefaultMethodCall, Object)}
+ * for wrapping calls of default methods of the bean type.
  * <p>
  * Handlers for built-in extension interfaces do not implement
  * {@link ExtensionHandler} directly but extend either
@@ -200,6 +204,14 @@ public interface ExtensionHandler {
      * registered in the {@link ProxyIBeanFactory}. See also
      * {@link Builder#withInterfaceSupport(ExtensionSupport)}.
      * <p>
+     * A call of this method does not guarantee that the value gets stored. A
+     * handler later in the chain might still reject it and atomic operations
+     * like {@link org.coliper.ibean.extension.AtomicFields} intercept each
+     * attempt of a compare-and-set, including attempts that fail. Therefore
+     * implementations should not change any state here but only check or
+     * replace the value. State changes belong into
+     * {@link #afterSetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}.
+     * <p>
      * The default implementation just returns <code>newValue</code>.
      * 
      * @param context
@@ -223,6 +235,65 @@ public interface ExtensionHandler {
         return newValue;
     }
 
+    /**
+     * Called as an optional hook after a setter call on an IBean has stored the
+     * new value in the field. In contrast to
+     * {@link #interceptSetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}
+     * the value cannot be changed anymore and the call is only made if no
+     * handler rejected the new value in its intercept method. This is the
+     * right place for reacting on changes, for example for notifying
+     * listeners.
+     * <p>
+     * The calls are made in the same order as the intercept calls.
+     * <p>
+     * The default implementation does nothing.
+     * 
+     * @param context
+     *            provides meta information about the IBean
+     * @param fieldMeta
+     *            provides meta information about the field related to the
+     *            setter
+     * @param newValue
+     *            the value the field has been set to
+     * @param proxyInstance
+     *            the IBean instance itself
+     */
+    default void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+    }
+
+    /**
+     * Called as an optional hook with every call of a default method declared
+     * in the bean type. The handler can either pass the call on with
+     * {@link DefaultMethodCall#proceed()} or return a result without invoking
+     * the default method at all, for example a cached result.
+     * <p>
+     * When you have several extension handlers registered for an IBean type the
+     * handlers are nested in the order in which they are registered in the
+     * {@link ProxyIBeanFactory}, the first handler is the outermost.
+     * <p>
+     * The default implementation just proceeds with the call.
+     * 
+     * @param context
+     *            provides meta information about the IBean
+     * @param method
+     *            the called default method
+     * @param args
+     *            the arguments of the call; <code>null</code> if the method
+     *            has no parameters
+     * @param call
+     *            invokes the next handler or finally the default method itself
+     * @param proxyInstance
+     *            the IBean instance itself
+     * @return the result of the call
+     * @throws Throwable
+     *             any exception thrown by the default method
+     */
+    default Object interceptDefaultMethodCall(IBeanContext<?> context, Method method,
+            Object[] args, DefaultMethodCall call, Object proxyInstance) throws Throwable {
+        return call.proceed();
+    }
+
     /**
      * Initialization method for stateful handlers that is called after
      * initialization of the IBean. If a handler is registered as stateful a new
@@ -230,6 +301,9 @@ public interface ExtensionHandler {
      * each new IBean. After the IBean itself and all handlers created this
      * method is called on all stateful handlers. This method should therefore
      * be overwritten if a handler needs some initialization after creation.
+     * It is called via
+     * {@link #onInitStateful(IBeanContext, IBeanFieldAccess, Object)} unless
+     * that method is overwritten.
      * <p>
      * The default implementation does nothing.
      * 
@@ -243,4 +317,47 @@ public interface ExtensionHandler {
     default void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
             IBeanFactory factory) {
     }
+
+    /**
+     * Variant of {@link #onInitStateful(Object, IBeanTypeMetaInfo, IBeanFactory)}
+     * that is actually called by the framework after creation of the IBean.
+     * Handlers that need the {@link IBeanContext} or direct access to the
+     * field values of their bean right from the start can override this
+     * method instead of capturing them on the first intercepted call.
+     * <p>
+     * The default implementation calls
+     * {@link #onInitStateful(Object, IBeanTypeMetaInfo, IBeanFactory)}.
+     * 
+     * @param context
+     *            the context of the IBean
+     * @param bean
+     *            direct access to the field values of the IBean
+     * @param proxyInstance
+     *            the IBean instance
+     */
+    default void onInitStateful(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance) {
+        this.onInitStateful(proxyInstance, context.metaInfo(), context.beanFactory());
+    }
+
+    /**
+     * Reset method for stateful handlers that is called when a pooled IBean is
+     * returned to its {@link IBeanPool}. At the time of the call all field
+     * values of the bean have already been reset to their defaults. A handler
+     * is supposed to bring its state back to what it was directly after
+     * {@link #onInitStateful(Object, IBeanTypeMetaInfo, IBeanFactory)}, for
+     * example a dirty flag needs to be cleared. This method should therefore
+     * be overwritten by all stateful handlers that change their state during
+     * the lifetime of a bean.
+     * <p>
+     * The default implementation does nothing.
+     * 
+     * @param proxyInstance
+     *            the IBean instance
+     * @param metaInfo
+     *            meta information about the IBean
+     * @see IBeanPool#release(Object)
+     */
+    default void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+    }
 }
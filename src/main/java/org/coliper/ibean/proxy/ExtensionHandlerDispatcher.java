@@ -17,10 +17,13 @@ package org.coliper.ibean.proxy;
 import static java.util.Objects.requireNonNull;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.coliper.ibean.IBeanFactory;
 import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.IBeanTypeMetaInfo;
 
@@ -47,6 +50,25 @@ class ExtensionHandlerDispatcher {
      * "handlerMap".
      */
 
+    private static final ExtensionHandler[] NO_HANDLERS = new ExtensionHandler[0];
+
+    // tells per handler type whether it overrides interceptDefaultMethodCall()
+    private static final ClassValue<Boolean> INTERCEPTS_DEFAULT_METHOD_CALLS =
+            new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> handlerType) {
+                    try {
+                        return handlerType.getMethod("interceptDefaultMethodCall",
+                                IBeanContext.class, Method.class, Object[].class,
+                                DefaultMethodCall.class, Object.class)
+                                .getDeclaringClass() != ExtensionHandler.class;
+                    } catch (NoSuchMethodException e) {
+                        // unexpected as the method is part of ExtensionHandler
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+
     private static final ExtensionHandlerDispatcher EMPTY_BUNDLES_HANDLER =
             new ExtensionHandlerDispatcher(Collections.emptyMap());
 
@@ -74,16 +96,52 @@ class ExtensionHandlerDispatcher {
     // instance.
     private final Map<Class<?>, ExtensionHandler> handlerMap;
 
+    // All handlers contained in "handlerMap" without duplicates in the order
+    // of registration. A handler is registered for its extension interface and
+    // all super interfaces and would otherwise intercept calls several times.
+    private final ExtensionHandler[] handlers;
+
+    // The subset of "handlers" that actually intercept default method calls.
+    // Mostly empty, then default methods are called without building a chain.
+    private final ExtensionHandler[] defaultMethodInterceptors;
+
     private ExtensionHandlerDispatcher(Map<Class<?>, ExtensionHandler> handlerMap) {
         requireNonNull(handlerMap, "handlerMap");
         // we do not copy the map as we trust the caller
         this.handlerMap = handlerMap;
+        this.handlers = distinctHandlers(handlerMap);
+        this.defaultMethodInterceptors = defaultMethodInterceptors(this.handlers);
+    }
+
+    private static ExtensionHandler[] distinctHandlers(Map<Class<?>, ExtensionHandler> handlerMap) {
+        Set<ExtensionHandler> handlerSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ExtensionHandler> handlerList = new ArrayList<>();
+        for (ExtensionHandler handler : handlerMap.values()) {
+            if (handlerSet.add(handler)) {
+                handlerList.add(handler);
+            }
+        }
+        return handlerList.toArray(new ExtensionHandler[handlerList.size()]);
+    }
+
+    private static ExtensionHandler[] defaultMethodInterceptors(ExtensionHandler[] handlers) {
+        List<ExtensionHandler> interceptorList = null;
+        for (ExtensionHandler handler : handlers) {
+            if (INTERCEPTS_DEFAULT_METHOD_CALLS.get(handler.getClass())) {
+                if (interceptorList == null) {
+                    interceptorList = new ArrayList<>(2);
+                }
+                interceptorList.add(handler);
+            }
+        }
+        return interceptorList == null ? NO_HANDLERS
+                : interceptorList.toArray(new ExtensionHandler[interceptorList.size()]);
     }
 
     Object interceptGetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
             Object returnValue, Object proxyInstance) {
         Object modifiedReturnValue = returnValue;
-        for (ExtensionHandler handler : handlerMap.values()) {
+        for (ExtensionHandler handler : this.handlers) {
             modifiedReturnValue = handler.interceptGetterCall(context, fieldMeta,
                     modifiedReturnValue, proxyInstance);
         }
@@ -93,13 +151,46 @@ class ExtensionHandlerDispatcher {
     Object interceptSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
             Object newValue, Object proxyInstance) {
         Object modifiedNewValue = newValue;
-        for (ExtensionHandler handler : handlerMap.values()) {
+        for (ExtensionHandler handler : this.handlers) {
             modifiedNewValue = handler.interceptSetterCall(context, fieldMeta, modifiedNewValue,
                     proxyInstance);
         }
         return modifiedNewValue;
     }
 
+    void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta, Object newValue,
+            Object proxyInstance) {
+        for (ExtensionHandler handler : this.handlers) {
+            handler.afterSetterCall(context, fieldMeta, newValue, proxyInstance);
+        }
+    }
+
+    boolean interceptsDefaultMethodCalls() {
+        return this.defaultMethodInterceptors.length > 0;
+    }
+
+    Object interceptDefaultMethodCall(IBeanContext<?> context, Method method, Object[] args,
+            DefaultMethodCall call, Object proxyInstance) throws Throwable {
+        if (this.defaultMethodInterceptors.length == 0) {
+            return call.proceed();
+        }
+        return this.interceptDefaultMethodCall(0, context, method, args, call, proxyInstance);
+    }
+
+    private Object interceptDefaultMethodCall(int handlerIndex, IBeanContext<?> context,
+            Method method, Object[] args, DefaultMethodCall call, Object proxyInstance)
+            throws Throwable {
+        final ExtensionHandler handler = this.defaultMethodInterceptors[handlerIndex];
+        if (handlerIndex == this.defaultMethodInterceptors.length - 1) {
+            // last interceptor proceeds with the original call
+            return handler.interceptDefaultMethodCall(context, method, args, call, proxyInstance);
+        }
+        return handler.interceptDefaultMethodCall(context, method, args,
+                () -> this.interceptDefaultMethodCall(handlerIndex + 1, context, method, args,
+                        call, proxyInstance),
+                proxyInstance);
+    }
+
     private ExtensionHandler handlerForType(Class<?> type) {
         ExtensionHandler handler = this.handlerMap.get(type);
         if (handler == null) {
@@ -108,6 +199,15 @@ class ExtensionHandlerDispatcher {
         return handler;
     }
 
+    <H extends ExtensionHandler> H handlerOfType(Class<H> handlerType) {
+        for (ExtensionHandler handler : this.handlers) {
+            if (handlerType.isInstance(handler)) {
+                return handlerType.cast(handler);
+            }
+        }
+        return null;
+    }
+
     boolean canHandleCall(Method method) {
         requireNonNull(method, "method");
         return this.handlerMap.containsKey(method.getDeclaringClass());
@@ -119,11 +219,17 @@ class ExtensionHandlerDispatcher {
                 bean, proxyInstance, method, params);
     }
 
-    void initHandler(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo, IBeanFactory factory) {
-        for (ExtensionHandler handler : this.handlerMap.values()) {
-            handler.onInitStateful(proxyInstance, metaInfo, factory);
+    void initHandler(IBeanContext<?> context, IBeanFieldAccess bean, Object proxyInstance) {
+        for (ExtensionHandler handler : this.handlers) {
+            handler.onInitStateful(context, bean, proxyInstance);
         }
 
     }
 
+    void resetHandler(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        for (ExtensionHandler handler : this.handlers) {
+            handler.onResetStateful(proxyInstance, metaInfo);
+        }
+    }
+
 }
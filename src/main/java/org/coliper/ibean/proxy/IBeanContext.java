@@ -14,9 +14,17 @@
 
 package org.coliper.ibean.proxy;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.coliper.ibean.BeanStyle;
+import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.Completable;
 
 /**
  * {@link IBeanContext} is provided to {@link ExtensionHandler}s to provide them
@@ -32,17 +40,60 @@ public class IBeanContext<T> {
     private final ToStringStyle toStringStyle;
     private final BeanStyle beanStyle;
     private final BeanStyleHandler beanStyleHandler;
+    private final boolean copyOnWriteCloning;
+    private final int parallelDeepCloneThreshold;
+    private final ForkJoinPool parallelDeepClonePool;
+    private final boolean deepModificationTracking;
+    private final ConcurrencyMode concurrencyMode;
+    // per field ordinal whether the field needs to be set for a complete bean,
+    // all false if the bean type is not Completable
+    private final boolean[] requiredFields;
+    private final int noOfRequiredFields;
 
     /**
      * Internal constructor as only created by the framework itself.
      */
     IBeanContext(ProxyIBeanFactory beanFactory, IBeanTypeMetaInfo<T> metaInfo,
-            ToStringStyle toStringStyle, BeanStyle beanStyle, BeanStyleHandler beanStyleHandler) {
+            ToStringStyle toStringStyle, BeanStyle beanStyle, BeanStyleHandler beanStyleHandler,
+            boolean copyOnWriteCloning, int parallelDeepCloneThreshold,
+            ForkJoinPool parallelDeepClonePool, boolean deepModificationTracking,
+            ConcurrencyMode concurrencyMode) {
         this.beanFactory = beanFactory;
         this.metaInfo = metaInfo;
         this.toStringStyle = toStringStyle;
         this.beanStyle = beanStyle;
         this.beanStyleHandler = beanStyleHandler;
+        this.copyOnWriteCloning = copyOnWriteCloning;
+        this.parallelDeepCloneThreshold = parallelDeepCloneThreshold;
+        this.parallelDeepClonePool = parallelDeepClonePool;
+        this.deepModificationTracking = deepModificationTracking;
+        this.concurrencyMode = concurrencyMode;
+        this.requiredFields = requiredFields(metaInfo);
+        int count = 0;
+        for (boolean required : this.requiredFields) {
+            count += required ? 1 : 0;
+        }
+        this.noOfRequiredFields = count;
+    }
+
+    private static boolean[] requiredFields(IBeanTypeMetaInfo<?> metaInfo) {
+        final boolean[] required = new boolean[metaInfo.noOfFields()];
+        if (!Completable.class.isAssignableFrom(metaInfo.beanType())) {
+            return required; // nobody asks for completeness, so nothing to count
+        }
+        for (IBeanFieldMetaInfo fieldMeta : metaInfo.fieldMetaInfos()) {
+            if (fieldMeta.fieldType().isPrimitive()) {
+                continue; // primitive type fields are never null
+            }
+            if (fieldMeta.getterMethod().getReturnType() == Optional.class
+                    && fieldMeta.fieldType() != Optional.class) {
+                continue; // we do not care if value is null when Optional is
+                          // returned from getter but field type itself is not
+                          // optional
+            }
+            required[fieldMeta.ordinal()] = true;
+        }
+        return required;
     }
 
     /**
@@ -93,4 +144,160 @@ public class IBeanContext<T> {
         return beanStyleHandler;
     }
 
+    /**
+     * Tells whether the factory is configured to create clones that share
+     * their field values with the origin bean until one of them is changed.
+     * 
+     * @return <code>true</code> if copy-on-write cloning is enabled
+     * @see ProxyIBeanFactory.Builder#withCopyOnWriteCloning(boolean)
+     * @see #createWithSameFieldValues(IBeanFieldAccess)
+     */
+    public boolean copyOnWriteCloning() {
+        return copyOnWriteCloning;
+    }
+
+    /**
+     * Provides the minimum collection size from which on collection elements
+     * are deep cloned in parallel.
+     * 
+     * @return the minimum number of elements or 0 if parallel deep cloning is
+     *         disabled
+     * @see ProxyIBeanFactory.Builder#withParallelDeepCloning(ForkJoinPool, int)
+     */
+    public int parallelDeepCloneThreshold() {
+        return parallelDeepCloneThreshold;
+    }
+
+    /**
+     * Provides the pool used for parallel deep cloning of collections.
+     * 
+     * @return the pool, never <code>null</code>
+     * @see ProxyIBeanFactory.Builder#withParallelDeepCloning(ForkJoinPool, int)
+     */
+    public ForkJoinPool parallelDeepClonePool() {
+        return parallelDeepClonePool;
+    }
+
+    /**
+     * Tells whether modifications of nested beans are supposed to be
+     * propagated to their parent beans.
+     * 
+     * @return <code>true</code> if deep modification tracking is enabled
+     * @see ProxyIBeanFactory.Builder#withDeepModificationTracking(boolean)
+     */
+    public boolean deepModificationTracking() {
+        return deepModificationTracking;
+    }
+
+    /**
+     * Tells whether the bean is supposed to be used by several threads
+     * concurrently.
+     * 
+     * @return the concurrency mode of the factory, never <code>null</code>
+     * @see ProxyIBeanFactory.Builder#withConcurrencyMode(ConcurrencyMode)
+     */
+    public ConcurrencyMode concurrencyMode() {
+        return concurrencyMode;
+    }
+
+    /**
+     * Tells whether a field needs to hold a non-<code>null</code> value for
+     * the bean to be complete in terms of {@link Completable}. This applies to
+     * all fields that are neither of a primitive type nor returned as
+     * {@link Optional} from their getter. For bean types that do not extend
+     * {@link Completable} no field is required, so that changes of field
+     * values do not need to be counted.
+     * 
+     * @param fieldMeta
+     *            meta information of a field of bean type {@code T}
+     * @return <code>true</code> if the field is required
+     * @see IBeanFieldAccess#missingRequiredFieldCount()
+     */
+    public boolean isRequiredField(IBeanFieldMetaInfo fieldMeta) {
+        requireNonNull(fieldMeta, "fieldMeta");
+        return this.requiredFields[fieldMeta.ordinal()];
+    }
+
+    boolean isRequiredField(int ordinal) {
+        return this.requiredFields[ordinal];
+    }
+
+    int noOfRequiredFields() {
+        return this.noOfRequiredFields;
+    }
+
+    /**
+     * Provides direct access to the field values of another IBean of type
+     * {@code T} that was created by the same factory, for example of a newly
+     * created clone.
+     * 
+     * @param bean
+     *            an IBean of type {@code T} created by {@link #beanFactory()}
+     * @return the {@link IBeanFieldAccess} of the given bean
+     * @throws IllegalArgumentException
+     *             if <code>bean</code> is not an IBean of type {@code T} or was
+     *             not created by {@link #beanFactory()}
+     */
+    public IBeanFieldAccess fieldAccessOf(Object bean) {
+        requireNonNull(bean, "bean");
+        ProxyIBean<?> proxyBean = ProxyIBean.proxyIBeanOf(bean);
+        checkArgument(proxyBean != null && proxyBean.context() == this,
+                "%s is not a bean of type %s created by factory %s", bean.getClass(),
+                this.metaInfo.beanType(), this.beanFactory);
+        return proxyBean;
+    }
+
+    /**
+     * Creates a new IBean of type {@code T} that holds the current field
+     * values of a given bean. Unlike creating the bean via
+     * {@link #beanFactory()} and copying the values afterwards, the values
+     * are not initialized with defaults first. In
+     * {@link ConcurrencyMode#UNSYNCHRONIZED} the new bean even shares the
+     * value storage with the given bean until one of them is changed
+     * (copy-on-write), so no field values are copied at all. In all other
+     * modes the values are copied. The stateful extension handlers of the new
+     * bean are initialized as usual.
+     * 
+     * @param bean
+     *            field access of an IBean of type {@code T} created by
+     *            {@link #beanFactory()}
+     * @return the new bean
+     * @throws IllegalArgumentException
+     *             if <code>bean</code> is not an IBean of type {@code T} or was
+     *             not created by {@link #beanFactory()}
+     */
+    @SuppressWarnings("unchecked")
+    public T createWithSameFieldValues(IBeanFieldAccess bean) {
+        requireNonNull(bean, "bean");
+        checkArgument(bean instanceof ProxyIBean && ((ProxyIBean<?>) bean).context() == this,
+                "%s is not a bean of type %s created by factory %s", bean.getClass(),
+                this.metaInfo.beanType(), this.beanFactory);
+        return this.beanFactory.createWithSameFieldValues((ProxyIBean<T>) bean);
+    }
+
+    /**
+     * Looks up the {@link ExtensionHandler} of a given type that serves
+     * another IBean. The bean does not need to be of type {@code T} and can
+     * even be created by another factory. This allows handlers to interact
+     * with the handlers of other beans, for example of nested beans.
+     * 
+     * @param bean
+     *            any object, usually an IBean
+     * @param handlerType
+     *            the type of the requested handler
+     * @return the handler of the given type serving <code>bean</code> or an
+     *         empty {@link Optional} if <code>bean</code> is not an IBean
+     *         created by a {@link ProxyIBeanFactory} or has no handler of the
+     *         given type
+     */
+    public <H extends ExtensionHandler> Optional<H> extensionHandlerOf(Object bean,
+            Class<H> handlerType) {
+        requireNonNull(handlerType, "handlerType");
+        ProxyIBean<?> proxyBean = ProxyIBean.proxyIBeanOf(bean);
+        if (proxyBean == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(proxyBean.extensionHandlerOfType(handlerType));
+    }
+
 }
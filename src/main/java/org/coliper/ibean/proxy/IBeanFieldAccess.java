@@ -90,4 +90,95 @@ public interface IBeanFieldAccess {
      */
     Object getFieldValue(IBeanFieldMetaInfo fieldMeta);
 
+    /**
+     * Copies all field values of this bean into another bean of the same type
+     * in a single bulk operation. No getters or setters are called, so neither
+     * getter nor setter interceptors of any {@link ExtensionHandler} are
+     * involved. Field values are copied as they are, objects are not cloned.
+     * 
+     * @param target
+     *            field access of the bean to be overwritten, for example
+     *            retrieved via {@link IBeanContext#fieldAccessOf(Object)}; must
+     *            belong to a bean of the same type
+     * @throws IllegalArgumentException
+     *             if <code>target</code> belongs to a different bean type
+     */
+    void copyFieldValuesTo(IBeanFieldAccess target);
+
+    /**
+     * Atomically sets a field to a new value if the field currently holds the
+     * expected value. Values are compared by identity (<code>==</code>). The
+     * operation is atomic with respect to other calls of this method on the
+     * same bean, a successful call also safely publishes the new value to
+     * other threads that subsequently call this method or read the field after
+     * a failed call.
+     * 
+     * @param fieldMeta
+     *            specifies the field to change; must match to the respective
+     *            bean type
+     * @param expectedValue
+     *            the value the field is expected to have; may be
+     *            <code>null</code>
+     * @param newValue
+     *            the new value of the field; may be <code>null</code> for
+     *            non-primitive fields
+     * @return <code>true</code> if the field has been changed,
+     *         <code>false</code> if the field did not hold the expected value
+     */
+    boolean compareAndSetFieldValue(IBeanFieldMetaInfo fieldMeta, Object expectedValue,
+            Object newValue);
+
+    /**
+     * Runs
+     * {@link ExtensionHandler#interceptSetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}
+     * of all extension handlers of the bean for a field change that is not
+     * done via the setter of the bean, for example by an atomic operation.
+     * This lets other extension handlers veto or track the change the same
+     * way as for setter calls. The field value itself is not changed.
+     * <p>
+     * After the field has been changed the caller is supposed to call
+     * {@link #afterFieldChange(IBeanFieldMetaInfo, Object, Object)}.
+     * 
+     * @param fieldMeta
+     *            specifies the field to be changed
+     * @param newValue
+     *            the value the field is supposed to get
+     * @param proxyInstance
+     *            the bean instance itself
+     * @return the value the field is supposed to be set to, might be changed
+     *         by one of the handlers
+     */
+    Object interceptFieldChange(IBeanFieldMetaInfo fieldMeta, Object newValue,
+            Object proxyInstance);
+
+    /**
+     * Runs
+     * {@link ExtensionHandler#afterSetterCall(IBeanContext, IBeanFieldMetaInfo, Object, Object)}
+     * of all extension handlers of the bean after a field has been changed
+     * without using the setter of the bean. See
+     * {@link #interceptFieldChange(IBeanFieldMetaInfo, Object, Object)}.
+     * 
+     * @param fieldMeta
+     *            specifies the changed field
+     * @param newValue
+     *            the new value of the field
+     * @param proxyInstance
+     *            the bean instance itself
+     */
+    void afterFieldChange(IBeanFieldMetaInfo fieldMeta, Object newValue, Object proxyInstance);
+
+    /**
+     * Provides the number of required fields that currently hold
+     * <code>null</code>. A field is required if
+     * {@link IBeanContext#isRequiredField(IBeanFieldMetaInfo)} returns
+     * <code>true</code> for it. The number is maintained with every change of
+     * a field value, so this is an O(1) operation. It is exact as long as a
+     * field is not written by several threads at the same time, in
+     * {@link ConcurrencyMode#ATOMIC} it is exact in any case.
+     * 
+     * @return the number of required fields being <code>null</code>; 0 if the
+     *         bean is complete
+     */
+    int missingRequiredFieldCount();
+
 }
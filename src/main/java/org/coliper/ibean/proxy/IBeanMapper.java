@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.util.ReflectionUtil;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+//@formatter:off
+/**
+ * Copies field values from beans of one type to beans of another type. Either
+ * both types are IBean types or one of them is an IBean type and the other one
+ * is a plain Java class with getters and setters following the JavaBeans
+ * conventions, for example a DTO. Fields are matched by name, a field is only
+ * copied if the type of the source field can be assigned to the type of the
+ * target field, including autoboxing and widening of primitives like from
+ * <code>int</code> to <code>long</code>. All other fields are ignored.
+ * <p>
+ * Mappers are created with {@link ProxyIBeanFactory#mapper(Class, Class)}:
+ * <pre>
+ * IBeanMapper&lt;OrderDto, Order&gt; fromDto = factory.mapper(OrderDto.class, Order.class);
+ * Order order = fromDto.map(dto);
+ * </pre>
+ * Which fields are copied is determined once when the mapper is created.
+ * Mapping itself neither looks up fields by name nor uses reflection. IBean
+ * fields are read and written directly in the storage of the bean, plain
+ * classes are accessed via method handles of their getters and setters.
+ * <p>
+ * Writing a field of a target IBean does not call its setter but still runs
+ * the extension handlers of the bean like a setter call does, for example a
+ * frozen target rejects the change and a {@link
+ * org.coliper.ibean.extension.ModificationAware} target gets marked as modified.
+ * <p>
+ * Only the field values themselves are copied, nested beans and collections
+ * are not mapped but shared between source and target. IBeans passed to a
+ * mapper need to be created by the factory that created the mapper. Mappers
+ * are thread safe.
+ *
+ * @param <S> the source type
+ * @param <T> the target type
+ * @author alex@coliper.org
+ */
+//@formatter:on
+public class IBeanMapper<S, T> {
+
+    /*
+     * The copy plan consists of the parallel arrays "fieldNames", "readers",
+     * "writers" and "primitiveTarget", one element per copied field. For IBean
+     * types readers and writers access the field storage via IBeanFieldAccess,
+     * which is looked up once per mapping and passed in.
+     */
+
+    @FunctionalInterface
+    private static interface ValueReader {
+        Object read(Object bean, IBeanFieldAccess fieldAccess) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private static interface ValueWriter {
+        void write(Object bean, IBeanFieldAccess fieldAccess, Object value) throws Throwable;
+    }
+
+    private final ProxyIBeanFactory factory;
+    private final Class<S> sourceType;
+    private final Class<T> targetType;
+    private final IBeanContext<S> sourceContext;
+    private final IBeanContext<T> targetContext;
+    private final MethodHandle targetConstructor;
+    private final List<String> fieldNames;
+    private final ValueReader[] readers;
+    private final ValueWriter[] writers;
+    private final boolean[] primitiveTarget;
+
+    /**
+     * Internal constructor as only created by
+     * {@link ProxyIBeanFactory#mapper(Class, Class)}.
+     * 
+     * @param sourceContext
+     *            context of the source type or <code>null</code> if it is not
+     *            an IBean type
+     * @param targetContext
+     *            context of the target type or <code>null</code> if it is not
+     *            an IBean type
+     */
+    IBeanMapper(ProxyIBeanFactory factory, Class<S> sourceType, Class<T> targetType,
+            IBeanContext<S> sourceContext, IBeanContext<T> targetContext) {
+        requireNonNull(factory, "factory");
+        requireNonNull(sourceType, "sourceType");
+        requireNonNull(targetType, "targetType");
+        checkArgument(sourceContext != null || targetContext != null,
+                "at least one of %s and %s needs to be an IBean type", sourceType, targetType);
+        this.factory = factory;
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.sourceContext = sourceContext;
+        this.targetContext = targetContext;
+        this.targetConstructor = targetContext == null ? defaultConstructorOf(targetType) : null;
+
+        final Map<String, Class<?>> sourceFieldTypes = new LinkedHashMap<>();
+        final Map<String, ValueReader> sourceReaders = new LinkedHashMap<>();
+        if (sourceContext != null) {
+            collectIBeanReaders(sourceContext, sourceFieldTypes, sourceReaders);
+        } else {
+            collectPojoReaders(sourceType, sourceFieldTypes, sourceReaders);
+        }
+        final Map<String, Class<?>> targetFieldTypes = new LinkedHashMap<>();
+        final Map<String, ValueWriter> targetWriters = new LinkedHashMap<>();
+        if (targetContext != null) {
+            collectIBeanWriters(targetContext, targetFieldTypes, targetWriters);
+        } else {
+            collectPojoWriters(targetType, targetFieldTypes, targetWriters);
+        }
+
+        final List<String> names = new ArrayList<>();
+        final List<ValueReader> readerList = new ArrayList<>();
+        final List<ValueWriter> writerList = new ArrayList<>();
+        for (Map.Entry<String, Class<?>> source : sourceFieldTypes.entrySet()) {
+            final Class<?> targetFieldType = targetFieldTypes.get(source.getKey());
+            if (targetFieldType != null
+                    && ClassUtils.isAssignable(source.getValue(), targetFieldType, true)) {
+                names.add(source.getKey());
+                readerList.add(sourceReaders.get(source.getKey()));
+                writerList.add(widening(targetWriters.get(source.getKey()), source.getValue(),
+                        targetFieldType));
+            }
+        }
+        this.fieldNames = ImmutableList.copyOf(names);
+        this.readers = readerList.toArray(new ValueReader[readerList.size()]);
+        this.writers = writerList.toArray(new ValueWriter[writerList.size()]);
+        this.primitiveTarget = new boolean[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            this.primitiveTarget[i] = targetFieldTypes.get(names.get(i)).isPrimitive();
+        }
+    }
+
+    // Boxed values are read as they are, for example an int source field
+    // delivers an Integer. If the target type is a wider primitive type the
+    // value needs to be converted before it is written, otherwise an Integer
+    // would end up in a long field.
+    private static ValueWriter widening(ValueWriter writer, Class<?> sourceFieldType,
+            Class<?> targetFieldType) {
+        if (ClassUtils.isAssignable(ClassUtils.primitiveToWrapper(sourceFieldType),
+                ClassUtils.primitiveToWrapper(targetFieldType))) {
+            return writer;
+        }
+        return (bean, fieldAccess, value) -> writer.write(bean, fieldAccess,
+                ReflectionUtil.widenPrimitiveValue(value, targetFieldType));
+    }
+
+    private static void collectIBeanReaders(IBeanContext<?> context,
+            Map<String, Class<?>> fieldTypes, Map<String, ValueReader> readers) {
+        for (IBeanFieldMetaInfo fieldMeta : context.metaInfo().fieldMetaInfos()) {
+            fieldTypes.put(fieldMeta.fieldName(), fieldMeta.fieldType());
+            readers.put(fieldMeta.fieldName(),
+                    (bean, fieldAccess) -> fieldAccess.getFieldValue(fieldMeta));
+        }
+    }
+
+    private static void collectIBeanWriters(IBeanContext<?> context,
+            Map<String, Class<?>> fieldTypes, Map<String, ValueWriter> writers) {
+        for (IBeanFieldMetaInfo fieldMeta : context.metaInfo().fieldMetaInfos()) {
+            fieldTypes.put(fieldMeta.fieldName(), fieldMeta.fieldType());
+            writers.put(fieldMeta.fieldName(), (bean, fieldAccess, value) -> {
+                final Object valueToSet = fieldAccess.interceptFieldChange(fieldMeta, value, bean);
+                fieldAccess.setFieldValue(fieldMeta, valueToSet);
+                fieldAccess.afterFieldChange(fieldMeta, valueToSet, bean);
+            });
+        }
+    }
+
+    private static void collectPojoReaders(Class<?> type, Map<String, Class<?>> fieldTypes,
+            Map<String, ValueReader> readers) {
+        for (PropertyDescriptor property : propertiesOf(type)) {
+            final Method getter = property.getReadMethod();
+            if (getter != null) {
+                final MethodHandle handle = unreflect(getter)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                fieldTypes.put(property.getName(), getter.getReturnType());
+                readers.put(property.getName(), (bean, fieldAccess) -> handle.invokeExact(bean));
+            }
+        }
+    }
+
+    private static void collectPojoWriters(Class<?> type, Map<String, Class<?>> fieldTypes,
+            Map<String, ValueWriter> writers) {
+        for (PropertyDescriptor property : propertiesOf(type)) {
+            final Method setter = property.getWriteMethod();
+            if (setter != null) {
+                final MethodHandle handle = unreflect(setter)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                fieldTypes.put(property.getName(), setter.getParameterTypes()[0]);
+                writers.put(property.getName(), (bean, fieldAccess, value) -> {
+                    handle.invokeExact(bean, value);
+                });
+            }
+        }
+    }
+
+    private static PropertyDescriptor[] propertiesOf(Class<?> type) {
+        try {
+            return Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("cannot introspect " + type, e);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("cannot access " + method, e);
+        }
+    }
+
+    private static MethodHandle defaultConstructorOf(Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // map() is not supported, but copy() still is
+            return null;
+        }
+    }
+
+    /**
+     * @return the source type of this mapper
+     */
+    public Class<S> sourceType() {
+        return this.sourceType;
+    }
+
+    /**
+     * @return the target type of this mapper
+     */
+    public Class<T> targetType() {
+        return this.targetType;
+    }
+
+    /**
+     * Provides the names of all fields copied by this mapper.
+     * 
+     * @return an immutable list of field names
+     */
+    public List<String> mappedFieldNames() {
+        return this.fieldNames;
+    }
+
+    /**
+     * Creates a new instance of the target type and copies all mapped fields
+     * from the given source into it. IBean targets are created by the factory
+     * of this mapper, other targets with their default constructor.
+     * 
+     * @param source
+     *            the bean to copy the field values from
+     * @return the new target
+     * @throws IllegalStateException
+     *             if the target type is not an IBean type and has no default
+     *             constructor
+     */
+    public T map(S source) {
+        requireNonNull(source, "source");
+        final T target;
+        if (this.targetContext != null) {
+            target = this.factory.create(this.targetType);
+        } else {
+            checkState(this.targetConstructor != null, "%s does not have a default constructor",
+                    this.targetType);
+            try {
+                target = this.targetType.cast((Object) this.targetConstructor.invokeExact());
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+        this.copy(source, target);
+        return target;
+    }
+
+    /**
+     * Copies all mapped fields from the given source into the given target.
+     * Fields of the target that are not mapped keep their values.
+     * 
+     * @param source
+     *            the bean to copy the field values from
+     * @param target
+     *            the bean to copy the field values to
+     * @throws IllegalArgumentException
+     *             if a <code>null</code> value would be copied into a field of
+     *             a primitive type
+     */
+    public void copy(S source, T target) {
+        requireNonNull(source, "source");
+        requireNonNull(target, "target");
+        final IBeanFieldAccess sourceAccess =
+                this.sourceContext == null ? null : this.sourceContext.fieldAccessOf(source);
+        final IBeanFieldAccess targetAccess =
+                this.targetContext == null ? null : this.targetContext.fieldAccessOf(target);
+        try {
+            for (int i = 0; i < this.readers.length; i++) {
+                final Object value = this.readers[i].read(source, sourceAccess);
+                if (value == null && this.primitiveTarget[i]) {
+                    throw new IllegalArgumentException("cannot copy null into primitive field "
+                            + this.fieldNames.get(i) + " of " + this.targetType);
+                }
+                this.writers[i].write(target, targetAccess, value);
+            }
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        Throwables.throwIfUnchecked(t);
+        throw new RuntimeException(t);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAware;
+
+//@formatter:off
+/**
+ * Simple object pool for IBeans of one specific type created by a
+ * {@link ProxyIBeanFactory}. Pools are meant for allocation sensitive code
+ * where a high number of short-living beans would otherwise be created and
+ * discarded.
+ * <p>
+ * Pools are created with {@link ProxyIBeanFactory#createPool(Class, int)}. A bean
+ * is taken out of the pool with {@link #acquire()} and given back with
+ * {@link #release(Object)}:
+ * <pre>
+ * IBeanPool&lt;Quote&gt; pool = factory.createPool(Quote.class, 64);
+ * Quote quote = pool.acquire();
+ * ...
+ * pool.release(quote);
+ * </pre>
+ * On release a bean is reset to the state of a newly created bean. This means
+ * all field values are set back to their defaults (<code>null</code> or the
+ * default value of a primitive type) and also the state of all stateful
+ * extension handlers is reset, for example the dirty flags of
+ * {@link ModificationAware} or the frozen state of {@link Freezable}. See
+ * {@link ExtensionHandler#onResetStateful(Object, org.coliper.ibean.IBeanTypeMetaInfo)}.
+ * <p>
+ * A pool holds at most {@link #capacity()} idle beans. If the pool is empty
+ * {@link #acquire()} simply creates a new bean, if the pool is full a released
+ * bean is dropped and left to the garbage collector. Acquiring and releasing
+ * beans does not allocate any objects itself.
+ * <p>
+ * Pools are thread safe, beans can be acquired and released from different
+ * threads. Of course a bean must not be used any more after it has been
+ * released, neither by the releasing thread nor by any other thread holding
+ * a reference to it.
+ *
+ * @param <T> the bean type handled by this pool
+ * @author alex@coliper.org
+ */
+//@formatter:on
+public class IBeanPool<T> {
+
+    private final ProxyIBeanFactory factory;
+    private final Class<T> beanType;
+    private final int capacity;
+    private final BlockingQueue<T> idleBeans;
+
+    /**
+     * Internal constructor as only created by
+     * {@link ProxyIBeanFactory#createPool(Class, int)}.
+     */
+    IBeanPool(ProxyIBeanFactory factory, Class<T> beanType, int capacity) {
+        requireNonNull(factory, "factory");
+        requireNonNull(beanType, "beanType");
+        checkArgument(capacity > 0, "capacity must be positive but is %s", capacity);
+        this.factory = factory;
+        this.beanType = beanType;
+        this.capacity = capacity;
+        this.idleBeans = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Takes an idle bean out of the pool or creates a new one if the pool is
+     * empty. In both cases the returned bean is in the same state as a newly
+     * created bean.
+     *
+     * @return a bean of type {@code T}, never <code>null</code>
+     */
+    public T acquire() {
+        T bean = this.idleBeans.poll();
+        if (bean == null) {
+            return this.factory.create(this.beanType);
+        }
+        // only released beans are put into the pool, so it cannot fail
+        checkState(ProxyIBean.proxyIBeanOf(bean).unmarkPooled(), "idle bean not marked");
+        return bean;
+    }
+
+    /**
+     * Resets the given bean to its initial state and puts it back into the
+     * pool. If the pool already holds {@link #capacity()} idle beans the bean
+     * is discarded.
+     *
+     * @param bean
+     *            a bean that was created by the factory of this pool and has
+     *            the pool's bean type; must not be <code>null</code>
+     * @throws IllegalArgumentException
+     *             if the bean does not belong to this pool's factory or has a
+     *             different bean type
+     * @throws IllegalStateException
+     *             if the bean has already been released and not been acquired
+     *             again
+     */
+    public void release(T bean) {
+        requireNonNull(bean, "bean");
+        ProxyIBean<?> proxyBean = ProxyIBean.proxyIBeanOf(bean);
+        checkArgument(proxyBean != null, "%s is not an IBean", bean.getClass());
+        checkArgument(proxyBean.context().beanFactory() == this.factory,
+                "bean was not created by the factory of this pool");
+        checkArgument(proxyBean.context().metaInfo().beanType() == this.beanType,
+                "bean type %s does not match pool type %s",
+                proxyBean.context().metaInfo().beanType(), this.beanType);
+        // atomic check and mark, concurrent releases of a bean are rejected
+        checkState(proxyBean.markPooled(), "bean has already been released");
+        proxyBean.resetToDefaults(bean);
+        this.idleBeans.offer(bean);
+    }
+
+    /**
+     * Provides the maximum number of idle beans held by this pool.
+     *
+     * @return the pool capacity, always greater than 0
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Provides the number of beans currently available in the pool.
+     *
+     * @return number of idle beans between 0 and {@link #capacity()}
+     */
+    public int idleCount() {
+        return this.idleBeans.size();
+    }
+
+    /**
+     * Provides the type of beans handled by this pool.
+     *
+     * @return the bean type
+     */
+    public Class<T> beanType() {
+        return this.beanType;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+
+//@formatter:off
+/**
+ * Typed descriptor of a single field of an IBean type that reads and writes
+ * the field directly in the storage of a bean. This is meant for frameworks
+ * like serializers or sorters that access fields of many beans generically
+ * and would otherwise call getters and setters via reflection.
+ * <p>
+ * Properties are created with
+ * {@link ProxyIBeanFactory#property(Class, java.util.function.Function)} or
+ * {@link ProxyIBeanFactory#property(Class, String, Class)} once per bean type
+ * and field and can then be used for all beans of that type created by the
+ * same factory:
+ * <pre>
+ * IBeanProperty&lt;Customer, String&gt; name = factory.property(Customer.class, Customer::getName);
+ * IBeanProperty&lt;Customer, Integer&gt; age = factory.property(Customer.class, Customer::getAge);
+ * customers.sort(Comparator.comparing(name::get));
+ * int totalAge = customers.stream().mapToInt(age::getInt).sum();
+ * </pre>
+ * Reading a property does not call the getter of the bean, therefore getter
+ * related extensions like {@link org.coliper.ibean.extension.NullSafe} do not
+ * apply. Writing a property does not call the setter either but runs the
+ * extension handlers of the bean like a setter call does, for example a
+ * frozen bean rejects the change.
+ * <p>
+ * Properties are immutable and thread safe.
+ *
+ * @param <T> the bean type
+ * @param <V> the type of the field values, a wrapper type for primitive fields
+ * @author alex@coliper.org
+ */
+//@formatter:on
+public final class IBeanProperty<T, V> {
+
+    private final IBeanContext<T> context;
+    private final IBeanFieldMetaInfo fieldMeta;
+    private final Class<?> boxedFieldType;
+
+    /**
+     * Internal constructor as only created by {@link ProxyIBeanFactory}.
+     */
+    IBeanProperty(IBeanContext<T> context, IBeanFieldMetaInfo fieldMeta) {
+        requireNonNull(context, "context");
+        requireNonNull(fieldMeta, "fieldMeta");
+        this.context = context;
+        this.fieldMeta = fieldMeta;
+        this.boxedFieldType = ClassUtils.primitiveToWrapper(fieldMeta.fieldType());
+    }
+
+    /**
+     * @return the bean type this property belongs to
+     */
+    public Class<T> beanType() {
+        return this.context.metaInfo().beanType();
+    }
+
+    /**
+     * @return the name of the field
+     */
+    public String name() {
+        return this.fieldMeta.fieldName();
+    }
+
+    /**
+     * @return the type of the field; might be a primitive type
+     */
+    public Class<?> type() {
+        return this.fieldMeta.fieldType();
+    }
+
+    /**
+     * @return meta information about the field
+     */
+    public IBeanFieldMetaInfo fieldMeta() {
+        return this.fieldMeta;
+    }
+
+    /**
+     * Reads the value of the field from the given bean.
+     * 
+     * @param bean
+     *            a bean created by the factory of this property
+     * @return the field value; might be <code>null</code> for non-primitive
+     *         fields
+     */
+    @SuppressWarnings("unchecked")
+    public V get(T bean) {
+        return (V) this.context.fieldAccessOf(bean).getFieldValue(this.fieldMeta);
+    }
+
+    /**
+     * Sets the field of the given bean to a new value.
+     * 
+     * @param bean
+     *            a bean created by the factory of this property
+     * @param value
+     *            the new field value
+     * @throws IllegalArgumentException
+     *             if <code>value</code> is <code>null</code> for a primitive
+     *             field or if it does not fit the field type
+     */
+    public void set(T bean, V value) {
+        checkArgument(value == null || this.boxedFieldType.isInstance(value),
+                "value %s does not fit type %s of field %s", value, this.fieldMeta.fieldType(),
+                this.fieldMeta.fieldName());
+        final IBeanFieldAccess fieldAccess = this.context.fieldAccessOf(bean);
+        final Object valueToSet = fieldAccess.interceptFieldChange(this.fieldMeta, value, bean);
+        fieldAccess.setFieldValue(this.fieldMeta, valueToSet);
+        fieldAccess.afterFieldChange(this.fieldMeta, valueToSet, bean);
+    }
+
+    /**
+     * Reads the value of a field of type <code>int</code>, <code>short</code>,
+     * <code>byte</code> or of a corresponding wrapper type.
+     * 
+     * @param bean
+     *            a bean created by the factory of this property
+     * @return the field value
+     * @throws IllegalStateException
+     *             if the field has a different type
+     * @throws NullPointerException
+     *             if the field is of a wrapper type and <code>null</code>
+     */
+    public int getInt(T bean) {
+        checkState(isIntegral(this.boxedFieldType) && this.boxedFieldType != Long.class,
+                "field %s is not of an int type", this.fieldMeta.fieldName());
+        return this.getNumber(bean).intValue();
+    }
+
+    /**
+     * Reads the value of a field of type <code>long</code>, <code>int</code>,
+     * <code>short</code>, <code>byte</code> or of a corresponding wrapper
+     * type.
+     * 
+     * @param bean
+     *            a bean created by the factory of this property
+     * @return the field value
+     * @throws IllegalStateException
+     *             if the field has a different type
+     * @throws NullPointerException
+     *             if the field is of a wrapper type and <code>null</code>
+     */
+    public long getLong(T bean) {
+        checkState(isIntegral(this.boxedFieldType), "field %s is not of a long type",
+                this.fieldMeta.fieldName());
+        return this.getNumber(bean).longValue();
+    }
+
+    /**
+     * Reads the value of a field of a primitive numeric type other than
+     * <code>char</code> or of a corresponding wrapper type.
+     * 
+     * @param bean
+     *            a bean created by the factory of this property
+     * @return the field value
+     * @throws IllegalStateException
+     *             if the field has a different type
+     * @throws NullPointerException
+     *             if the field is of a wrapper type and <code>null</code>
+     */
+    public double getDouble(T bean) {
+        checkState(isIntegral(this.boxedFieldType) || this.boxedFieldType == Double.class
+                || this.boxedFieldType == Float.class, "field %s is not of a double type",
+                this.fieldMeta.fieldName());
+        return this.getNumber(bean).doubleValue();
+    }
+
+    /**
+     * Reads the value of a field of type <code>boolean</code> or
+     * {@link Boolean}.
+     * 
+     * @param bean
+     *            a bean created by the factory of this property
+     * @return the field value
+     * @throws IllegalStateException
+     *             if the field has a different type
+     * @throws NullPointerException
+     *             if the field is of type {@link Boolean} and
+     *             <code>null</code>
+     */
+    public boolean getBoolean(T bean) {
+        checkState(this.boxedFieldType == Boolean.class, "field %s is not of a boolean type",
+                this.fieldMeta.fieldName());
+        return ((Boolean) this.getNonNull(bean)).booleanValue();
+    }
+
+    private static boolean isIntegral(Class<?> boxedType) {
+        return boxedType == Integer.class || boxedType == Long.class
+                || boxedType == Short.class || boxedType == Byte.class;
+    }
+
+    private Number getNumber(T bean) {
+        return (Number) this.getNonNull(bean);
+    }
+
+    private Object getNonNull(T bean) {
+        final Object value = this.context.fieldAccessOf(bean).getFieldValue(this.fieldMeta);
+        if (value == null) {
+            throw new NullPointerException("field " + this.fieldMeta.fieldName() + " is null");
+        }
+        return value;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "IBeanProperty [" + this.beanType().getName() + "." + this.name() + "]";
+    }
+}
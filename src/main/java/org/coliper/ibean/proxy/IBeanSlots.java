@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+
+//@formatter:off
+/**
+ * Reads and writes all fields of beans of one IBean type at once, using
+ * arrays indexed by field ordinal (see {@link IBeanFieldMetaInfo#ordinal()}).
+ * This is meant for row oriented processing like CSV or JDBC import and
+ * export, where whole records are moved instead of single fields.
+ * <p>
+ * Instances are created with {@link ProxyIBeanFactory#slots(Class)} once per
+ * bean type:
+ * <pre>
+ * IBeanSlots&lt;Quote&gt; slots = factory.slots(Quote.class);
+ * Object[] row = new Object[slots.noOfFields()];
+ * slots.exportTo(quote, row, 0);
+ * Quote copy = slots.create(row, 0);
+ * </pre>
+ * Besides <code>Object</code> arrays also <code>long</code> and
+ * <code>double</code> arrays are supported for selected numeric fields, for
+ * example for columnar buffers.
+ * <p>
+ * Exporting copies the field values directly from the storage of the bean.
+ * Importing does not call setters but runs the extension handlers of the bean
+ * for each field like a setter call does, for example a frozen bean rejects
+ * the import.
+ * <p>
+ * Instances are immutable and thread safe.
+ *
+ * @param <T> the bean type
+ * @author alex@coliper.org
+ */
+//@formatter:on
+public final class IBeanSlots<T> {
+
+    private final ProxyIBeanFactory factory;
+    private final IBeanContext<T> context;
+    private final List<IBeanFieldMetaInfo> fieldMetas;
+    // field types with primitive types replaced by their wrapper types
+    private final Class<?>[] boxedFieldTypes;
+
+    /**
+     * Internal constructor as only created by
+     * {@link ProxyIBeanFactory#slots(Class)}.
+     */
+    IBeanSlots(ProxyIBeanFactory factory, IBeanContext<T> context) {
+        requireNonNull(factory, "factory");
+        requireNonNull(context, "context");
+        this.factory = factory;
+        this.context = context;
+        this.fieldMetas = context.metaInfo().fieldMetaInfos();
+        this.boxedFieldTypes = new Class<?>[this.fieldMetas.size()];
+        for (int i = 0; i < this.boxedFieldTypes.length; i++) {
+            this.boxedFieldTypes[i] =
+                    ClassUtils.primitiveToWrapper(this.fieldMetas.get(i).fieldType());
+        }
+    }
+
+    /**
+     * @return meta information about the bean type, defines the ordinal of
+     *         each field
+     */
+    public IBeanTypeMetaInfo<T> metaInfo() {
+        return this.context.metaInfo();
+    }
+
+    /**
+     * @return the number of fields of the bean type, which is the number of
+     *         array elements read or written by {@link #exportTo(Object,
+     *         Object[], int)} and {@link #importFrom(Object, Object[], int)}
+     */
+    public int noOfFields() {
+        return this.fieldMetas.size();
+    }
+
+    private ProxyIBean<?> proxyIBeanOf(T bean) {
+        return (ProxyIBean<?>) this.context.fieldAccessOf(bean);
+    }
+
+    /**
+     * Copies all field values of a bean into an array.
+     * 
+     * @param bean
+     *            a bean created by the factory of this instance
+     * @param target
+     *            receives the field values, the value of the field with
+     *            ordinal <code>i</code> is stored at index
+     *            <code>offset + i</code>
+     * @param offset
+     *            index of the first array element to write
+     * @throws IndexOutOfBoundsException
+     *             if the array is too small
+     */
+    public void exportTo(T bean, Object[] target, int offset) {
+        requireNonNull(target, "target");
+        checkPositionIndexes(offset, offset + this.noOfFields(), target.length);
+        this.proxyIBeanOf(bean).exportFieldValues(target, offset);
+    }
+
+    /**
+     * Sets all fields of a bean to the values of an array.
+     * 
+     * @param bean
+     *            a bean created by the factory of this instance
+     * @param source
+     *            contains the new field values, the value of the field with
+     *            ordinal <code>i</code> is taken from index
+     *            <code>offset + i</code>
+     * @param offset
+     *            index of the first array element to read
+     * @throws IndexOutOfBoundsException
+     *             if the array is too small
+     * @throws IllegalArgumentException
+     *             if a value does not fit the type of its field. In this case
+     *             no field is changed.
+     */
+    public void importFrom(T bean, Object[] source, int offset) {
+        requireNonNull(source, "source");
+        checkPositionIndexes(offset, offset + this.noOfFields(), source.length);
+        final ProxyIBean<?> proxyBean = this.proxyIBeanOf(bean);
+        for (int i = 0; i < this.boxedFieldTypes.length; i++) {
+            this.checkValue(i, source[offset + i]);
+        }
+        for (int i = 0; i < this.boxedFieldTypes.length; i++) {
+            setFieldValue(proxyBean, bean, this.fieldMetas.get(i), source[offset + i]);
+        }
+    }
+
+    /**
+     * Creates a new bean and sets its fields to the values of an array. See
+     * {@link #importFrom(Object, Object[], int)}.
+     * 
+     * @param source
+     *            contains the field values
+     * @param offset
+     *            index of the first array element to read
+     * @return the new bean
+     */
+    public T create(Object[] source, int offset) {
+        final T bean = this.factory.create(this.metaInfo().beanType());
+        this.importFrom(bean, source, offset);
+        return bean;
+    }
+
+    /**
+     * Copies the values of selected integral fields of a bean into a
+     * <code>long</code> array. Fields may be of type <code>long</code>,
+     * <code>int</code>, <code>short</code> or <code>byte</code> or of a
+     * corresponding wrapper type.
+     * 
+     * @param bean
+     *            a bean created by the factory of this instance
+     * @param ordinals
+     *            the ordinals of the fields to export
+     * @param target
+     *            receives the value of field <code>ordinals[i]</code> at index
+     *            <code>offset + i</code>
+     * @param offset
+     *            index of the first array element to write
+     * @throws IllegalArgumentException
+     *             if a field is not of an integral type
+     * @throws NullPointerException
+     *             if a field of a wrapper type is <code>null</code>
+     */
+    public void exportLongs(T bean, int[] ordinals, long[] target, int offset) {
+        requireNonNull(ordinals, "ordinals");
+        requireNonNull(target, "target");
+        checkPositionIndexes(offset, offset + ordinals.length, target.length);
+        final ProxyIBean<?> proxyBean = this.proxyIBeanOf(bean);
+        for (int i = 0; i < ordinals.length; i++) {
+            checkArgument(isIntegral(this.boxedFieldTypes[ordinals[i]]),
+                    "field %s is not of an integral type", this.fieldName(ordinals[i]));
+            target[offset + i] = this.numberValue(proxyBean, ordinals[i]).longValue();
+        }
+    }
+
+    /**
+     * Copies the values of selected numeric fields of a bean into a
+     * <code>double</code> array. Fields may be of any primitive numeric type
+     * except <code>char</code> or of a corresponding wrapper type.
+     * 
+     * @param bean
+     *            a bean created by the factory of this instance
+     * @param ordinals
+     *            the ordinals of the fields to export
+     * @param target
+     *            receives the value of field <code>ordinals[i]</code> at index
+     *            <code>offset + i</code>
+     * @param offset
+     *            index of the first array element to write
+     * @throws IllegalArgumentException
+     *             if a field is not of a numeric type
+     * @throws NullPointerException
+     *             if a field of a wrapper type is <code>null</code>
+     */
+    public void exportDoubles(T bean, int[] ordinals, double[] target, int offset) {
+        requireNonNull(ordinals, "ordinals");
+        requireNonNull(target, "target");
+        checkPositionIndexes(offset, offset + ordinals.length, target.length);
+        final ProxyIBean<?> proxyBean = this.proxyIBeanOf(bean);
+        for (int i = 0; i < ordinals.length; i++) {
+            checkArgument(isNumeric(this.boxedFieldTypes[ordinals[i]]),
+                    "field %s is not of a numeric type", this.fieldName(ordinals[i]));
+            target[offset + i] = this.numberValue(proxyBean, ordinals[i]).doubleValue();
+        }
+    }
+
+    /**
+     * Sets selected integral fields of a bean to the values of a
+     * <code>long</code> array. Each value is converted to the type of its
+     * field, see {@link #exportLongs(Object, int[], long[], int)} for the
+     * supported types.
+     * 
+     * @param bean
+     *            a bean created by the factory of this instance
+     * @param ordinals
+     *            the ordinals of the fields to import
+     * @param source
+     *            contains the value of field <code>ordinals[i]</code> at
+     *            index <code>offset + i</code>
+     * @param offset
+     *            index of the first array element to read
+     * @throws IllegalArgumentException
+     *             if a field is not of an integral type or if a value does not
+     *             fit into the range of its field type. In this case no field
+     *             is changed.
+     */
+    public void importLongs(T bean, int[] ordinals, long[] source, int offset) {
+        requireNonNull(ordinals, "ordinals");
+        requireNonNull(source, "source");
+        checkPositionIndexes(offset, offset + ordinals.length, source.length);
+        final ProxyIBean<?> proxyBean = this.proxyIBeanOf(bean);
+        final Object[] values = new Object[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            values[i] = this.integralValue(ordinals[i], source[offset + i]);
+        }
+        for (int i = 0; i < ordinals.length; i++) {
+            setFieldValue(proxyBean, bean, this.fieldMetas.get(ordinals[i]), values[i]);
+        }
+    }
+
+    /**
+     * Sets selected <code>double</code> or <code>float</code> fields (or
+     * fields of the corresponding wrapper types) of a bean to the values of a
+     * <code>double</code> array.
+     * 
+     * @param bean
+     *            a bean created by the factory of this instance
+     * @param ordinals
+     *            the ordinals of the fields to import
+     * @param source
+     *            contains the value of field <code>ordinals[i]</code> at
+     *            index <code>offset + i</code>
+     * @param offset
+     *            index of the first array element to read
+     * @throws IllegalArgumentException
+     *             if a field is not of type <code>double</code> or
+     *             <code>float</code>. In this case no field is changed.
+     */
+    public void importDoubles(T bean, int[] ordinals, double[] source, int offset) {
+        requireNonNull(ordinals, "ordinals");
+        requireNonNull(source, "source");
+        checkPositionIndexes(offset, offset + ordinals.length, source.length);
+        final ProxyIBean<?> proxyBean = this.proxyIBeanOf(bean);
+        final Object[] values = new Object[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            final Class<?> boxedType = this.boxedFieldTypes[ordinals[i]];
+            if (boxedType == Double.class) {
+                values[i] = Double.valueOf(source[offset + i]);
+            } else {
+                checkArgument(boxedType == Float.class, "field %s is not of a floating type",
+                        this.fieldName(ordinals[i]));
+                values[i] = Float.valueOf((float) source[offset + i]);
+            }
+        }
+        for (int i = 0; i < ordinals.length; i++) {
+            setFieldValue(proxyBean, bean, this.fieldMetas.get(ordinals[i]), values[i]);
+        }
+    }
+
+    private String fieldName(int ordinal) {
+        return this.fieldMetas.get(ordinal).fieldName();
+    }
+
+    private void checkValue(int ordinal, Object value) {
+        if (value == null) {
+            checkArgument(!this.fieldMetas.get(ordinal).fieldType().isPrimitive(),
+                    "primitive field %s cannot be set to null", this.fieldName(ordinal));
+        } else {
+            checkArgument(this.boxedFieldTypes[ordinal].isInstance(value),
+                    "value %s does not fit type %s of field %s", value,
+                    this.fieldMetas.get(ordinal).fieldType(), this.fieldName(ordinal));
+        }
+    }
+
+    private Number numberValue(ProxyIBean<?> proxyBean, int ordinal) {
+        final Object value = proxyBean.loadFieldValue(ordinal);
+        if (value == null) {
+            throw new NullPointerException("field " + this.fieldName(ordinal) + " is null");
+        }
+        return (Number) value;
+    }
+
+    private Object integralValue(int ordinal, long value) {
+        final Class<?> boxedType = this.boxedFieldTypes[ordinal];
+        if (boxedType == Long.class) {
+            return Long.valueOf(value);
+        }
+        checkArgument(isIntegral(boxedType), "field %s is not of an integral type",
+                this.fieldName(ordinal));
+        final long min;
+        final long max;
+        if (boxedType == Integer.class) {
+            min = Integer.MIN_VALUE;
+            max = Integer.MAX_VALUE;
+        } else if (boxedType == Short.class) {
+            min = Short.MIN_VALUE;
+            max = Short.MAX_VALUE;
+        } else {
+            min = Byte.MIN_VALUE;
+            max = Byte.MAX_VALUE;
+        }
+        checkArgument(value >= min && value <= max, "value %s out of range of field %s", value,
+                this.fieldName(ordinal));
+        if (boxedType == Integer.class) {
+            return Integer.valueOf((int) value);
+        } else if (boxedType == Short.class) {
+            return Short.valueOf((short) value);
+        }
+        return Byte.valueOf((byte) value);
+    }
+
+    private static boolean isIntegral(Class<?> boxedType) {
+        return boxedType == Long.class || boxedType == Integer.class
+                || boxedType == Short.class || boxedType == Byte.class;
+    }
+
+    private static boolean isNumeric(Class<?> boxedType) {
+        return isIntegral(boxedType) || boxedType == Double.class || boxedType == Float.class;
+    }
+
+    private static void setFieldValue(ProxyIBean<?> proxyBean, Object bean,
+            IBeanFieldMetaInfo fieldMeta, Object value) {
+        final Object valueToSet = proxyBean.interceptFieldChange(fieldMeta, value, bean);
+        proxyBean.setFieldValue(fieldMeta, valueToSet);
+        proxyBean.afterFieldChange(fieldMeta, valueToSet, bean);
+    }
+}
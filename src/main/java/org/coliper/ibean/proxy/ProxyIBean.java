@@ -24,14 +24,17 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
 import org.coliper.ibean.util.RecursionCycleDetector;
 import org.coliper.ibean.util.ReflectionUtil;
 
@@ -51,6 +54,21 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
      * following information: - meta information about the bean type in field
      * "context" - the bean values as an object array in field "beanValues"
      * 
+     * The array in "beanValues" might be shared with other beans (see
+     * newBeanWithSameFieldValues()). In that case "beanValuesShared" is set and the
+     * array is replaced by a private copy before the first write access, so a
+     * shared array is never modified.
+     * 
+     * "beanValues" and its elements are read and written without
+     * synchronization, so getters do not pay for any memory barrier. Beans
+     * shared between threads are published via the volatile flag of
+     * FreezableHandler or need to be handed over safely.
+     * 
+     * All access to the field values is done via the package-private methods
+     * loadFieldValue(), storeFieldValue(), fieldValues(), replaceFieldValues()
+     * and resetFieldValues(). AtomicProxyIBean overrides them to use a
+     * different storage.
+     * 
      * See invoke method for details how method calls to the bean are handled.
      */
 
@@ -66,30 +84,195 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
             new RecursionCycleDetector<Object>(Integer.valueOf(1));
     private static final RecursionCycleDetector<Object> RECURSION_DETECTOR_EQUALS =
             new RecursionCycleDetector<Object>(Boolean.FALSE);
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ProxyIBean> MISSING_COUNT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ProxyIBean.class, "missingRequiredFieldCount");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ProxyIBean> POOLED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ProxyIBean.class, "pooled");
 
     private final IBeanContext<T> context;
     private final ExtensionHandlerDispatcher extendedInterfaceHandler;
-    private final Object[] beanValues;
+    private Object[] beanValues;
+    private boolean beanValuesShared = false;
+    // number of required fields (see IBeanContext.isRequiredField()) that are
+    // currently null, only changes when a required field becomes null or
+    // non-null, updated atomically via MISSING_COUNT_UPDATER
+    private volatile int missingRequiredFieldCount;
+    // 1 while the bean is sitting idle in an IBeanPool, otherwise 0, changed
+    // atomically via POOLED_UPDATER
+    private volatile int pooled = 0;
+
+    /**
+     * Returns the {@link ProxyIBean} behind a given IBean instance or
+     * <code>null</code> if the given object is not a proxy created by a
+     * {@link ProxyIBeanFactory}.
+     */
+    static ProxyIBean<?> proxyIBeanOf(Object bean) {
+        if (bean == null || !Proxy.isProxyClass(bean.getClass())) {
+            return null;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(bean);
+        if (handler instanceof ProxyIBean) {
+            return (ProxyIBean<?>) handler;
+        }
+        return null;
+    }
 
     ProxyIBean(IBeanContext<T> context, ExtensionHandlerDispatcher handler) {
+        this(context, handler, initBeanValues(context), context.noOfRequiredFields());
+    }
+
+    /**
+     * Creates a bean that uses the given array as field value storage as it
+     * is, without filling it with default values.
+     */
+    ProxyIBean(IBeanContext<T> context, ExtensionHandlerDispatcher handler, Object[] beanValues,
+            int missingRequiredFieldCount) {
         requireNonNull(context, "context");
         requireNonNull(handler, "handler");
         this.context = context;
         this.extendedInterfaceHandler = handler;
-        this.beanValues = initBeanValues(context);
+        this.beanValues = beanValues;
+        this.missingRequiredFieldCount = missingRequiredFieldCount;
     }
 
-    private Object[] initBeanValues(IBeanContext<T> context) {
+    private static Object[] initBeanValues(IBeanContext<?> context) {
         Object[] val = new Object[context.metaInfo().noOfFields()];
-        // init all "primitive" values with defaults
+        fillWithDefaultValues(context, val);
+        return val;
+    }
+
+    static void fillWithDefaultValues(IBeanContext<?> context, Object[] val) {
+        // init all "primitive" values with defaults, all others with null
         for (int i = 0; i < val.length; i++) {
             IBeanFieldMetaInfo fieldMetaInfo = context.metaInfo().fieldMetaInfos().get(i);
             Class<?> fieldType = fieldMetaInfo.fieldType();
             if (fieldType.isPrimitive()) {
                 val[i] = ReflectionUtil.primitiveTypeDefaultValue(fieldType);
+            } else {
+                val[i] = null;
             }
         }
-        return val;
+    }
+
+    IBeanContext<T> context() {
+        return this.context;
+    }
+
+    /**
+     * Creates the invocation handler for a new bean of the same type that
+     * holds the current field values of this bean. In
+     * {@link ConcurrencyMode#UNSYNCHRONIZED} both beans share their value
+     * array until one of them is changed, in all other modes the values are
+     * copied as a concurrent writer could miss that its array became shared.
+     */
+    ProxyIBean<T> newBeanWithSameFieldValues(ExtensionHandlerDispatcher handler) {
+        if (this.context.concurrencyMode() != ConcurrencyMode.UNSYNCHRONIZED) {
+            return new ProxyIBean<>(this.context, handler, this.fieldValues().clone(),
+                    this.missingRequiredFieldCount);
+        }
+        final ProxyIBean<T> newBean = new ProxyIBean<>(this.context, handler, this.beanValues,
+                this.missingRequiredFieldCount);
+        newBean.beanValuesShared = true;
+        this.beanValuesShared = true;
+        return newBean;
+    }
+
+    <H extends ExtensionHandler> H extensionHandlerOfType(Class<H> handlerType) {
+        return this.extendedInterfaceHandler.handlerOfType(handlerType);
+    }
+
+    /**
+     * Brings the bean back into the state it had right after creation. All
+     * field values are set to their defaults and all stateful handlers are
+     * reset via {@link ExtensionHandler#onResetStateful(Object, IBeanTypeMetaInfo)}.
+     */
+    void resetToDefaults(Object proxy) {
+        this.resetFieldValues();
+        this.missingRequiredFieldCount = this.context.noOfRequiredFields();
+        this.extendedInterfaceHandler.resetHandler(proxy, this.context.metaInfo());
+    }
+
+    /**
+     * Sets all field values to their defaults.
+     */
+    void resetFieldValues() {
+        if (this.beanValuesShared) {
+            this.beanValues = new Object[this.beanValues.length];
+            this.beanValuesShared = false;
+        }
+        fillWithDefaultValues(this.context, this.beanValues);
+    }
+
+    /**
+     * Removes the value array from this bean and returns it. Used by
+     * subclasses that use a different storage for the field values.
+     */
+    Object[] detachBeanValues() {
+        final Object[] values = this.beanValues;
+        this.beanValues = null;
+        return values;
+    }
+
+    /**
+     * Returns all field values indexed by field ordinal. The returned array
+     * must not be modified.
+     */
+    Object[] fieldValues() {
+        return this.beanValues;
+    }
+
+    /**
+     * Copies all field values indexed by field ordinal into the given array,
+     * starting at index <code>offset</code>.
+     */
+    void exportFieldValues(Object[] target, int offset) {
+        final Object[] values = this.beanValues;
+        System.arraycopy(values, 0, target, offset, values.length);
+    }
+
+    /**
+     * Replaces all field values with the given values indexed by field
+     * ordinal.
+     */
+    void replaceFieldValues(Object[] values) {
+        System.arraycopy(values, 0, this.writableBeanValues(), 0, values.length);
+    }
+
+    /**
+     * Returns the value of the field with the given ordinal.
+     */
+    Object loadFieldValue(int ordinal) {
+        return this.beanValues[ordinal];
+    }
+
+    /**
+     * Sets the value of the field with the given ordinal and returns the value
+     * the field had before.
+     */
+    Object storeFieldValue(int ordinal, Object newValue) {
+        final Object[] values = this.writableBeanValues();
+        final Object oldValue = values[ordinal];
+        values[ordinal] = newValue;
+        return oldValue;
+    }
+
+    /**
+     * Marks the bean as sitting idle in a pool. Returns <code>false</code> if
+     * it has already been marked, so that only one of several concurrent
+     * calls succeeds.
+     */
+    boolean markPooled() {
+        return POOLED_UPDATER.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * Removes the mark set by {@link #markPooled()}. Returns
+     * <code>false</code> if the bean has not been marked.
+     */
+    boolean unmarkPooled() {
+        return POOLED_UPDATER.compareAndSet(this, 1, 0);
     }
 
     /*
@@ -112,7 +295,11 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
                     proxy, method, args);
         }
         if (method.isDefault()) {
-            return this.handleDefaultMethod(proxy, method, args);
+            if (!this.extendedInterfaceHandler.interceptsDefaultMethodCalls()) {
+                return this.handleDefaultMethod(proxy, method, args);
+            }
+            return this.extendedInterfaceHandler.interceptDefaultMethodCall(this.context, method,
+                    args, () -> this.handleDefaultMethod(proxy, method, args), proxy);
         }
         return this.handleGetterOrSetter(proxy, method, args);
     }
@@ -174,8 +361,9 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
                 new ToStringBuilder(proxy, this.context.toStringStyle(), buffer);
         this.correctClassNameInToStringBuffer(proxy, buffer);
         List<IBeanFieldMetaInfo> fieldMetas = this.context.metaInfo().fieldMetaInfos();
+        final Object[] values = this.fieldValues();
         for (int index = 0; index < fieldMetas.size(); index++) {
-            builder.append(fieldMetas.get(index).fieldName(), this.beanValues[index]);
+            builder.append(fieldMetas.get(index).fieldName(), values[index]);
         }
         return builder.build();
     }
@@ -218,7 +406,7 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
     }
 
     private Object handleHashCodeMethodWithCycleProtection(Object proxy, Method method) {
-        return Integer.valueOf(Arrays.hashCode(this.beanValues));
+        return Integer.valueOf(Arrays.hashCode(this.fieldValues()));
     }
 
     private Object handleEqualsMethod(Object proxy, Method method, Object other) throws Throwable {
@@ -241,11 +429,12 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
 
         // iterate over all fields and comparing field values of both objects
         List<IBeanFieldMetaInfo> fieldMetas = this.context.metaInfo().fieldMetaInfos();
+        final Object[] values = this.fieldValues();
         for (int index = 0; index < fieldMetas.size(); index++) {
             // calling getter on other object to retrieve value from it
             Method getter = fieldMetas.get(index).getterMethod();
             Object otherValue = ReflectionUtil.invokeMethodUnchecked(other, getter);
-            if (!Objects.equals(this.beanValues[index], otherValue)) {
+            if (!Objects.equals(values[index], otherValue)) {
                 return Boolean.FALSE;
             }
         }
@@ -308,6 +497,8 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
         Object modifiedValueByHandler = this.extendedInterfaceHandler
                 .interceptSetterCall(this.context, fieldMeta, newValue, proxy);
         this.setFieldValue(fieldMeta, modifiedValueByHandler);
+        this.extendedInterfaceHandler.afterSetterCall(this.context, fieldMeta,
+                modifiedValueByHandler, proxy);
         if (fieldMeta.setterMethod().getReturnType() != void.class) {
             return this.context.beanStyleHandler().createReturnValueForSetterCall(proxy,
                     fieldMeta.setterMethod(), newValue);
@@ -353,7 +544,32 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
         if (fieldMeta.fieldType().isPrimitive()) {
             checkArgument(newValue != null, "primitive type cannot be set to null");
         }
-        this.beanValues[fieldMeta.ordinal()] = newValue;
+        final int ordinal = fieldMeta.ordinal();
+        if (this.context.isRequiredField(ordinal)) {
+            this.setRequiredFieldValue(ordinal, newValue);
+        } else {
+            this.storeFieldValue(ordinal, newValue);
+        }
+    }
+
+    private void setRequiredFieldValue(int ordinal, Object newValue) {
+        final Object oldValue = this.storeFieldValue(ordinal, newValue);
+        this.updateMissingRequiredFieldCount(oldValue, newValue);
+    }
+
+    /**
+     * Adjusts the number of missing required fields after a required field
+     * was changed from <code>oldValue</code> to <code>newValue</code>. Only
+     * a change from or to <code>null</code> touches the counter.
+     */
+    void updateMissingRequiredFieldCount(Object oldValue, Object newValue) {
+        if (oldValue == null) {
+            if (newValue != null) {
+                MISSING_COUNT_UPDATER.decrementAndGet(this);
+            }
+        } else if (newValue == null) {
+            MISSING_COUNT_UPDATER.incrementAndGet(this);
+        }
     }
 
     /*
@@ -364,6 +580,94 @@ class ProxyIBean<T> implements InvocationHandler, IBeanFieldAccess {
     @Override
     public Object getFieldValue(IBeanFieldMetaInfo fieldMeta) {
         Objects.requireNonNull(fieldMeta, "fieldMeta");
-        return this.beanValues[fieldMeta.ordinal()];
+        return this.loadFieldValue(fieldMeta.ordinal());
+    }
+
+    /*
+     * @see
+     * org.coliper.ibean.proxy.IBeanFieldAccess#compareAndSetFieldValue(org.
+     * coliper.ibean.IBeanFieldMetaInfo, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public synchronized boolean compareAndSetFieldValue(IBeanFieldMetaInfo fieldMeta,
+            Object expectedValue, Object newValue) {
+        Objects.requireNonNull(fieldMeta, "fieldMeta");
+        if (this.loadFieldValue(fieldMeta.ordinal()) != expectedValue) {
+            return false;
+        }
+        this.setFieldValue(fieldMeta, newValue);
+        return true;
+    }
+
+    /*
+     * @see
+     * org.coliper.ibean.proxy.IBeanFieldAccess#copyFieldValuesTo(org.coliper.
+     * ibean.proxy.IBeanFieldAccess)
+     */
+    @Override
+    public void copyFieldValuesTo(IBeanFieldAccess target) {
+        final ProxyIBean<?> targetBean = this.checkBeanOfSameType(target);
+        targetBean.replaceFieldValues(this.fieldValues());
+        targetBean.missingRequiredFieldCount = this.missingRequiredFieldCount;
+    }
+
+    /*
+     * @see
+     * org.coliper.ibean.proxy.IBeanFieldAccess#interceptFieldChange(org.coliper.
+     * ibean.IBeanFieldMetaInfo, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object interceptFieldChange(IBeanFieldMetaInfo fieldMeta, Object newValue,
+            Object proxyInstance) {
+        Objects.requireNonNull(fieldMeta, "fieldMeta");
+        return this.extendedInterfaceHandler.interceptSetterCall(this.context, fieldMeta, newValue,
+                proxyInstance);
+    }
+
+    /*
+     * @see
+     * org.coliper.ibean.proxy.IBeanFieldAccess#afterFieldChange(org.coliper.
+     * ibean.IBeanFieldMetaInfo, java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterFieldChange(IBeanFieldMetaInfo fieldMeta, Object newValue,
+            Object proxyInstance) {
+        Objects.requireNonNull(fieldMeta, "fieldMeta");
+        this.extendedInterfaceHandler.afterSetterCall(this.context, fieldMeta, newValue,
+                proxyInstance);
+    }
+
+    /*
+     * @see
+     * org.coliper.ibean.proxy.IBeanFieldAccess#missingRequiredFieldCount()
+     */
+    @Override
+    public int missingRequiredFieldCount() {
+        return this.missingRequiredFieldCount;
+    }
+
+    private ProxyIBean<?> checkBeanOfSameType(IBeanFieldAccess target) {
+        Objects.requireNonNull(target, "target");
+        checkArgument(target instanceof ProxyIBean, "unexpected target type %s",
+                target.getClass());
+        final ProxyIBean<?> targetBean = (ProxyIBean<?>) target;
+        checkArgument(this.context.metaInfo().equals(targetBean.context.metaInfo()),
+                "target bean type %s does not match %s", targetBean.context.metaInfo().beanType(),
+                this.context.metaInfo().beanType());
+        return targetBean;
+    }
+
+    /*
+     * Returns the value array for write access. If the array is shared with
+     * other beans it is copied first.
+     */
+    private Object[] writableBeanValues() {
+        Object[] values = this.beanValues;
+        if (this.beanValuesShared) {
+            values = values.clone();
+            this.beanValues = values;
+            this.beanValuesShared = false;
+        }
+        return values;
     }
 }
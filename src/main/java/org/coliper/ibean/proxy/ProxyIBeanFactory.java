@@ -14,35 +14,58 @@
 
 package org.coliper.ibean.proxy;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.coliper.ibean.BeanStyle;
 import org.coliper.ibean.CachedIBeanMetaInfoParser;
 import org.coliper.ibean.IBean;
 import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.IBeanMetaInfoParser;
 import org.coliper.ibean.IBeanTypeMetaInfo;
 import org.coliper.ibean.beanstyle.ClassicBeanStyleWithOptionalSupport;
 import org.coliper.ibean.beanstyle.ModernBeanStyle;
+import org.coliper.ibean.extension.CloneableBean;
 import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAware;
 import org.coliper.ibean.extension.NullSafe;
+import org.coliper.ibean.proxy.handler.AtomicFieldsHandler;
+import org.coliper.ibean.proxy.handler.AtomicUpdatableHandler;
 import org.coliper.ibean.proxy.handler.CloneableHandler;
 import org.coliper.ibean.proxy.handler.CompletableHandler;
+import org.coliper.ibean.proxy.handler.ConcurrentModificationAwareHandler;
 import org.coliper.ibean.proxy.handler.FreezableHandler;
 import org.coliper.ibean.proxy.handler.GsonSupportHandler;
 import org.coliper.ibean.proxy.handler.Jackson2SupportHandler;
+import org.coliper.ibean.proxy.handler.JournaledHandler;
 import org.coliper.ibean.proxy.handler.LazyInitHandler;
+import org.coliper.ibean.proxy.handler.LazyLoadableHandler;
+import org.coliper.ibean.proxy.handler.MapViewHandler;
+import org.coliper.ibean.proxy.handler.MemoizingHandler;
 import org.coliper.ibean.proxy.handler.ModificationAwareHandler;
 import org.coliper.ibean.proxy.handler.NullSafeHandler;
+import org.coliper.ibean.proxy.handler.ObservableBeanHandler;
+import org.coliper.ibean.proxy.handler.SnapshotableHandler;
+import org.coliper.ibean.proxy.handler.ValidatedHandler;
+import org.coliper.ibean.proxy.handler.VersionedHandler;
+import org.coliper.ibean.util.ReflectionUtil;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 //@formatter:off     
 /**
@@ -85,32 +108,71 @@ public class ProxyIBeanFactory implements IBeanFactory {
 
   //@formatter:off     
     private static List<ExtensionSupport> DEFAULT_INTERFACE_SUPPORTS =
-            ImmutableList.of(ModificationAwareHandler.SUPPORT, 
+            ImmutableList.of(
+                    // Snapshotable and Validated reject setter calls before
+                    // any other handler can track them
+                    SnapshotableHandler.SUPPORT,
+                    ValidatedHandler.SUPPORT,
+                    ModificationAwareHandler.SUPPORT, 
+                    // LazyLoadable needs to load values before NullSafe
+                    // checks them
+                    LazyLoadableHandler.SUPPORT,
                     NullSafeHandler.SUPPORT,
                     LazyInitHandler.SUPPORT,
                     FreezableHandler.SUPPORT,
                     CompletableHandler.SUPPORT,
                     CloneableHandler.SUPPORT,
                     GsonSupportHandler.SUPPORT,
-                    Jackson2SupportHandler.SUPPORT);
+                    Jackson2SupportHandler.SUPPORT,
+                    // Journaled intercepts setters after all handlers that
+                    // might reject or modify the new value
+                    JournaledHandler.SUPPORT,
+                    ObservableBeanHandler.SUPPORT,
+                    VersionedHandler.SUPPORT,
+                    MemoizingHandler.SUPPORT,
+                    AtomicFieldsHandler.SUPPORT,
+                    AtomicUpdatableHandler.SUPPORT,
+                    MapViewHandler.SUPPORT);
   //@formatter:on 
 
+    /*
+     * Maps default extension supports to the lock-free variants of their
+     * handlers used in concurrency mode CONCURRENT. Handlers not contained
+     * here are safe for concurrent use anyway.
+     */
+    private static Map<ExtensionSupport, ExtensionSupport> CONCURRENT_INTERFACE_SUPPORTS =
+            ImmutableMap.of(ModificationAwareHandler.SUPPORT,
+                    ConcurrentModificationAwareHandler.SUPPORT);
+
     private final IBeanMetaInfoParser metaInfoParser;
     private final ToStringStyle toStringStyle;
     private final BeanStyle beanStyle;
     private final BeanStyleHandler beanStyleHandler;
     private final ProxyIBeanFactoryExtensionKit extendedInterfacesKit;
+    private final boolean copyOnWriteCloning;
+    private final int parallelDeepCloneThreshold;
+    private final ForkJoinPool parallelDeepClonePool;
+    private final boolean deepModificationTracking;
+    private final ConcurrencyMode concurrencyMode;
 
     private final Map<Class<?>, IBeanContext<?>> contextCache = new ConcurrentHashMap<>();
+    private final Map<List<Class<?>>, IBeanMapper<?, ?>> mapperCache = new ConcurrentHashMap<>();
 
     private ProxyIBeanFactory(IBeanMetaInfoParser metaInfoParser, ToStringStyle toStringStyle,
             BeanStyle beanStyle, BeanStyleHandler beanStyleHandler,
-            ProxyIBeanFactoryExtensionKit extendedInterfacesKit) {
+            ProxyIBeanFactoryExtensionKit extendedInterfacesKit, boolean copyOnWriteCloning,
+            int parallelDeepCloneThreshold, ForkJoinPool parallelDeepClonePool,
+            boolean deepModificationTracking, ConcurrencyMode concurrencyMode) {
         this.metaInfoParser = metaInfoParser;
         this.toStringStyle = toStringStyle;
         this.beanStyle = beanStyle;
         this.beanStyleHandler = beanStyleHandler;
         this.extendedInterfacesKit = extendedInterfacesKit;
+        this.copyOnWriteCloning = copyOnWriteCloning;
+        this.parallelDeepCloneThreshold = parallelDeepCloneThreshold;
+        this.parallelDeepClonePool = parallelDeepClonePool;
+        this.deepModificationTracking = deepModificationTracking;
+        this.concurrencyMode = concurrencyMode;
     }
 
     /*
@@ -120,17 +182,165 @@ public class ProxyIBeanFactory implements IBeanFactory {
      */
     @Override
     public <T> T create(Class<T> beanType) {
-        Class<?>[] interfaces = new Class<?>[] { beanType };
         IBeanContext<T> context = this.getOrCreateContext(beanType);
         ExtensionHandlerDispatcher handlerDispatcher =
                 this.extendedInterfacesKit.createHandlerFor(context.metaInfo());
-        ProxyIBean<T> handler = new ProxyIBean<>(context, handlerDispatcher);
+        ProxyIBean<T> handler = this.concurrencyMode == ConcurrencyMode.ATOMIC
+                ? new AtomicProxyIBean<>(context, handlerDispatcher)
+                : new ProxyIBean<>(context, handlerDispatcher);
+        return this.createProxy(beanType, handler, handlerDispatcher);
+    }
+
+    /**
+     * Creates a new bean holding the field values of the given bean without
+     * filling a new value array with defaults first. Values are shared
+     * copy-on-write where the concurrency mode allows it, see
+     * {@link ProxyIBean#newBeanWithSameFieldValues(ExtensionHandlerDispatcher)}.
+     */
+    <T> T createWithSameFieldValues(ProxyIBean<T> source) {
+        final IBeanContext<T> context = source.context();
+        ExtensionHandlerDispatcher handlerDispatcher =
+                this.extendedInterfacesKit.createHandlerFor(context.metaInfo());
+        return this.createProxy(context.metaInfo().beanType(),
+                source.newBeanWithSameFieldValues(handlerDispatcher), handlerDispatcher);
+    }
+
+    private <T> T createProxy(Class<T> beanType, ProxyIBean<T> handler,
+            ExtensionHandlerDispatcher handlerDispatcher) {
+        Class<?>[] interfaces = new Class<?>[] { beanType };
         final T proxy = beanType
                 .cast(Proxy.newProxyInstance(beanType.getClassLoader(), interfaces, handler));
-        handlerDispatcher.initHandler(proxy, context.metaInfo(), this);
+        handlerDispatcher.initHandler(handler.context(), handler, proxy);
         return proxy;
     }
 
+    /**
+     * Creates a new {@link IBeanPool} for reusing beans of the given type. All
+     * beans handed out by the pool are created by this factory.
+     * 
+     * @param beanType
+     *            the bean type to be pooled
+     * @param capacity
+     *            maximum number of idle beans kept in the pool; must be
+     *            greater than 0
+     * @return a new and empty pool
+     * @see IBeanPool
+     */
+    public <T> IBeanPool<T> createPool(Class<T> beanType, int capacity) {
+        requireNonNull(beanType, "beanType");
+        return new IBeanPool<>(this, beanType, capacity);
+    }
+
+    /**
+     * Provides an {@link IBeanMapper} for copying field values from beans of
+     * type <code>sourceType</code> to beans of type <code>targetType</code>.
+     * Interfaces are treated as IBean types created by this factory, classes
+     * as plain Java classes with getters and setters. The mapper for a pair of
+     * types is created only once and cached by this factory.
+     * 
+     * @param sourceType
+     *            the type to copy values from
+     * @param targetType
+     *            the type to copy values to
+     * @return the mapper for the given types
+     * @throws IllegalArgumentException
+     *             if none of the types is an interface
+     * @see IBeanMapper
+     */
+    @SuppressWarnings("unchecked")
+    public <S, T> IBeanMapper<S, T> mapper(Class<S> sourceType, Class<T> targetType) {
+        requireNonNull(sourceType, "sourceType");
+        requireNonNull(targetType, "targetType");
+        return (IBeanMapper<S, T>) this.mapperCache.computeIfAbsent(
+                ImmutableList.of(sourceType, targetType),
+                (k) -> new IBeanMapper<>(this, sourceType, targetType,
+                        sourceType.isInterface() ? this.getOrCreateContext(sourceType) : null,
+                        targetType.isInterface() ? this.getOrCreateContext(targetType) : null));
+    }
+
+    /**
+     * Creates an {@link IBeanProperty} for the field of a bean type that is
+     * read by the given getter. The getter is typically given as a method
+     * reference:
+     * 
+     * <pre>
+     * IBeanProperty&lt;Customer, String&gt; name =
+     *         factory.property(Customer.class, Customer::getName);
+     * </pre>
+     * 
+     * The getter is determined once by calling it on a recording proxy, see
+     * {@link ReflectionUtil#lookupInterfaceMethod(Class, java.util.function.Consumer)}.
+     * 
+     * @param beanType
+     *            the bean type the field belongs to
+     * @param getter
+     *            calls the getter of the field
+     * @return a new property
+     * @throws IllegalArgumentException
+     *             if <code>getter</code> does not call a getter of the bean
+     *             type or if the getter return type differs from the field
+     *             type due to the bean style
+     */
+    public <T, V> IBeanProperty<T, V> property(Class<T> beanType,
+            Function<? super T, V> getter) {
+        requireNonNull(beanType, "beanType");
+        requireNonNull(getter, "getter");
+        final IBeanContext<T> context = this.getOrCreateContext(beanType);
+        final Method method = ReflectionUtil.lookupInterfaceMethod(beanType, getter::apply);
+        final IBeanFieldMetaInfo fieldMeta = context.metaInfo().findFieldMetaWithMethod(method)
+                .filter(meta -> meta.getterMethod().equals(method))
+                .orElseThrow(() -> new IllegalArgumentException(method + " is not a getter"));
+        checkArgument(method.getReturnType() == fieldMeta.fieldType(),
+                "return type of %s differs from field type %s", method, fieldMeta.fieldType());
+        return new IBeanProperty<>(context, fieldMeta);
+    }
+
+    /**
+     * Creates an {@link IBeanProperty} for the field with a given name.
+     * 
+     * @param beanType
+     *            the bean type the field belongs to
+     * @param fieldName
+     *            the name of the field
+     * @param valueType
+     *            the type of the field values; a wrapper type for primitive
+     *            fields
+     * @return a new property
+     * @throws IllegalArgumentException
+     *             if the bean type has no field with the given name or if the
+     *             field values are not of type <code>valueType</code>
+     */
+    public <T, V> IBeanProperty<T, V> property(Class<T> beanType, String fieldName,
+            Class<V> valueType) {
+        requireNonNull(beanType, "beanType");
+        requireNonNull(fieldName, "fieldName");
+        requireNonNull(valueType, "valueType");
+        final IBeanContext<T> context = this.getOrCreateContext(beanType);
+        final IBeanFieldMetaInfo fieldMeta =
+                context.metaInfo().findFieldMetaWithFieldName(fieldName).orElseThrow(
+                        () -> new IllegalArgumentException("unknown field name '" + fieldName
+                                + "' in " + beanType));
+        checkArgument(
+                valueType.isAssignableFrom(ClassUtils.primitiveToWrapper(fieldMeta.fieldType())),
+                "values of field %s are not of type %s", fieldName, valueType);
+        return new IBeanProperty<>(context, fieldMeta);
+    }
+
+    /**
+     * Creates an {@link IBeanSlots} instance for reading and writing all
+     * fields of beans of the given type at once.
+     * 
+     * @param beanType
+     *            the bean type
+     * @return a new {@link IBeanSlots} for beans of type <code>beanType</code>
+     *         created by this factory
+     * @see IBeanSlots
+     */
+    public <T> IBeanSlots<T> slots(Class<T> beanType) {
+        requireNonNull(beanType, "beanType");
+        return new IBeanSlots<>(this, this.getOrCreateContext(beanType));
+    }
+
     /**
      * Creates a {@link Builder} for setting up a new {@link ProxyIBeanFactory}.
      * See class description above for an usage example.
@@ -184,6 +394,11 @@ public class ProxyIBeanFactory implements IBeanFactory {
         private BeanStyle beanStyle = BeanStyle.CLASSIC;
         private BeanStyleHandler beanStyleHandler = BeanStyleHandler.DEFAULT_HANDLER;
         private List<ExtensionSupport> interfaceSupport = new ArrayList<>();
+        private boolean copyOnWriteCloning = false;
+        private int parallelDeepCloneThreshold = 0;
+        private ForkJoinPool parallelDeepClonePool = ForkJoinPool.commonPool();
+        private boolean deepModificationTracking = false;
+        private ConcurrencyMode concurrencyMode = ConcurrencyMode.UNSYNCHRONIZED;
 
         private Builder() {
         }
@@ -344,6 +559,128 @@ public class ProxyIBeanFactory implements IBeanFactory {
             return this;
         }
 
+        /**
+         * Enables or disables copy-on-write cloning for beans extending
+         * {@link CloneableBean}. If enabled {@link CloneableBean#clone()} does
+         * not copy the field values into the new bean. Instead clone and
+         * origin share their field values until a field is changed on one of
+         * them. This makes cloning an O(1) operation which is especially
+         * useful if clones are mainly read or only a few fields are changed
+         * afterwards. {@link CloneableBean#deepClone()} is not affected by
+         * this setting.
+         * <p>
+         * Copy-on-write cloning is disabled by default.
+         * 
+         * @param enabled
+         *            <code>true</code> to enable copy-on-write cloning
+         * @return the {@code Builder} instance itself to enable chained calls
+         */
+        public Builder withCopyOnWriteCloning(boolean enabled) {
+            this.copyOnWriteCloning = enabled;
+            return this;
+        }
+
+        /**
+         * Enables parallel deep cloning of large collections using the common
+         * {@link ForkJoinPool}. See
+         * {@link #withParallelDeepCloning(ForkJoinPool, int)} for details.
+         * 
+         * @param minCollectionSize
+         *            minimum number of elements a collection needs to have to
+         *            be cloned in parallel; 0 disables parallel cloning
+         * @return the {@code Builder} instance itself to enable chained calls
+         */
+        public Builder withParallelDeepCloning(int minCollectionSize) {
+            return this.withParallelDeepCloning(ForkJoinPool.commonPool(), minCollectionSize);
+        }
+
+        /**
+         * Enables parallel deep cloning of large collections. When
+         * {@link CloneableBean#deepClone()} encounters a collection with at
+         * least <code>minCollectionSize</code> elements the elements are
+         * cloned in parallel tasks in the given pool. This is useful for
+         * collections holding a large number of beans. Parallel deep cloning
+         * is disabled by default.
+         * 
+         * @param pool
+         *            the pool used for running the clone tasks
+         * @param minCollectionSize
+         *            minimum number of elements a collection needs to have to
+         *            be cloned in parallel; 0 disables parallel cloning
+         * @return the {@code Builder} instance itself to enable chained calls
+         */
+        public Builder withParallelDeepCloning(ForkJoinPool pool, int minCollectionSize) {
+            requireNonNull(pool, "pool");
+            checkArgument(minCollectionSize >= 0, "negative minCollectionSize %s",
+                    minCollectionSize);
+            this.parallelDeepClonePool = pool;
+            this.parallelDeepCloneThreshold = minCollectionSize;
+            return this;
+        }
+
+        /**
+         * Enables or disables deep modification tracking for beans extending
+         * {@link ModificationAware}. If enabled a bean keeps track of all
+         * {@link ModificationAware} beans it holds in its fields, either
+         * directly or as elements of a {@link Collection} or values of a
+         * {@link Map}. {@link ModificationAware#isModified()} of the root bean
+         * then tells if anything in the whole bean graph has changed since
+         * the last reset of the root bean. A bean that becomes modified marks
+         * all its ancestors, so this check takes constant time regardless of
+         * the size of the bean graph.
+         * {@link ModificationAware#resetModified()} resets the bean and all its
+         * modified descendants.
+         * <p>
+         * Child beans refer back to their parents only weakly, so a parent
+         * bean can be garbage collected while its children are still in use.
+         * A child shared by several parents marks all of them: if it is
+         * reset via one parent the other parents still report the
+         * modification until they are reset themselves.
+         * <p>
+         * Child beans are linked to their parent when they are passed to a
+         * setter of the parent or when they are first read via a getter of
+         * the parent. Elements added to or removed from a collection
+         * afterwards are not tracked and structural changes of collections do
+         * not count as modification.
+         * <p>
+         * Deep modification tracking is disabled by default.
+         * 
+         * @param enabled
+         *            <code>true</code> to enable deep modification tracking
+         * @return the {@code Builder} instance itself to enable chained calls
+         */
+        public Builder withDeepModificationTracking(boolean enabled) {
+            this.deepModificationTracking = enabled;
+            return this;
+        }
+
+        /**
+         * Determines whether the created beans are supposed to be changed by
+         * several threads concurrently. In mode
+         * {@link ConcurrencyMode#CONCURRENT} default extension handlers that
+         * keep state, like {@link ModificationAwareHandler}, are replaced by
+         * lock-free variants. {@link ConcurrencyMode#ATOMIC} additionally
+         * stores field values in atomic slots. The replacement applies to the default
+         * {@link ExtensionSupport}s only, regardless whether they are
+         * registered via {@link #withDefaultInterfaceSupport()} or
+         * {@link #withInterfaceSupport(ExtensionSupport)}. Custom handlers
+         * need to be thread-safe on their own.
+         * <p>
+         * Neither {@link ConcurrencyMode#CONCURRENT} nor
+         * {@link ConcurrencyMode#ATOMIC} can be combined with
+         * {@link #withDeepModificationTracking(boolean)}. Default is
+         * {@link ConcurrencyMode#UNSYNCHRONIZED}.
+         * 
+         * @param concurrencyMode
+         *            the mode to be used by the factory
+         * @return the {@code Builder} instance itself to enable chained calls
+         */
+        public Builder withConcurrencyMode(ConcurrencyMode concurrencyMode) {
+            requireNonNull(concurrencyMode, "concurrencyMode");
+            this.concurrencyMode = concurrencyMode;
+            return this;
+        }
+
         /**
          * Finally creates the specified {@link ProxyIBeanFactory}. Although it
          * is meant that per builder instance this method is executed only once
@@ -353,12 +690,34 @@ public class ProxyIBeanFactory implements IBeanFactory {
          * might be prohibited in future versions.
          * 
          * @return the newly created factory
+         * @throws IllegalStateException
+         *             if deep modification tracking is enabled together with
+         *             {@link ConcurrencyMode#CONCURRENT} or
+         *             {@link ConcurrencyMode#ATOMIC}
          */
         public ProxyIBeanFactory build() {
+            checkState(
+                    !this.deepModificationTracking
+                            || this.concurrencyMode == ConcurrencyMode.UNSYNCHRONIZED,
+                    "deep modification tracking not supported in concurrency mode %s",
+                    this.concurrencyMode);
             ProxyIBeanFactoryExtensionKit extendedInterfacesKit =
-                    new ProxyIBeanFactoryExtensionKit(this.interfaceSupport);
+                    new ProxyIBeanFactoryExtensionKit(this.interfaceSupportForConcurrencyMode());
             return new ProxyIBeanFactory(this.metaInfoParser, this.toStringStyle, this.beanStyle,
-                    this.beanStyleHandler, extendedInterfacesKit);
+                    this.beanStyleHandler, extendedInterfacesKit, this.copyOnWriteCloning,
+                    this.parallelDeepCloneThreshold, this.parallelDeepClonePool,
+                    this.deepModificationTracking, this.concurrencyMode);
+        }
+
+        private List<ExtensionSupport> interfaceSupportForConcurrencyMode() {
+            if (this.concurrencyMode == ConcurrencyMode.UNSYNCHRONIZED) {
+                return this.interfaceSupport;
+            }
+            final List<ExtensionSupport> supports = new ArrayList<>(this.interfaceSupport.size());
+            for (ExtensionSupport support : this.interfaceSupport) {
+                supports.add(CONCURRENT_INTERFACE_SUPPORTS.getOrDefault(support, support));
+            }
+            return supports;
         }
     }
 
@@ -374,6 +733,7 @@ public class ProxyIBeanFactory implements IBeanFactory {
         IBeanTypeMetaInfo<T> meta =
                 this.metaInfoParser.parse(beanType, this.beanStyle, supportedExtendedInterfaces);
         return new IBeanContext<>(this, meta, this.toStringStyle, this.beanStyle,
-                this.beanStyleHandler);
+                this.beanStyleHandler, this.copyOnWriteCloning, this.parallelDeepCloneThreshold,
+                this.parallelDeepClonePool, this.deepModificationTracking, this.concurrencyMode);
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Objects;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.extension.AtomicFields;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link AtomicFields}. All operations are built on
+ * {@link IBeanFieldAccess#compareAndSetFieldValue(IBeanFieldMetaInfo, Object, Object)}
+ * in a retry loop.
+ *
+ * @author alex@coliper.org
+ */
+public class AtomicFieldsHandler extends StatelessExtensionHandler {
+
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT = new ExtensionSupport(AtomicFields.class,
+            AtomicFieldsHandler.class, false/* stateful */);
+
+    private static final String METHOD_NAME_COMPARE_AND_SET = "compareAndSet";
+    private static final String METHOD_NAME_GET_AND_SET = "getAndSet";
+    private static final String METHOD_NAME_GET_AND_ADD = "getAndAdd";
+    private static final String METHOD_NAME_INCREMENT_AND_GET = "incrementAndGet";
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.proxy.handler.StatelessExtensionHandler#
+     * handleExtendedInterfaceCall(org.coliper.ibean.proxy.IBeanContext,
+     * org.coliper.ibean.proxy.IBeanFieldAccess, java.lang.Object,
+     * java.lang.reflect.Method, java.lang.Object[])
+     */
+    @Override
+    public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance, Method method, Object[] params) throws Throwable {
+        final IBeanFieldMetaInfo fieldMeta = fieldMeta(context, params[0]);
+        switch (method.getName()) {
+        case METHOD_NAME_COMPARE_AND_SET:
+            return Boolean.valueOf(
+                    compareAndSet(bean, proxyInstance, fieldMeta, params[1], params[2]));
+        case METHOD_NAME_GET_AND_SET:
+            return getAndSet(bean, proxyInstance, fieldMeta, params[1]);
+        case METHOD_NAME_GET_AND_ADD:
+            return Long.valueOf(
+                    add(bean, proxyInstance, fieldMeta, ((Long) params[1]).longValue(), false));
+        case METHOD_NAME_INCREMENT_AND_GET:
+            return Long.valueOf(add(bean, proxyInstance, fieldMeta, 1L, true));
+        default:
+            throw new UnsupportedOperationException("unexpected call of " + method);
+        }
+    }
+
+    private static IBeanFieldMetaInfo fieldMeta(IBeanContext<?> context, Object fieldKey) {
+        if (fieldKey instanceof String) {
+            return context.metaInfo().findFieldMetaWithFieldName((String) fieldKey)
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "unknown field name '" + fieldKey + "'"));
+        }
+        final int ordinal = ((Integer) fieldKey).intValue();
+        final List<IBeanFieldMetaInfo> fieldMetas = context.metaInfo().fieldMetaInfos();
+        checkArgument(ordinal >= 0 && ordinal < fieldMetas.size(), "invalid field ordinal %s",
+                ordinal);
+        return fieldMetas.get(ordinal);
+    }
+
+    private static boolean compareAndSet(IBeanFieldAccess bean, Object proxyInstance,
+            IBeanFieldMetaInfo fieldMeta, Object expectedValue, Object newValue) {
+        final boolean primitive = fieldMeta.fieldType().isPrimitive();
+        while (true) {
+            final Object currentValue = bean.getFieldValue(fieldMeta);
+            if (primitive ? !Objects.equals(currentValue, expectedValue)
+                    : currentValue != expectedValue) {
+                return false;
+            }
+            if (trySet(bean, proxyInstance, fieldMeta, currentValue, newValue)) {
+                return true;
+            }
+        }
+    }
+
+    private static Object getAndSet(IBeanFieldAccess bean, Object proxyInstance,
+            IBeanFieldMetaInfo fieldMeta, Object newValue) {
+        while (true) {
+            final Object currentValue = bean.getFieldValue(fieldMeta);
+            if (trySet(bean, proxyInstance, fieldMeta, currentValue, newValue)) {
+                return currentValue;
+            }
+        }
+    }
+
+    private static long add(IBeanFieldAccess bean, Object proxyInstance,
+            IBeanFieldMetaInfo fieldMeta, long delta, boolean returnNewValue) {
+        final Class<?> fieldType = fieldMeta.fieldType();
+        checkArgument(fieldType == int.class || fieldType == long.class,
+                "field %s is neither of type int nor long", fieldMeta.fieldName());
+        while (true) {
+            final Object currentValue = bean.getFieldValue(fieldMeta);
+            final Number newValue;
+            if (fieldType == int.class) {
+                newValue = Integer.valueOf(((Integer) currentValue).intValue() + (int) delta);
+            } else {
+                newValue = Long.valueOf(((Long) currentValue).longValue() + delta);
+            }
+            if (trySet(bean, proxyInstance, fieldMeta, currentValue, newValue)) {
+                return (returnNewValue ? newValue : (Number) currentValue).longValue();
+            }
+        }
+    }
+
+    /*
+     * Tries to replace the current value with the new value, the new value is
+     * passed to all extension handlers first like in a setter call. The
+     * intercept calls are made for every attempt, also for attempts where the
+     * compare-and-set fails. Handlers therefore only check or replace the
+     * value there and change their state not before afterFieldChange(), which
+     * is only called for the successful attempt.
+     */
+    private static boolean trySet(IBeanFieldAccess bean, Object proxyInstance,
+            IBeanFieldMetaInfo fieldMeta, Object currentValue, Object newValue) {
+        final Object valueToSet = bean.interceptFieldChange(fieldMeta, newValue, proxyInstance);
+        if (fieldMeta.fieldType().isPrimitive()) {
+            checkArgument(valueToSet != null, "primitive type cannot be set to null");
+        }
+        if (!bean.compareAndSetFieldValue(fieldMeta, currentValue, valueToSet)) {
+            return false;
+        }
+        bean.afterFieldChange(fieldMeta, valueToSet, proxyInstance);
+        return true;
+    }
+}
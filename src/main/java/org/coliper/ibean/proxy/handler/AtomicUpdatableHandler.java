@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.AtomicUpdatable;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link AtomicUpdatable}.
+ *
+ * @author alex@coliper.org
+ */
+public class AtomicUpdatableHandler extends StatefulExtensionHandler
+        implements AtomicUpdatable<Object> {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT = new ExtensionSupport(AtomicUpdatable.class,
+            AtomicUpdatableHandler.class, true/* stateful */);
+
+    // number of optimistic read attempts before a read lock is taken
+    private static final int MAX_OPTIMISTIC_READS = 8;
+
+    /*
+     * A StampedLock is a sequence lock: an optimistic read stamp is the
+     * sequence number and validate() tells if a write lock has been taken in
+     * the meantime, including the memory fence required for the reads done in
+     * between. "writer" holds the thread currently executing update() to
+     * allow nested calls, as StampedLock is not reentrant. It is only ever
+     * compared to the current thread, so it does not need to be volatile.
+     */
+    private final StampedLock lock = new StampedLock();
+    private Thread writer = null;
+    private Object proxyInstance = null;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo, org.coliper.ibean.IBeanFactory)
+     */
+    @Override
+    public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
+            IBeanFactory factory) {
+        this.proxyInstance = proxyInstance;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.extension.AtomicUpdatable#update(java.util.function.
+     * Consumer)
+     */
+    @Override
+    public Object update(Consumer<? super Object> updater) {
+        requireNonNull(updater, "updater");
+        if (this.writer == Thread.currentThread()) {
+            updater.accept(this.proxyInstance);
+            return this.proxyInstance;
+        }
+        final long stamp = this.lock.writeLock();
+        this.writer = Thread.currentThread();
+        try {
+            updater.accept(this.proxyInstance);
+        } finally {
+            this.writer = null;
+            this.lock.unlockWrite(stamp);
+        }
+        return this.proxyInstance;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.extension.AtomicUpdatable#read(java.util.function.
+     * Function)
+     */
+    @Override
+    public <R> R read(Function<? super Object, ? extends R> reader) {
+        requireNonNull(reader, "reader");
+        if (this.writer == Thread.currentThread()) {
+            return reader.apply(this.proxyInstance);
+        }
+        for (int attempt = 0; attempt < MAX_OPTIMISTIC_READS; attempt++) {
+            final long stamp = this.lock.tryOptimisticRead();
+            if (stamp == 0L) {
+                // update in progress
+                Thread.yield();
+                continue;
+            }
+            final R result;
+            try {
+                result = reader.apply(this.proxyInstance);
+            } catch (RuntimeException e) {
+                // an inconsistent state might have caused the exception
+                if (this.lock.validate(stamp)) {
+                    throw e;
+                }
+                continue;
+            }
+            if (this.lock.validate(stamp)) {
+                return result;
+            }
+        }
+        final long stamp = this.lock.readLock();
+        try {
+            return reader.apply(this.proxyInstance);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+}
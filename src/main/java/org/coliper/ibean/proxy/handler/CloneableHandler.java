@@ -14,12 +14,16 @@
 
 package org.coliper.ibean.proxy.handler;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.UnaryOperator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.coliper.ibean.IBeanFactory;
@@ -32,8 +36,6 @@ import org.coliper.ibean.proxy.IBeanContext;
 import org.coliper.ibean.proxy.IBeanFieldAccess;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
 
-import com.google.common.base.Throwables;
-
 /**
  * {@link ExtensionHandler} implementation for bean extension interface
  * {@link CloneableBean}.
@@ -61,90 +63,202 @@ public class CloneableHandler extends StatelessExtensionHandler {
         }
     }
 
-    // Function that returns a deep clone of a given object.
-    private static final UnaryOperator<Object> CLONE_OPERATOR = new UnaryOperator<Object>() {
+    /*
+     * A CloneSession lives for the duration of one deepClone() call including
+     * all nested deepClone() calls of referenced beans. It maps all objects
+     * cloned so far to their clones by identity. This way each object is
+     * cloned only once, references to the same object in the origin graph
+     * point to the same clone in the cloned graph and cycles do not lead to
+     * endless recursion.
+     * The session is bound to the current thread via CURRENT_SESSION. When
+     * cloning collections in parallel the session is shared between several
+     * threads, therefore the identity map is synchronized in that case.
+     */
+    private static final class CloneSession {
+        private final Map<Object, Object> clones;
+        private final int parallelThreshold;
+        private final ForkJoinPool pool;
 
-        @Override
-        public Object apply(Object obj) {
-            return deepClone(obj);
+        CloneSession(IBeanContext<?> context) {
+            this.parallelThreshold = context.parallelDeepCloneThreshold();
+            this.pool = context.parallelDeepClonePool();
+            if (this.parallelThreshold > 0) {
+                this.clones = Collections.synchronizedMap(new IdentityHashMap<>());
+            } else {
+                this.clones = new IdentityHashMap<>();
+            }
         }
 
-        @SuppressWarnings("unchecked")
-        private <T> T deepClone(T obj) {
-            if (obj == null) {
-                return null;
-            }
-            if (obj instanceof Collection) {
-                return (T) this.cloneCollection((Collection<?>) obj);
-            }
-            if (obj instanceof Cloneable) {
-                return ObjectUtils.clone(obj);
-            }
-            if (obj instanceof CloneableBean) {
-                return (T) ((CloneableBean<?>) obj).deepClone();
-            }
-            return obj;
+        Object cloneOf(Object original) {
+            return this.clones.get(original);
         }
 
-        private <T> Object cloneCollection(Collection<T> col) {
-            if (!(col instanceof Cloneable)) {
-                return col;
-            }
-            Collection<T> clone = (Collection<T>) ObjectUtils.clone(col);
-            try {
-                clone.clear();
-            } catch (UnsupportedOperationException e) {
-                // seems that the clone does not like modifications, let's
-                // return the bare clone
-                return clone;
+        // Returns the given clone or - if another thread was faster - the
+        // clone that has been registered concurrently.
+        Object register(Object original, Object clone) {
+            Object existingClone = this.clones.putIfAbsent(original, clone);
+            return existingClone == null ? clone : existingClone;
+        }
+
+        boolean cloneInParallel(int noOfElements) {
+            return this.parallelThreshold > 0 && noOfElements >= this.parallelThreshold;
+        }
+    }
+
+    private static final ThreadLocal<CloneSession> CURRENT_SESSION = new ThreadLocal<>();
+
+    /*
+     * Clones a range of collection elements in a ForkJoinPool. Each task binds
+     * the shared CloneSession to the worker thread it is running on.
+     */
+    private static final class ParallelCloneTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] source;
+        private final Object[] target;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final CloneSession session;
+
+        ParallelCloneTask(Object[] source, Object[] target, int from, int to, int chunkSize,
+                CloneSession session) {
+            this.source = source;
+            this.target = target;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.session = session;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.chunkSize) {
+                this.cloneRange();
+            } else {
+                final int middle = (this.from + this.to) >>> 1;
+                invokeAll(
+                        new ParallelCloneTask(this.source, this.target, this.from, middle,
+                                this.chunkSize, this.session),
+                        new ParallelCloneTask(this.source, this.target, middle, this.to,
+                                this.chunkSize, this.session));
             }
+        }
+
+        private void cloneRange() {
+            final CloneSession previousSession = CURRENT_SESSION.get();
+            CURRENT_SESSION.set(this.session);
             try {
-                for (T originalElement : col) {
-                    clone.add(this.deepClone(originalElement));
+                for (int i = this.from; i < this.to; i++) {
+                    this.target[i] = deepCloneValue(this.source[i], this.session);
+                }
+            } finally {
+                if (previousSession == null) {
+                    CURRENT_SESSION.remove();
+                } else {
+                    CURRENT_SESSION.set(previousSession);
                 }
-            } catch (UnsupportedOperationException e) {
-                // Weired! Clear was supported but add is not. Let's return a
-                // fresh copy.
-                return (Collection<T>) ObjectUtils.clone(col);
             }
-            return clone;
         }
-    };
+    }
 
-    private static void copyFields(IBeanTypeMetaInfo<?> meta, Object sourceBean, Object targetBean,
-            UnaryOperator<Object> fieldOperator) {
-        List<IBeanFieldMetaInfo> f = meta.fieldMetaInfos();
-        for (IBeanFieldMetaInfo fieldMeta : f) {
-            copyField(fieldMeta, sourceBean, targetBean, fieldOperator);
+    // Returns a deep clone of a given field value or collection element.
+    private static Object deepCloneValue(Object obj, CloneSession session) {
+        if (obj == null) {
+            return null;
+        }
+        final Object existingClone = session.cloneOf(obj);
+        if (existingClone != null) {
+            return existingClone;
+        }
+        // CloneableBean needs to be checked before Cloneable as it extends
+        // Cloneable
+        if (obj instanceof CloneableBean) {
+            return ((CloneableBean<?>) obj).deepClone();
+        }
+        if (obj instanceof Collection) {
+            return cloneCollection((Collection<?>) obj, session);
+        }
+        if (obj instanceof Cloneable) {
+            return session.register(obj, ObjectUtils.clone(obj));
         }
+        return obj;
     }
 
-    private static void copyField(IBeanFieldMetaInfo fieldMeta, Object sourceBean,
-            Object targetBean, UnaryOperator<Object> fieldOperator) {
+    @SuppressWarnings("unchecked")
+    private static <T> Object cloneCollection(Collection<T> col, CloneSession session) {
+        if (!(col instanceof Cloneable)) {
+            return col;
+        }
+        Collection<T> clone = (Collection<T>) ObjectUtils.clone(col);
         try {
-            copyFieldThrowing(fieldMeta, sourceBean, targetBean, fieldOperator);
-        } catch (IllegalAccessException | IllegalArgumentException e) {
-            throw new RuntimeException(e);
-        } catch (InvocationTargetException e) {
-            Throwables.throwIfUnchecked(e.getTargetException());
-            throw new RuntimeException(e.getTargetException());
+            clone.clear();
+        } catch (UnsupportedOperationException e) {
+            // seems that the clone does not like modifications, let's
+            // return the bare clone
+            return session.register(col, clone);
+        }
+        final Object registeredClone = session.register(col, clone);
+        if (registeredClone != clone) {
+            // collection is already being cloned by another thread
+            return registeredClone;
+        }
+        final Object[] elements = col.toArray();
+        final Object[] clonedElements = new Object[elements.length];
+        if (session.cloneInParallel(elements.length)) {
+            final int chunkSize = Math.max(1,
+                    elements.length / (session.pool.getParallelism() * 4));
+            session.pool.invoke(new ParallelCloneTask(elements, clonedElements, 0,
+                    elements.length, chunkSize, session));
+        } else {
+            for (int i = 0; i < elements.length; i++) {
+                clonedElements[i] = deepCloneValue(elements[i], session);
+            }
+        }
+        try {
+            for (Object element : clonedElements) {
+                clone.add((T) element);
+            }
+        } catch (UnsupportedOperationException e) {
+            // Weired! Clear was supported but add is not. Let's return a
+            // fresh copy.
+            return ObjectUtils.clone(col);
         }
+        return clone;
+    }
+
+    // Per bean type the ordinals of all fields that might hold a value that is
+    // changed by deepCloneValue(). All other fields do not need to be touched
+    // after the bulk copy of the field values.
+    private static final Map<IBeanTypeMetaInfo<?>, int[]> DEEP_CLONE_ORDINALS_CACHE =
+            new ConcurrentHashMap<>();
+
+    private static int[] deepCloneOrdinals(IBeanTypeMetaInfo<?> meta) {
+        return DEEP_CLONE_ORDINALS_CACHE.computeIfAbsent(meta,
+                CloneableHandler::calculateDeepCloneOrdinals);
+    }
+
+    private static int[] calculateDeepCloneOrdinals(IBeanTypeMetaInfo<?> meta) {
+        return meta.fieldMetaInfos().stream()
+                .filter(fieldMeta -> fieldTypeMayNeedDeepClone(fieldMeta.fieldType()))
+                .mapToInt(IBeanFieldMetaInfo::ordinal).toArray();
     }
 
-    // param fieldOperator is used for manipulating field value
-    private static void copyFieldThrowing(IBeanFieldMetaInfo fieldMeta, Object sourceBean,
-            Object targetBean, UnaryOperator<Object> fieldOperator)
-            throws IllegalAccessException, InvocationTargetException {
-        Object val = fieldMeta.getterMethod().invoke(sourceBean);
-        // if value is wrapped into an Optional, unwrap first
-        if (val instanceof Optional && fieldMeta.fieldType() != Optional.class) {
-            final Optional<?> opt = (Optional<?>) val;
-            val = opt.orElse(null);
+    /*
+     * Values of final types like String, Integer or Optional can never be
+     * altered by deepCloneValue() as long as the type is neither Cloneable, a
+     * Collection or a CloneableBean. The same applies to enums and primitives.
+     */
+    private static boolean fieldTypeMayNeedDeepClone(Class<?> fieldType) {
+        if (fieldType.isPrimitive() || fieldType.isEnum()) {
+            return false;
         }
-        if (val != null && fieldOperator != null) {
-            val = fieldOperator.apply(val);
+        if (!Modifier.isFinal(fieldType.getModifiers())) {
+            return true;
         }
-        fieldMeta.setterMethod().invoke(targetBean, val);
+        return Cloneable.class.isAssignableFrom(fieldType)
+                || Collection.class.isAssignableFrom(fieldType)
+                || CloneableBean.class.isAssignableFrom(fieldType);
     }
 
     /*
@@ -159,30 +273,63 @@ public class CloneableHandler extends StatelessExtensionHandler {
     public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
             Object proxyInstance, Method method, Object[] params) throws Throwable {
         if (CLONE_METHOD.equals(method)) {
-            return this.handleCloneCall(context, proxyInstance);
+            return this.handleCloneCall(context, bean);
         }
         if (DEEP_CLONE_METHOD.equals(method)) {
-            return this.handleDeepCloneCall(context, proxyInstance);
+            return this.handleDeepCloneCall(context, bean, proxyInstance);
         }
         throw new UnsupportedOperationException("unexpected call of " + method);
     }
 
-    @SuppressWarnings("unchecked")
-    private Object handleCloneCall(IBeanContext<?> context, Object proxyInstance) throws Throwable {
+    private Object handleCloneCall(IBeanContext<?> context, IBeanFieldAccess bean)
+            throws Throwable {
+        if (context.copyOnWriteCloning()) {
+            // shares the value array without filling a new one with defaults
+            return context.createWithSameFieldValues(bean);
+        }
         final Object clone = context.beanFactory().create(context.metaInfo().beanType());
-        UnaryOperator<Object> fieldOperator = null; // no manipulation of copied
-                                                    // field
-        copyFields((IBeanTypeMetaInfo<Object>) context.metaInfo(), proxyInstance, clone,
-                fieldOperator);
+        bean.copyFieldValuesTo(context.fieldAccessOf(clone));
         return clone;
     }
 
-    @SuppressWarnings("unchecked")
-    private Object handleDeepCloneCall(IBeanContext<?> context, Object proxyInstance)
-            throws Throwable {
+    private Object handleDeepCloneCall(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance) throws Throwable {
+        CloneSession session = CURRENT_SESSION.get();
+        if (session != null) {
+            // nested call within a running deep clone
+            return this.deepCloneBean(context, bean, proxyInstance, session);
+        }
+        session = new CloneSession(context);
+        CURRENT_SESSION.set(session);
+        try {
+            return this.deepCloneBean(context, bean, proxyInstance, session);
+        } finally {
+            CURRENT_SESSION.remove();
+        }
+    }
+
+    private Object deepCloneBean(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance, CloneSession session) {
+        final Object existingClone = session.cloneOf(proxyInstance);
+        if (existingClone != null) {
+            return existingClone;
+        }
         final Object clone = context.beanFactory().create(context.metaInfo().beanType());
-        copyFields((IBeanTypeMetaInfo<Object>) context.metaInfo(), proxyInstance, clone,
-                CLONE_OPERATOR);
+        // register clone before cloning the field values to cover cycles
+        final Object registeredClone = session.register(proxyInstance, clone);
+        if (registeredClone != clone) {
+            return registeredClone;
+        }
+        final IBeanFieldAccess cloneAccess = context.fieldAccessOf(clone);
+        bean.copyFieldValuesTo(cloneAccess);
+        final List<IBeanFieldMetaInfo> fieldMetas = context.metaInfo().fieldMetaInfos();
+        for (int ordinal : deepCloneOrdinals(context.metaInfo())) {
+            final IBeanFieldMetaInfo fieldMeta = fieldMetas.get(ordinal);
+            final Object value = cloneAccess.getFieldValue(fieldMeta);
+            if (value != null) {
+                cloneAccess.setFieldValue(fieldMeta, deepCloneValue(value, session));
+            }
+        }
         return clone;
     }
 }
@@ -15,10 +15,8 @@
 package org.coliper.ibean.proxy.handler;
 
 import java.lang.reflect.Method;
-import java.util.Optional;
 
 import org.coliper.ibean.IBeanFactory;
-import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.extension.BeanIncompleteException;
 import org.coliper.ibean.extension.Completable;
 import org.coliper.ibean.proxy.ExtensionHandler;
@@ -88,20 +86,6 @@ public class CompletableHandler extends StatelessExtensionHandler {
     }
 
     private boolean isBeanComplete(IBeanContext<?> context, IBeanFieldAccess bean) {
-        for (IBeanFieldMetaInfo fieldMeta : context.metaInfo().fieldMetaInfos()) {
-            if (fieldMeta.fieldType().isPrimitive()) {
-                continue; // ignore primitive type fields
-            }
-            if (fieldMeta.getterMethod().getReturnType() == Optional.class
-                    && fieldMeta.fieldType() != Optional.class) {
-                continue; // we do not care if value is null when Optional is
-                          // returned from getter but field type itself is not
-                          // optional
-            }
-            if (bean.getFieldValue(fieldMeta) == null) {
-                return false;
-            }
-        }
-        return true;
+        return bean.missingRequiredFieldCount() == 0;
     }
 }
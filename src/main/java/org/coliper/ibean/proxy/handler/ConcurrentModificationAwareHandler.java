@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjIntConsumer;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.coliper.ibean.proxy.ConcurrencyMode;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * Lock-free {@link ExtensionHandler} implementation for bean extension
+ * interfaces {@link ModificationAware} and {@link ModificationAwareExt} that
+ * can be used for beans that are changed by several threads concurrently.
+ * Used instead of {@link ModificationAwareHandler} if the factory is built
+ * with {@link ConcurrencyMode#CONCURRENT}.
+ * <p>
+ * Methods returning the modified fields as a whole, like
+ * {@link #getModifiedFieldNames()}, work on a snapshot of the modification
+ * bits. {@link #forEachModifiedField(java.util.function.ObjIntConsumer)} and
+ * {@link #getModifiedFieldCount()} keep their promise of not allocating any
+ * objects and read the bits word by word instead, so fields modified
+ * concurrently may or may not be taken into account.
+ * <p>
+ * Deep modification tracking is not supported by this handler.
+ * 
+ * @author alex@coliper.org
+ */
+public class ConcurrentModificationAwareHandler extends StatefulExtensionHandler
+        implements ModificationAwareExt {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT = new ExtensionSupport(ModificationAwareExt.class,
+            ConcurrentModificationAwareHandler.class, true/* stateful */);
+
+    /*
+     * One bit per field, also used for beans that are only ModificationAware.
+     * A bean counts as modified if any bit is set, so there is no separate
+     * flag that could get out of sync with the bits. Bits are set with atomic
+     * read-modify-write operations, so no change gets lost if several threads
+     * modify different fields at the same time.
+     */
+    private AtomicLongArray fieldModifiedBits = null;
+    private long lastWordMask = 0L;
+    private boolean extendedInterface = false;
+    private IBeanTypeMetaInfo<?> beanMetaInfo = null;
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo, org.coliper.ibean.IBeanFactory)
+     */
+    @Override
+    public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
+            IBeanFactory unused) {
+        this.beanMetaInfo = metaInfo;
+        this.extendedInterface = ModificationAwareExt.class.isAssignableFrom(metaInfo.beanType());
+        final int noOfFields = metaInfo.noOfFields();
+        this.fieldModifiedBits =
+                new AtomicLongArray(ModificationAwareHandler.wordCount(noOfFields));
+        final int bitsInLastWord = noOfFields % Long.SIZE;
+        this.lastWordMask = bitsInLastWord == 0 ? -1L : (1L << bitsInLastWord) - 1;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.resetModified();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.extension.ModificationAware#isModified()
+     */
+    @Override
+    public boolean isModified() {
+        for (int i = 0; i < this.fieldModifiedBits.length(); i++) {
+            if (this.fieldModifiedBits.get(i) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.extension.ModificationAware#resetModified()
+     */
+    @Override
+    public void resetModified() {
+        for (int i = 0; i < this.fieldModifiedBits.length(); i++) {
+            this.fieldModifiedBits.set(i, 0L);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        // not done when intercepting as a compare-and-set might still fail
+        final int ordinal = fieldMeta.ordinal();
+        final int wordIndex = ordinal / Long.SIZE;
+        final long mask = 1L << ordinal;
+        // plain read first to avoid contended writes if the bit is already set
+        if ((this.fieldModifiedBits.get(wordIndex) & mask) == 0L) {
+            this.fieldModifiedBits.accumulateAndGet(wordIndex, mask, (a, b) -> a | b);
+        }
+    }
+
+    private void checkExtendedInterface() {
+        checkState(this.extendedInterface, "unexpected method call of extended interface");
+    }
+
+    private long[] snapshotBits() {
+        final long[] bits = new long[this.fieldModifiedBits.length()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = this.fieldModifiedBits.get(i);
+        }
+        return bits;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.extension.ModificationAwareExt#getModifiedFieldNames()
+     */
+    @Override
+    public String[] getModifiedFieldNames() {
+        checkExtendedInterface();
+        final long[] bits = this.snapshotBits();
+        final int count = ModificationAwareHandler.bitCount(bits);
+        if (count == 0) {
+            return ArrayUtils.EMPTY_STRING_ARRAY;
+        }
+        final List<IBeanFieldMetaInfo> fieldMetas = this.beanMetaInfo.fieldMetaInfos();
+        final String[] names = new String[count];
+        int index = 0;
+        for (int ordinal = ModificationAwareHandler.nextModifiedOrdinal(bits, 0); ordinal >= 0;
+                ordinal = ModificationAwareHandler.nextModifiedOrdinal(bits, ordinal + 1)) {
+            names[index++] = fieldMetas.get(ordinal).fieldName();
+        }
+        return names;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.extension.ModificationAwareExt#allFieldsModified()
+     */
+    @Override
+    public boolean allFieldsModified() {
+        checkExtendedInterface();
+        final int lastIndex = this.fieldModifiedBits.length() - 1;
+        for (int i = 0; i < lastIndex; i++) {
+            if (this.fieldModifiedBits.get(i) != -1L) {
+                return false;
+            }
+        }
+        return lastIndex < 0 || this.fieldModifiedBits.get(lastIndex) == this.lastWordMask;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.extension.ModificationAwareExt#getModifiedFieldCount()
+     */
+    @Override
+    public int getModifiedFieldCount() {
+        checkExtendedInterface();
+        int count = 0;
+        for (int i = 0; i < this.fieldModifiedBits.length(); i++) {
+            count += Long.bitCount(this.fieldModifiedBits.get(i));
+        }
+        return count;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.extension.ModificationAwareExt#forEachModifiedField(
+     * java.util.function.ObjIntConsumer)
+     */
+    @Override
+    public void forEachModifiedField(ObjIntConsumer<String> visitor) {
+        requireNonNull(visitor, "visitor");
+        checkExtendedInterface();
+        final List<IBeanFieldMetaInfo> fieldMetas = this.beanMetaInfo.fieldMetaInfos();
+        // every word is read only once, no snapshot of all words is taken
+        for (int wordIndex = 0; wordIndex < this.fieldModifiedBits.length(); wordIndex++) {
+            long word = this.fieldModifiedBits.get(wordIndex);
+            while (word != 0L) {
+                final int ordinal = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+                visitor.accept(fieldMetas.get(ordinal).fieldName(), ordinal);
+                word &= word - 1; // clear lowest set bit
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.extension.ModificationAwareExt#getModifiedFieldBits(long[])
+     */
+    @Override
+    public long[] getModifiedFieldBits(long[] target) {
+        checkExtendedInterface();
+        final long[] bits = this.snapshotBits();
+        if (target == null) {
+            return bits;
+        }
+        checkArgument(target.length >= bits.length, "target array too small, needs %s elements",
+                bits.length);
+        System.arraycopy(bits, 0, target, 0, bits.length);
+        Arrays.fill(target, bits.length, target.length, 0L);
+        return target;
+    }
+}
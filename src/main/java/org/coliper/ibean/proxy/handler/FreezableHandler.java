@@ -16,6 +16,20 @@ package org.coliper.ibean.proxy.handler;
 
 import static java.util.Objects.requireNonNull;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
 import org.coliper.ibean.IBeanFactory;
 import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.IBeanTypeMetaInfo;
@@ -25,8 +39,15 @@ import org.coliper.ibean.extension.TempFreezable;
 import org.coliper.ibean.proxy.ExtensionHandler;
 import org.coliper.ibean.proxy.ExtensionSupport;
 import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+
 /**
  * {@link ExtensionHandler} implementation for bean extension interface
  * {@link Freezable} and {@link TempFreezable}.
@@ -42,14 +63,59 @@ public class FreezableHandler extends StatefulExtensionHandler implements TempFr
     public static final ExtensionSupport SUPPORT = new ExtensionSupport(TempFreezable.class,
             FreezableHandler.class, true/* stateful */);
 
-    private boolean frozen = false;
+    /*
+     * "frozen" is volatile so that freeze() serves as publication point for the
+     * field values: a thread reading the flag as set also sees all values set
+     * before. The field values themselves are read without any barrier.
+     */
+    private volatile boolean frozen = false;
     private Object proxyInstance = null;
+    private IBeanTypeMetaInfo<?> metaInfo = null;
+    private IBeanFieldAccess bean = null;
+
+    /*
+     * Maps all objects already visited during a running deepFreeze() call of
+     * the current thread to their frozen counterpart. Beans are mapped to
+     * themselves, collections to their immutable copy. Used to detect cycles
+     * and to keep shared instances shared.
+     */
+    private static final ThreadLocal<Map<Object, Object>> DEEP_FREEZE_STATE =
+            new ThreadLocal<>();
 
     @Override
     public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
             IBeanFactory unused) {
         requireNonNull(proxyInstance, "proxyInstance");
         this.proxyInstance = proxyInstance;
+        this.metaInfo = metaInfo;
+    }
+
+    /**
+     * Forwards the call to the handler itself like the super class does and
+     * keeps the field access of the bean for {@link Freezable#deepFreeze()}.
+     * 
+     * @see StatefulExtensionHandler#handleExtendedInterfaceCall(IBeanContext,
+     *      IBeanFieldAccess, Object, Method, Object[])
+     */
+    @Override
+    public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance, Method method, Object[] params) throws Throwable {
+        if (this.bean == null) {
+            this.bean = bean;
+        }
+        return super.handleExtendedInterfaceCall(context, bean, proxyInstance, method, params);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.frozen = false;
     }
 
     /*
@@ -100,4 +166,138 @@ public class FreezableHandler extends StatefulExtensionHandler implements TempFr
         return this.proxyInstance;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.extension.Freezable#deepFreeze()
+     */
+    @Override
+    public Object deepFreeze() {
+        final Map<Object, Object> outerState = DEEP_FREEZE_STATE.get();
+        final Map<Object, Object> frozenValues =
+                outerState != null ? outerState : new IdentityHashMap<>();
+        if (outerState == null) {
+            DEEP_FREEZE_STATE.set(frozenValues);
+        }
+        try {
+            frozenValues.put(this.proxyInstance, this.proxyInstance);
+            for (IBeanFieldMetaInfo fieldMeta : this.metaInfo.fieldMetaInfos()) {
+                final Object value = this.bean.getFieldValue(fieldMeta);
+                final Object frozenValue = freezeValue(value, frozenValues);
+                if (frozenValue != value && fieldMeta.fieldType().isInstance(frozenValue)) {
+                    this.bean.setFieldValue(fieldMeta, frozenValue);
+                }
+            }
+            this.frozen = true;
+        } finally {
+            if (outerState == null) {
+                DEEP_FREEZE_STATE.remove();
+            }
+        }
+        return this.proxyInstance;
+    }
+
+    private static Object freezeValue(Object value, Map<Object, Object> frozenValues) {
+        if (value == null) {
+            return null;
+        }
+        Object frozenValue = frozenValues.get(value);
+        if (frozenValue != null) {
+            return frozenValue;
+        }
+        if (value instanceof Freezable) {
+            frozenValue = ((Freezable<?>) value).deepFreeze();
+        } else if (value instanceof List) {
+            frozenValue = freezeList((List<?>) value, frozenValues);
+        } else if (value instanceof SortedSet) {
+            frozenValue = freezeSortedSet((SortedSet<?>) value, frozenValues);
+        } else if (value instanceof Set) {
+            frozenValue = freezeSet((Set<?>) value, frozenValues);
+        } else if (value instanceof SortedMap) {
+            frozenValue = freezeSortedMap((SortedMap<?, ?>) value, frozenValues);
+        } else if (value instanceof Map) {
+            frozenValue = freezeMap((Map<?, ?>) value, frozenValues);
+        } else {
+            return value;
+        }
+        frozenValues.put(value, frozenValue);
+        return frozenValue;
+    }
+
+    private static Object[] freezeElements(Iterable<?> elements, int size,
+            Map<Object, Object> frozenValues) {
+        final Object[] frozenElements = new Object[size];
+        int index = 0;
+        for (Object element : elements) {
+            frozenElements[index++] = freezeValue(element, frozenValues);
+        }
+        return frozenElements;
+    }
+
+    private static boolean containsNull(Object[] elements) {
+        for (Object element : elements) {
+            if (element == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<?> freezeList(List<?> list, Map<Object, Object> frozenValues) {
+        final Object[] elements = freezeElements(list, list.size(), frozenValues);
+        if (containsNull(elements)) {
+            // Guava immutable collections do not support null elements
+            return Collections.unmodifiableList(Arrays.asList(elements));
+        }
+        return ImmutableList.copyOf(elements);
+    }
+
+    private static Set<?> freezeSet(Set<?> set, Map<Object, Object> frozenValues) {
+        final Object[] elements = freezeElements(set, set.size(), frozenValues);
+        if (containsNull(elements)) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(elements)));
+        }
+        return ImmutableSet.copyOf(elements);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static SortedSet<?> freezeSortedSet(SortedSet<?> set,
+            Map<Object, Object> frozenValues) {
+        final SortedSet frozenSet = new TreeSet(set.comparator());
+        for (Object element : set) {
+            frozenSet.add(freezeValue(element, frozenValues));
+        }
+        return ImmutableSortedSet.copyOfSorted(frozenSet);
+    }
+
+    private static Map<?, ?> freezeMap(Map<?, ?> map, Map<Object, Object> frozenValues) {
+        final Map<Object, Object> frozenMap = new LinkedHashMap<>(map.size() * 2);
+        boolean containsNull = false;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            final Object key = freezeValue(entry.getKey(), frozenValues);
+            final Object value = freezeValue(entry.getValue(), frozenValues);
+            containsNull |= key == null || value == null;
+            frozenMap.put(key, value);
+        }
+        if (containsNull) {
+            return Collections.unmodifiableMap(frozenMap);
+        }
+        return ImmutableMap.copyOf(frozenMap);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static SortedMap<?, ?> freezeSortedMap(SortedMap<?, ?> map,
+            Map<Object, Object> frozenValues) {
+        final SortedMap frozenMap = new TreeMap(map.comparator());
+        boolean containsNull = false;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            final Object value = freezeValue(entry.getValue(), frozenValues);
+            containsNull |= value == null;
+            frozenMap.put(freezeValue(entry.getKey(), frozenValues), value);
+        }
+        if (containsNull) {
+            return Collections.unmodifiableSortedMap(frozenMap);
+        }
+        return ImmutableSortedMap.copyOfSorted(frozenMap);
+    }
 }
@@ -24,6 +24,7 @@ import org.apache.commons.lang3.ClassUtils;
 import org.coliper.ibean.IBeanFactory;
 import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.extension.GsonSupport;
+import org.coliper.ibean.extension.JsonSerializationMode;
 import org.coliper.ibean.proxy.ExtensionHandler;
 import org.coliper.ibean.proxy.ExtensionSupport;
 import org.coliper.ibean.proxy.IBeanContext;
@@ -62,6 +63,18 @@ public class GsonSupportHandler extends StatelessExtensionHandler {
             ReflectionUtil.lookupInterfaceMethod(GsonSupport.class, (GsonSupport s) -> {
                 s.writeToJsonObject(null, null);
             });
+    private static final Method JSON_WRITE_WITH_MODE_METHOD =
+            ReflectionUtil.lookupInterfaceMethod(GsonSupport.class, (GsonSupport s) -> {
+                s.writeToJsonObject(null, null, null);
+            });
+
+    /*
+     * Gson serializes nested beans through the JsonSerializationContext which
+     * does not allow to pass on the serialization mode. If a nested bean
+     * needs to be written completely the mode is overridden for the nested
+     * calls via this thread local.
+     */
+    private static final ThreadLocal<JsonSerializationMode> MODE_OVERRIDE = new ThreadLocal<>();
 
     /*
      * (non-Javadoc)
@@ -78,7 +91,12 @@ public class GsonSupportHandler extends StatelessExtensionHandler {
             Objects.requireNonNull(params, "params");
             Preconditions.checkArgument(params.length == 2);
             this.writeToJsonObject((JsonObject) params[0], (JsonSerializationContext) params[1],
-                    context, bean);
+                    JsonSerializationMode.ALL_FIELDS, proxyInstance, context, bean);
+        } else if (JSON_WRITE_WITH_MODE_METHOD.equals(method)) {
+            Objects.requireNonNull(params, "params");
+            Preconditions.checkArgument(params.length == 3);
+            this.writeToJsonObject((JsonObject) params[0], (JsonSerializationContext) params[1],
+                    (JsonSerializationMode) params[2], proxyInstance, context, bean);
         } else if (JSON_READ_METHOD.equals(method)) {
             Objects.requireNonNull(params, "params");
             Preconditions.checkArgument(params.length == 2);
@@ -147,22 +165,46 @@ public class GsonSupportHandler extends StatelessExtensionHandler {
     }
 
     private void writeToJsonObject(JsonObject jsonObject, JsonSerializationContext jsonContext,
-            IBeanContext<?> context, IBeanFieldAccess bean) {
+            JsonSerializationMode mode, Object proxyInstance, IBeanContext<?> context,
+            IBeanFieldAccess bean) {
+        Objects.requireNonNull(mode, "mode");
+        final JsonSerializationMode modeOverride = MODE_OVERRIDE.get();
+        final JsonFieldFilter filter = JsonFieldFilter
+                .of(modeOverride != null ? modeOverride : mode, proxyInstance);
         for (IBeanFieldMetaInfo meta : context.metaInfo().fieldMetaInfos()) {
             final String fieldName = meta.fieldName();
             final Object value = bean.getFieldValue(meta);
+            if (!filter.includeField(meta, value)) {
+                continue;
+            }
             if (value == null) {
                 jsonObject.add(fieldName, null);
             } else if (ClassUtils.isPrimitiveOrWrapper(value.getClass())) {
                 this.writePrimitiveElement(jsonObject, fieldName, value);
             } else if (value instanceof String) {
                 jsonObject.addProperty(fieldName, (String) value);
+            } else if (filter.writeValueCompletely(meta)) {
+                jsonObject.add(fieldName, this.serializeCompletely(value, jsonContext));
             } else {
                 jsonObject.add(fieldName, jsonContext.serialize(value));
             }
         }
     }
 
+    private JsonElement serializeCompletely(Object value, JsonSerializationContext jsonContext) {
+        final JsonSerializationMode previousOverride = MODE_OVERRIDE.get();
+        MODE_OVERRIDE.set(JsonSerializationMode.ALL_FIELDS);
+        try {
+            return jsonContext.serialize(value);
+        } finally {
+            if (previousOverride == null) {
+                MODE_OVERRIDE.remove();
+            } else {
+                MODE_OVERRIDE.set(previousOverride);
+            }
+        }
+    }
+
     private void writePrimitiveElement(JsonObject jsonObject, String fieldName, Object value) {
         if (value instanceof Number) {
             jsonObject.addProperty(fieldName, (Number) value);
@@ -21,7 +21,9 @@ import java.util.Objects;
 import org.apache.commons.lang3.ClassUtils;
 import org.coliper.ibean.IBeanFactory;
 import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.extension.Jackson2ModuleForIBeans;
 import org.coliper.ibean.extension.Jackson2Support;
+import org.coliper.ibean.extension.JsonSerializationMode;
 import org.coliper.ibean.proxy.ExtensionHandler;
 import org.coliper.ibean.proxy.ExtensionSupport;
 import org.coliper.ibean.proxy.IBeanContext;
@@ -92,8 +94,8 @@ public class Jackson2SupportHandler extends StatelessExtensionHandler {
         } else if (SERIALIZE_METHOD.equals(method)) {
             Objects.requireNonNull(params, "params");
             Preconditions.checkArgument(params.length == 2);
-            this.serialize((JsonGenerator) params[0], (SerializerProvider) params[1], context,
-                    bean);
+            this.serialize((JsonGenerator) params[0], (SerializerProvider) params[1],
+                    proxyInstance, context, bean);
         } else if (SERIALIZE_WITH_TYPE_METHOD.equals(method)) {
             Objects.requireNonNull(params, "params");
             Preconditions.checkArgument(params.length == 3);
@@ -176,24 +178,53 @@ public class Jackson2SupportHandler extends StatelessExtensionHandler {
             TypeSerializer typeSer, Object proxyInstance, IBeanContext<?> context,
             IBeanFieldAccess bean) throws IOException {
         typeSer.writeTypePrefixForObject(proxyInstance, gen, context.metaInfo().beanType());
-        this.serialize(gen, serializers, context, bean);
+        this.serialize(gen, serializers, proxyInstance, context, bean);
         typeSer.writeTypeSuffixForObject(proxyInstance, gen);
     }
 
     private void serialize(JsonGenerator gen, SerializerProvider serializers,
-            IBeanContext<?> context, IBeanFieldAccess bean) throws IOException {
+            Object proxyInstance, IBeanContext<?> context, IBeanFieldAccess bean)
+            throws IOException {
         gen.writeStartObject();
-        serializeFields(gen, serializers, context, bean);
+        serializeFields(gen, serializers, proxyInstance, context, bean);
         gen.writeEndObject();
     }
 
     private void serializeFields(JsonGenerator gen, SerializerProvider serializers,
-            IBeanContext<?> context, IBeanFieldAccess bean) throws IOException {
+            Object proxyInstance, IBeanContext<?> context, IBeanFieldAccess bean)
+            throws IOException {
+        final JsonFieldFilter filter =
+                JsonFieldFilter.of(serializationMode(serializers), proxyInstance);
         for (IBeanFieldMetaInfo meta : context.metaInfo().fieldMetaInfos()) {
+            final Object value = bean.getFieldValue(meta);
+            if (!filter.includeField(meta, value)) {
+                continue;
+            }
             final String fieldName = meta.fieldName();
             gen.writeFieldName(fieldName);
-            final Object value = bean.getFieldValue(meta);
+            if (value != null && filter.writeValueCompletely(meta)) {
+                this.serializeValueCompletely(value, gen, serializers);
+            } else {
+                serializers.defaultSerializeValue(value, gen);
+            }
+        }
+    }
+
+    private static JsonSerializationMode serializationMode(SerializerProvider serializers) {
+        final Object mode =
+                serializers.getAttribute(Jackson2ModuleForIBeans.SERIALIZATION_MODE_ATTRIBUTE);
+        return mode == null ? JsonSerializationMode.ALL_FIELDS : (JsonSerializationMode) mode;
+    }
+
+    private void serializeValueCompletely(Object value, JsonGenerator gen,
+            SerializerProvider serializers) throws IOException {
+        final Object key = Jackson2ModuleForIBeans.SERIALIZATION_MODE_ATTRIBUTE;
+        final Object previousMode = serializers.getAttribute(key);
+        serializers.setAttribute(key, JsonSerializationMode.ALL_FIELDS);
+        try {
             serializers.defaultSerializeValue(value, gen);
+        } finally {
+            serializers.setAttribute(key, previousMode);
         }
     }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.BeanDelta;
+import org.coliper.ibean.extension.Journaled;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link Journaled}.
+ *
+ * @author alex@coliper.org
+ */
+public class JournaledHandler extends StatefulExtensionHandler implements Journaled {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT =
+            new ExtensionSupport(Journaled.class, JournaledHandler.class, true/* stateful */);
+
+    /*
+     * The journal is stored in three parallel arrays "ordinals", "oldValues"
+     * and "newValues" of which the first "size" elements are used. As each
+     * field has at most one entry the arrays never need to grow beyond the
+     * number of fields. "entryIndex" maps a field ordinal to its entry index
+     * or to -1 if there is no entry for the field. All arrays are created with
+     * the first change.
+     * Entries are only added once a change has been stored, as a handler later
+     * in the chain might still reject or replace the value. The value before
+     * the change is kept in "pendingOldValues" per field ordinal until then.
+     */
+    private IBeanTypeMetaInfo<?> beanMetaInfo = null;
+    private IBeanFieldAccess bean = null;
+    private int[] entryIndex = null;
+    private int[] ordinals = null;
+    private Object[] oldValues = null;
+    private Object[] newValues = null;
+    private Object[] pendingOldValues = null;
+    private int size = 0;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo, org.coliper.ibean.IBeanFactory)
+     */
+    @Override
+    public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
+            IBeanFactory factory) {
+        this.beanMetaInfo = metaInfo;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.clearJournal();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#interceptSetterCall(org.
+     * coliper.ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object interceptSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        if (this.bean == null) {
+            this.bean = context.fieldAccessOf(proxyInstance);
+            this.createJournal();
+        }
+        final int ordinal = fieldMeta.ordinal();
+        if (this.entryIndex[ordinal] < 0) {
+            this.pendingOldValues[ordinal] = this.bean.getFieldValue(fieldMeta);
+        }
+        return newValue;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        final int ordinal = fieldMeta.ordinal();
+        int index = this.entryIndex[ordinal];
+        if (index < 0) {
+            index = this.size++;
+            this.entryIndex[ordinal] = index;
+            this.ordinals[index] = ordinal;
+            this.oldValues[index] = this.pendingOldValues[ordinal];
+            this.pendingOldValues[ordinal] = null;
+        }
+        this.newValues[index] = newValue;
+    }
+
+    private void createJournal() {
+        final int noOfFields = this.beanMetaInfo.noOfFields();
+        this.entryIndex = new int[noOfFields];
+        Arrays.fill(this.entryIndex, -1);
+        this.ordinals = new int[noOfFields];
+        this.oldValues = new Object[noOfFields];
+        this.newValues = new Object[noOfFields];
+        this.pendingOldValues = new Object[noOfFields];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Journaled#hasJournalEntries()
+     */
+    @Override
+    public boolean hasJournalEntries() {
+        return this.size > 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Journaled#drainJournal()
+     */
+    @Override
+    public BeanDelta drainJournal() {
+        if (this.size == 0) {
+            return new BeanDelta(this.beanMetaInfo, ArrayUtils.EMPTY_INT_ARRAY,
+                    ArrayUtils.EMPTY_OBJECT_ARRAY, ArrayUtils.EMPTY_OBJECT_ARRAY);
+        }
+        final BeanDelta delta = new BeanDelta(this.beanMetaInfo,
+                Arrays.copyOf(this.ordinals, this.size), Arrays.copyOf(this.oldValues, this.size),
+                Arrays.copyOf(this.newValues, this.size));
+        this.clearJournal();
+        return delta;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Journaled#clearJournal()
+     */
+    @Override
+    public void clearJournal() {
+        for (int i = 0; i < this.size; i++) {
+            this.entryIndex[this.ordinals[i]] = -1;
+            // release references to values
+            this.oldValues[i] = null;
+            this.newValues[i] = null;
+        }
+        this.size = 0;
+    }
+}
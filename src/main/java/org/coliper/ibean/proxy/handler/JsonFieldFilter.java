@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static java.util.Objects.requireNonNull;
+
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.extension.JsonSerializationMode;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.extension.ModificationAwareExt;
+
+/**
+ * Decides which fields of a bean are written by the JSON extension handlers
+ * depending on the {@link JsonSerializationMode}. A filter is created once per
+ * serialized bean, it reads the modification bits of the bean only once.
+ *
+ * @author alex@coliper.org
+ */
+final class JsonFieldFilter {
+    private static final JsonFieldFilter ALL_FIELDS_FILTER =
+            new JsonFieldFilter(JsonSerializationMode.ALL_FIELDS, null);
+
+    private final JsonSerializationMode mode;
+    private final long[] modifiedBits;
+
+    private JsonFieldFilter(JsonSerializationMode mode, long[] modifiedBits) {
+        this.mode = mode;
+        this.modifiedBits = modifiedBits;
+    }
+
+    static JsonFieldFilter of(JsonSerializationMode mode, Object proxyInstance) {
+        requireNonNull(mode, "mode");
+        if (mode == JsonSerializationMode.ALL_FIELDS) {
+            return ALL_FIELDS_FILTER;
+        }
+        if (!(proxyInstance instanceof ModificationAwareExt)) {
+            // modifications unknown, treat all fields as modified
+            return new JsonFieldFilter(mode, null);
+        }
+        return new JsonFieldFilter(mode,
+                ((ModificationAwareExt) proxyInstance).getModifiedFieldBits(null));
+    }
+
+    boolean includeField(IBeanFieldMetaInfo meta, Object value) {
+        if (this.modifiedBits == null) {
+            return true;
+        }
+        return this.fieldModified(meta) || (value instanceof ModificationAware
+                && ((ModificationAware) value).isModified());
+    }
+
+    /**
+     * @return <code>true</code> if the value of the given field needs to be
+     *         written with all its fields regardless of its own modification
+     *         state
+     */
+    boolean writeValueCompletely(IBeanFieldMetaInfo meta) {
+        return this.mode == JsonSerializationMode.MERGE_PATCH
+                && (this.modifiedBits == null || this.fieldModified(meta));
+    }
+
+    private boolean fieldModified(IBeanFieldMetaInfo meta) {
+        final int ordinal = meta.ordinal();
+        return (this.modifiedBits[ordinal >>> 6] & (1L << ordinal)) != 0L;
+    }
+}
@@ -23,6 +23,7 @@ import org.coliper.ibean.extension.LazyInitParent;
 import org.coliper.ibean.proxy.ExtensionHandler;
 import org.coliper.ibean.proxy.ExtensionSupport;
 import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
 
 /**
@@ -63,10 +64,29 @@ public class LazyInitHandler extends StatefulExtensionHandler {
         if (returnValue == null) {
             Class<?> returnType = fieldMeta.fieldType();
             if (LazyInitChild.class.isAssignableFrom(returnType)) {
-                returnValue = this.factory.create(returnType);
+                returnValue = this.createAndStoreChild(context, fieldMeta, proxyInstance);
             }
         }
         return returnValue;
     }
 
+    /*
+     * Creates a new child bean and stores it in the parent's field. If several
+     * threads race for the same field only one child wins and all threads
+     * return the winning child.
+     */
+    private Object createAndStoreChild(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object proxyInstance) {
+        final IBeanFieldAccess bean = context.fieldAccessOf(proxyInstance);
+        final Object child = this.factory.create(fieldMeta.fieldType());
+        Object currentValue;
+        do {
+            if (bean.compareAndSetFieldValue(fieldMeta, null, child)) {
+                return child;
+            }
+            currentValue = bean.getFieldValue(fieldMeta);
+        } while (currentValue == null);
+        return currentValue;
+    }
+
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.FieldLoader;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.LazyLoadable;
+import org.coliper.ibean.extension.Snapshotable;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.coliper.ibean.util.ReflectionUtil;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link LazyLoadable}.
+ *
+ * @author alex@coliper.org
+ */
+public class LazyLoadableHandler extends StatefulExtensionHandler implements LazyLoadable {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT = new ExtensionSupport(LazyLoadable.class,
+            LazyLoadableHandler.class, true/* stateful */);
+
+    /*
+     * Which fields are lazy is the same for all beans of a type, so the getter
+     * annotations are looked up only once per type. The resulting flags per
+     * field ordinal are shared by all handlers of that type.
+     */
+    private static final Map<IBeanTypeMetaInfo<?>, boolean[]> LAZY_FIELDS =
+            new ConcurrentHashMap<>();
+
+    /*
+     * "resolved" holds a flag per field ordinal that is set as soon as the
+     * field does not need to be loaded anymore because it has been loaded or
+     * set.
+     */
+    private IBeanTypeMetaInfo<?> beanMetaInfo = null;
+    private boolean[] lazy = null;
+    private IBeanFieldAccess bean = null;
+    private Object proxyInstance = null;
+    private FieldLoader loader = null;
+    private boolean[] resolved = null;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(org.coliper.ibean.
+     * proxy.IBeanContext, org.coliper.ibean.proxy.IBeanFieldAccess,
+     * java.lang.Object)
+     */
+    @Override
+    public void onInitStateful(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance) {
+        this.beanMetaInfo = context.metaInfo();
+        this.lazy = LAZY_FIELDS.computeIfAbsent(this.beanMetaInfo, LazyLoadableHandler::lazyFields);
+        this.bean = bean;
+        this.proxyInstance = proxyInstance;
+        this.resolved = new boolean[this.beanMetaInfo.noOfFields()];
+    }
+
+    private static boolean[] lazyFields(IBeanTypeMetaInfo<?> metaInfo) {
+        final boolean[] lazy = new boolean[metaInfo.noOfFields()];
+        for (IBeanFieldMetaInfo fieldMeta : metaInfo.fieldMetaInfos()) {
+            lazy[fieldMeta.ordinal()] =
+                    fieldMeta.getterMethod().isAnnotationPresent(LazyLoadable.Lazy.class);
+        }
+        return lazy;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.loader = null;
+        this.resolved = new boolean[metaInfo.noOfFields()];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#interceptGetterCall(org.
+     * coliper.ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object interceptGetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object returnValue, Object proxyInstance) {
+        final int ordinal = fieldMeta.ordinal();
+        if (!this.lazy[ordinal] || this.resolved[ordinal] || this.loader == null
+                || this.isFrozen() || this.isSnapshot()) {
+            return returnValue;
+        }
+        return this.storeLoadedValue(fieldMeta, this.loader.load(proxyInstance, fieldMeta));
+    }
+
+    // Loading writes into the field storage without running the setter
+    // interceptors, so it needs to be prevented here for beans that must not
+    // change anymore. Only checked for fields still to be loaded.
+    private boolean isFrozen() {
+        return this.proxyInstance instanceof Freezable
+                && ((Freezable<?>) this.proxyInstance).isFrozen();
+    }
+
+    private boolean isSnapshot() {
+        return this.proxyInstance instanceof Snapshotable
+                && ((Snapshotable<?>) this.proxyInstance).isSnapshot();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        // a set value must not be overwritten by a later load
+        this.resolved[fieldMeta.ordinal()] = true;
+    }
+
+    private Object storeLoadedValue(IBeanFieldMetaInfo fieldMeta, Object value) {
+        // an Integer loaded for a long field needs to be stored as Long
+        final Object valueToStore =
+                ReflectionUtil.widenPrimitiveValue(value, fieldMeta.fieldType());
+        checkArgument(valueToStore == null || ClassUtils.isAssignable(valueToStore.getClass(),
+                fieldMeta.fieldType(), true /* autoboxing */),
+                "loaded value %s does not fit type %s of field %s", value, fieldMeta.fieldType(),
+                fieldMeta.fieldName());
+        this.bean.setFieldValue(fieldMeta, valueToStore);
+        this.resolved[fieldMeta.ordinal()] = true;
+        return valueToStore;
+    }
+
+    private IBeanFieldMetaInfo fieldMetaWithName(String fieldName) {
+        requireNonNull(fieldName, "fieldName");
+        return this.beanMetaInfo.findFieldMetaWithFieldName(fieldName).orElseThrow(
+                () -> new IllegalArgumentException("unknown field name '" + fieldName + "'"));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.LazyLoadable#registerFieldLoader(org.
+     * coliper.ibean.extension.FieldLoader)
+     */
+    @Override
+    public void registerFieldLoader(FieldLoader loader) {
+        requireNonNull(loader, "loader");
+        this.loader = loader;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.extension.LazyLoadable#isFieldLoaded(java.lang.String)
+     */
+    @Override
+    public boolean isFieldLoaded(String fieldName) {
+        final IBeanFieldMetaInfo fieldMeta = this.fieldMetaWithName(fieldName);
+        final int ordinal = fieldMeta.ordinal();
+        return !this.lazy[ordinal] || this.resolved[ordinal];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.extension.LazyLoadable#supplyLoadedValue(java.lang.
+     * String, java.lang.Object)
+     */
+    @Override
+    public void supplyLoadedValue(String fieldName, Object value) {
+        final IBeanFieldMetaInfo fieldMeta = this.fieldMetaWithName(fieldName);
+        checkArgument(this.lazy[fieldMeta.ordinal()], "field %s is not lazy", fieldName);
+        if (this.isFrozen()) {
+            throw new BeanFrozenException();
+        }
+        if (this.isSnapshot()) {
+            throw new UnsupportedOperationException("snapshot beans are read-only");
+        }
+        this.storeLoadedValue(fieldMeta, value);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.MapView;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.coliper.ibean.util.ReflectionUtil;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link MapView}.
+ *
+ * @author alex@coliper.org
+ */
+public class MapViewHandler extends StatelessExtensionHandler {
+
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT =
+            new ExtensionSupport(MapView.class, MapViewHandler.class, false/* stateful */);
+
+    private static final String METHOD_NAME_AS_MAP = "asMap";
+    private static final String METHOD_NAME_LOAD_FROM_MAP = "loadFromMap";
+
+    /*
+     * The view holds nothing but the bean itself. Keys are resolved with the
+     * name index of the bean meta info, values are read from and written to
+     * the field storage directly.
+     */
+    private static class BeanMapView extends AbstractMap<String, Object> {
+        private final IBeanTypeMetaInfo<?> metaInfo;
+        private final IBeanFieldAccess bean;
+        private final Object proxyInstance;
+
+        private BeanMapView(IBeanTypeMetaInfo<?> metaInfo, IBeanFieldAccess bean,
+                Object proxyInstance) {
+            this.metaInfo = metaInfo;
+            this.bean = bean;
+            this.proxyInstance = proxyInstance;
+        }
+
+        private IBeanFieldMetaInfo fieldMetaOf(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            return this.metaInfo.fieldMetaInfosByName().get(key);
+        }
+
+        @Override
+        public int size() {
+            return this.metaInfo.noOfFields();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.fieldMetaOf(key) != null;
+        }
+
+        @Override
+        public Object get(Object key) {
+            final IBeanFieldMetaInfo fieldMeta = this.fieldMetaOf(key);
+            return fieldMeta == null ? null : this.bean.getFieldValue(fieldMeta);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            final IBeanFieldMetaInfo fieldMeta = checkedFieldMeta(this.metaInfo, key);
+            final Object newValue = checkedValue(fieldMeta, value);
+            final Object oldValue = this.bean.getFieldValue(fieldMeta);
+            setFieldValue(this.bean, this.proxyInstance, fieldMeta, newValue);
+            return oldValue;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            throw new UnsupportedOperationException("fields cannot be removed");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("fields cannot be removed");
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    final Iterator<IBeanFieldMetaInfo> fieldMetas =
+                            BeanMapView.this.metaInfo.fieldMetaInfos().iterator();
+                    return new Iterator<Map.Entry<String, Object>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return fieldMetas.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, Object> next() {
+                            return new FieldEntry(fieldMetas.next());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return BeanMapView.this.size();
+                }
+            };
+        }
+
+        private class FieldEntry implements Map.Entry<String, Object> {
+            private final IBeanFieldMetaInfo fieldMeta;
+
+            private FieldEntry(IBeanFieldMetaInfo fieldMeta) {
+                this.fieldMeta = fieldMeta;
+            }
+
+            @Override
+            public String getKey() {
+                return this.fieldMeta.fieldName();
+            }
+
+            @Override
+            public Object getValue() {
+                return BeanMapView.this.bean.getFieldValue(this.fieldMeta);
+            }
+
+            @Override
+            public Object setValue(Object value) {
+                return BeanMapView.this.put(this.fieldMeta.fieldName(), value);
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (!(obj instanceof Map.Entry)) {
+                    return false;
+                }
+                final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+                return this.getKey().equals(other.getKey())
+                        && Objects.equals(this.getValue(), other.getValue());
+            }
+
+            @Override
+            public int hashCode() {
+                return this.getKey().hashCode() ^ Objects.hashCode(this.getValue());
+            }
+
+            @Override
+            public String toString() {
+                return this.getKey() + "=" + this.getValue();
+            }
+        }
+    }
+
+    private static IBeanFieldMetaInfo checkedFieldMeta(IBeanTypeMetaInfo<?> metaInfo,
+            String fieldName) {
+        requireNonNull(fieldName, "fieldName");
+        final IBeanFieldMetaInfo fieldMeta = metaInfo.fieldMetaInfosByName().get(fieldName);
+        checkArgument(fieldMeta != null, "unknown field name '%s'", fieldName);
+        return fieldMeta;
+    }
+
+    // Returns the value as it needs to be stored in the field. Boxed primitives
+    // are widened to the field type, otherwise for example an Integer stored
+    // in a long field would make the getter fail with a ClassCastException.
+    private static Object checkedValue(IBeanFieldMetaInfo fieldMeta, Object value) {
+        final Class<?> fieldType = fieldMeta.fieldType();
+        if (value == null) {
+            checkArgument(!fieldType.isPrimitive(), "primitive field '%s' cannot be set to null",
+                    fieldMeta.fieldName());
+            return null;
+        }
+        final Object widenedValue = ReflectionUtil.widenPrimitiveValue(value, fieldType);
+        checkArgument(ClassUtils.isAssignable(widenedValue.getClass(), fieldType, true),
+                "value %s does not fit type %s of field '%s'", value, fieldType,
+                fieldMeta.fieldName());
+        return widenedValue;
+    }
+
+    private static void setFieldValue(IBeanFieldAccess bean, Object proxyInstance,
+            IBeanFieldMetaInfo fieldMeta, Object value) {
+        final Object valueToSet = bean.interceptFieldChange(fieldMeta, value, proxyInstance);
+        bean.setFieldValue(fieldMeta, valueToSet);
+        bean.afterFieldChange(fieldMeta, valueToSet, proxyInstance);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.handler.StatelessExtensionHandler#
+     * handleExtendedInterfaceCall(org.coliper.ibean.proxy.IBeanContext,
+     * org.coliper.ibean.proxy.IBeanFieldAccess, java.lang.Object,
+     * java.lang.reflect.Method, java.lang.Object[])
+     */
+    @Override
+    public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance, Method method, Object[] params) throws Throwable {
+        switch (method.getName()) {
+        case METHOD_NAME_AS_MAP:
+            return new BeanMapView(context.metaInfo(), bean, proxyInstance);
+        case METHOD_NAME_LOAD_FROM_MAP:
+            this.loadFromMap(context.metaInfo(), bean, proxyInstance, (Map<?, ?>) params[0]);
+            return null;
+        default:
+            throw new UnsupportedOperationException("unexpected call of " + method);
+        }
+    }
+
+    private void loadFromMap(IBeanTypeMetaInfo<?> metaInfo, IBeanFieldAccess bean,
+            Object proxyInstance, Map<?, ?> values) {
+        requireNonNull(values, "values");
+        final IBeanFieldMetaInfo[] fieldMetas = new IBeanFieldMetaInfo[values.size()];
+        final Object[] newValues = new Object[values.size()];
+        int i = 0;
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            checkArgument(entry.getKey() instanceof String, "key %s is not a field name",
+                    entry.getKey());
+            fieldMetas[i] = checkedFieldMeta(metaInfo, (String) entry.getKey());
+            newValues[i] = checkedValue(fieldMetas[i], entry.getValue());
+            i++;
+        }
+        for (i = 0; i < fieldMetas.length; i++) {
+            setFieldValue(bean, proxyInstance, fieldMetas[i], newValues[i]);
+        }
+    }
+}
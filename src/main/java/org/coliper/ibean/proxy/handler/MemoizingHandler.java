@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.InvalidIBeanTypeException;
+import org.coliper.ibean.extension.Memoizing;
+import org.coliper.ibean.proxy.DefaultMethodCall;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link Memoizing}.
+ *
+ * @author alex@coliper.org
+ */
+public class MemoizingHandler extends StatefulExtensionHandler implements Memoizing {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT =
+            new ExtensionSupport(Memoizing.class, MemoizingHandler.class, true/* stateful */);
+
+    /*
+     * Which methods are memoized and which fields they depend on is the same
+     * for all beans of a type. It is therefore determined only once per type
+     * and shared by all handlers of that type.
+     */
+    private static final Map<IBeanTypeMetaInfo<?>, MemoizationPlan> PLANS =
+            new ConcurrentHashMap<>();
+
+    // marks results that have not been computed yet, as null is a valid result
+    private static final Object NOT_COMPUTED = new Object();
+
+    private static final class MemoizationPlan {
+        // maps each memoized method to the index of its cached result
+        private final Map<Method, Integer> resultIndexes = new HashMap<>();
+        // indexes of the results invalidated by a setter call, per ordinal
+        private final int[][] dependentResults;
+
+        private MemoizationPlan(IBeanTypeMetaInfo<?> metaInfo) {
+            final Class<?> beanType = metaInfo.beanType();
+            final List<List<Integer>> dependents = new ArrayList<>();
+            for (int i = 0; i < metaInfo.noOfFields(); i++) {
+                dependents.add(new ArrayList<>());
+            }
+            for (Method method : beanType.getMethods()) {
+                final Memoized memoized = method.getAnnotation(Memoized.class);
+                if (memoized == null) {
+                    continue;
+                }
+                if (!method.isDefault() || method.getParameterCount() > 0
+                        || method.getReturnType() == void.class) {
+                    throw new InvalidIBeanTypeException(beanType, "memoized method " + method
+                            + " is not a default method without parameters returning a value");
+                }
+                final int resultIndex = this.resultIndexes.size();
+                this.resultIndexes.put(method, resultIndex);
+                if (memoized.dependsOn().length == 0) {
+                    dependents.forEach(list -> list.add(resultIndex));
+                }
+                for (String fieldName : memoized.dependsOn()) {
+                    final IBeanFieldMetaInfo fieldMeta =
+                            metaInfo.findFieldMetaWithFieldName(fieldName)
+                                    .orElseThrow(() -> new InvalidIBeanTypeException(beanType,
+                                            "memoized method " + method
+                                                    + " depends on unknown field " + fieldName));
+                    dependents.get(fieldMeta.ordinal()).add(resultIndex);
+                }
+            }
+            this.dependentResults = new int[dependents.size()][];
+            for (int i = 0; i < this.dependentResults.length; i++) {
+                this.dependentResults[i] =
+                        dependents.get(i).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        private int noOfResults() {
+            return this.resultIndexes.size();
+        }
+    }
+
+    private MemoizationPlan plan = null;
+    private Object[] results = null;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo, org.coliper.ibean.IBeanFactory)
+     */
+    @Override
+    public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
+            IBeanFactory factory) {
+        this.plan = PLANS.computeIfAbsent(metaInfo, MemoizationPlan::new);
+        this.results = new Object[this.plan.noOfResults()];
+        this.invalidateMemoizedResults();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.invalidateMemoizedResults();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#interceptDefaultMethodCall(
+     * org.coliper.ibean.proxy.IBeanContext, java.lang.reflect.Method,
+     * java.lang.Object[], org.coliper.ibean.proxy.DefaultMethodCall,
+     * java.lang.Object)
+     */
+    @Override
+    public Object interceptDefaultMethodCall(IBeanContext<?> context, Method method,
+            Object[] args, DefaultMethodCall call, Object proxyInstance) throws Throwable {
+        final Integer resultIndex = this.plan.resultIndexes.get(method);
+        if (resultIndex == null) {
+            return call.proceed();
+        }
+        final int index = resultIndex.intValue();
+        Object result = this.results[index];
+        if (result == NOT_COMPUTED) {
+            result = call.proceed();
+            this.results[index] = result;
+        }
+        return result;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        for (int index : this.plan.dependentResults[fieldMeta.ordinal()]) {
+            this.results[index] = NOT_COMPUTED;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Memoizing#invalidateMemoizedResults()
+     */
+    @Override
+    public void invalidateMemoizedResults() {
+        Arrays.fill(this.results, NOT_COMPUTED);
+    }
+}
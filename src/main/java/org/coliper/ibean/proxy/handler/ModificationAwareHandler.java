@@ -14,11 +14,19 @@
 
 package org.coliper.ibean.proxy.handler;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.coliper.ibean.IBeanFactory;
@@ -47,10 +55,38 @@ public class ModificationAwareHandler extends StatefulExtensionHandler
     public static final ExtensionSupport SUPPORT = new ExtensionSupport(ModificationAwareExt.class,
             ModificationAwareHandler.class, true/* stateful */);
 
+    // source of the stamps used for deep modification tracking
+    private static final AtomicLong MODIFICATION_CLOCK = new AtomicLong();
+
     private boolean modified = false;
-    private boolean[] fieldModified = null;
+    // one bit per field, only used if the bean type is a ModificationAwareExt
+    private long[] fieldModifiedBits = null;
+    private long lastWordMask = 0L;
     private IBeanTypeMetaInfo<?> beanMetaInfo = null;
 
+    /*
+     * State for deep modification tracking. "linkedValues" holds per field
+     * ordinal the value whose beans are tracked as children, it is needed to
+     * reset them. Children refer to their parents in "parents" only weakly,
+     * so that no bean is kept alive by the beans it is contained in. All
+     * stamps are values of a global clock: "modifiedStamp" is the time this
+     * bean became modified, "descendantStamp" the latest time one of its
+     * descendants became modified and "resetStamp" the time of its creation
+     * or last reset. A bean that becomes modified passes its stamp up to all
+     * its ancestors, so isModified() just compares "descendantStamp" with
+     * "resetStamp" instead of walking through the descendants. Comparing
+     * stamps instead of flags keeps this right for children shared by
+     * several parents, where a reset of one parent also resets the shared
+     * child.
+     */
+    private Object[] linkedValues = null;
+    private List<WeakReference<ModificationAwareHandler>> parents = null;
+    private WeakReference<ModificationAwareHandler> selfReference = null;
+    private long modifiedStamp = 0L;
+    private long descendantStamp = 0L;
+    private long resetStamp = 0L;
+    private IBeanContext<?> context = null;
+
     /*
      * (non-Javadoc)
      * 
@@ -62,9 +98,38 @@ public class ModificationAwareHandler extends StatefulExtensionHandler
     public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
             IBeanFactory unused) {
         this.beanMetaInfo = metaInfo;
+        this.resetStamp = MODIFICATION_CLOCK.get();
         if (beanTypeIncludesModificationAwareExt(metaInfo)) {
-            this.fieldModified = new boolean[metaInfo.noOfFields()];
+            final int noOfFields = metaInfo.noOfFields();
+            this.fieldModifiedBits = new long[wordCount(noOfFields)];
+            final int bitsInLastWord = noOfFields % Long.SIZE;
+            this.lastWordMask = bitsInLastWord == 0 ? -1L : (1L << bitsInLastWord) - 1;
+        }
+    }
+
+    static int wordCount(int noOfFields) {
+        return (noOfFields + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        if (this.linkedValues != null) {
+            for (Object linkedValue : this.linkedValues) {
+                this.forEachChild(linkedValue, child -> child.removeParent(this));
+            }
+            this.linkedValues = null;
         }
+        this.parents = null;
+        this.modifiedStamp = 0L;
+        this.descendantStamp = 0L;
+        this.resetModified();
     }
 
     private boolean beanTypeIncludesModificationAwareExt(IBeanTypeMetaInfo<?> metaInfo) {
@@ -78,7 +143,7 @@ public class ModificationAwareHandler extends StatefulExtensionHandler
      */
     @Override
     public boolean isModified() {
-        return this.modified;
+        return this.modified || this.descendantStamp > this.resetStamp;
     }
 
     /*
@@ -89,26 +154,176 @@ public class ModificationAwareHandler extends StatefulExtensionHandler
     @Override
     public void resetModified() {
         this.modified = false;
-        if (this.fieldModified != null) {
-            Arrays.fill(this.fieldModified, false);
+        if (this.fieldModifiedBits != null) {
+            Arrays.fill(this.fieldModifiedBits, 0L);
+        }
+        // stamp needs to be set first to stop recursion on cycles
+        this.resetStamp = MODIFICATION_CLOCK.get();
+        if (this.linkedValues != null) {
+            for (Object linkedValue : this.linkedValues) {
+                this.forEachChild(linkedValue, child -> {
+                    if (child.isModified()) {
+                        child.resetModified();
+                    }
+                });
+            }
         }
     }
 
     /*
      * (non-Javadoc)
      * 
-     * @see org.coliper.ibean.proxy.handler.StatefulExtendedInterfaceHandler#
-     * interceptSetterCall(org.coliper.ibean.proxy.IBeanContext,
-     * org.coliper.ibean.IBeanFieldMetaInfo, java.lang.Object)
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
      */
     @Override
-    public Object interceptSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
             Object newValue, Object proxyInstance) {
-        this.modified = true;
-        if (this.fieldModified != null) {
-            this.fieldModified[fieldMeta.ordinal()] = true;
+        // only changes that have actually been stored count, so neither a
+        // setter rejected by another handler nor a failed compare-and-set
+        if (!this.modified) {
+            this.modified = true;
+            if (context.deepModificationTracking()) {
+                this.modifiedStamp = MODIFICATION_CLOCK.incrementAndGet();
+                this.notifyParents(this.modifiedStamp);
+            }
+        }
+        if (this.fieldModifiedBits != null) {
+            final int ordinal = fieldMeta.ordinal();
+            this.fieldModifiedBits[ordinal / Long.SIZE] |= 1L << ordinal;
+        }
+        if (context.deepModificationTracking()) {
+            this.linkChildren(context, fieldMeta.ordinal(), newValue);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.proxy.ExtensionHandler#interceptGetterCall(org.
+     * coliper.ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object interceptGetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object returnValue, Object proxyInstance) {
+        // field values not set via setter, for example in clones or
+        // deserialized beans, are linked when they are first read
+        if (context.deepModificationTracking()) {
+            this.linkChildren(context, fieldMeta.ordinal(), returnValue);
+        }
+        return returnValue;
+    }
+
+    private void linkChildren(IBeanContext<?> context, int ordinal, Object fieldValue) {
+        final Object value = mayContainChildren(fieldValue) ? fieldValue : null;
+        if (this.linkedValues == null) {
+            if (value == null) {
+                return;
+            }
+            this.context = context;
+            this.linkedValues = new Object[this.beanMetaInfo.noOfFields()];
+        }
+        final Object oldValue = this.linkedValues[ordinal];
+        if (oldValue == value) {
+            // already linked, the usual case for getter calls
+            return;
+        }
+        this.linkedValues[ordinal] = value;
+        if (oldValue != null && !this.isLinked(oldValue)) {
+            this.forEachChild(oldValue, child -> child.removeParent(this));
+        }
+        this.forEachChild(value, this::linkChild);
+    }
+
+    // Returns true if the given value is still held by another field.
+    private boolean isLinked(Object value) {
+        for (Object linkedValue : this.linkedValues) {
+            if (linkedValue == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void linkChild(ModificationAwareHandler child) {
+        child.addParent(this);
+        // a child that is still modified counts as modified now, a child
+        // reset via another parent only if modified after our own reset
+        final long childStamp = child.isModified() ? MODIFICATION_CLOCK.incrementAndGet()
+                : Math.max(child.modifiedStamp, child.descendantStamp);
+        this.descendantModified(childStamp);
+    }
+
+    private void addParent(ModificationAwareHandler parent) {
+        if (this.parents == null) {
+            this.parents = new ArrayList<>(2);
+        } else {
+            this.parents.removeIf(reference -> reference.get() == null);
+            for (WeakReference<ModificationAwareHandler> reference : this.parents) {
+                if (reference.get() == parent) {
+                    return;
+                }
+            }
+        }
+        if (parent.selfReference == null) {
+            parent.selfReference = new WeakReference<>(parent);
+        }
+        this.parents.add(parent.selfReference);
+    }
+
+    private void removeParent(ModificationAwareHandler parent) {
+        if (this.parents != null) {
+            this.parents.removeIf(reference -> {
+                final ModificationAwareHandler referent = reference.get();
+                return referent == null || referent == parent;
+            });
+        }
+    }
+
+    private void descendantModified(long stamp) {
+        // stops on cycles as the stamp of each bean is only increased once
+        if (stamp > this.descendantStamp) {
+            this.descendantStamp = stamp;
+            this.notifyParents(stamp);
+        }
+    }
+
+    private void notifyParents(long stamp) {
+        if (this.parents != null) {
+            for (WeakReference<ModificationAwareHandler> reference : this.parents) {
+                final ModificationAwareHandler parent = reference.get();
+                if (parent != null) {
+                    parent.descendantModified(stamp);
+                }
+            }
+        }
+    }
+
+    private static boolean mayContainChildren(Object value) {
+        return value instanceof ModificationAware || value instanceof Collection
+                || value instanceof Map;
+    }
+
+    private void forEachChild(Object value, Consumer<ModificationAwareHandler> action) {
+        if (value instanceof ModificationAware) {
+            this.context.extensionHandlerOf(value, ModificationAwareHandler.class)
+                    .ifPresent(action);
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                this.forEachChild(element, action);
+            }
+        } else if (value instanceof Map) {
+            for (Object element : ((Map<?, ?>) value).values()) {
+                this.forEachChild(element, action);
+            }
         }
-        return super.interceptSetterCall(context, fieldMeta, newValue, proxyInstance);
+    }
+
+    private void checkExtendedInterface() {
+        checkState(this.fieldModifiedBits != null,
+                "unexpected method call of extended interface");
     }
 
     /*
@@ -122,14 +337,16 @@ public class ModificationAwareHandler extends StatefulExtensionHandler
         if (!this.modified) {
             return ArrayUtils.EMPTY_STRING_ARRAY;
         }
-        checkState(this.fieldModified != null, "unexpected method call of extended interface");
-        List<String> nameList = new ArrayList<>(this.fieldModified.length);
-        for (int i = 0; i < fieldModified.length; i++) {
-            if (fieldModified[i]) {
-                nameList.add(this.beanMetaInfo.fieldMetaInfos().get(i).fieldName());
-            }
+        checkExtendedInterface();
+        // work on a snapshot as the bits might be changed concurrently
+        final long[] bits = this.fieldModifiedBits.clone();
+        final List<IBeanFieldMetaInfo> fieldMetas = this.beanMetaInfo.fieldMetaInfos();
+        final String[] names = new String[bitCount(bits)];
+        int index = 0;
+        for (int ordinal = nextModifiedOrdinal(bits, 0); ordinal >= 0; ordinal =
+                nextModifiedOrdinal(bits, ordinal + 1)) {
+            names[index++] = fieldMetas.get(ordinal).fieldName();
         }
-        String[] names = nameList.toArray(new String[nameList.size()]);
         return names;
     }
 
@@ -140,8 +357,89 @@ public class ModificationAwareHandler extends StatefulExtensionHandler
      */
     @Override
     public boolean allFieldsModified() {
-        checkState(this.fieldModified != null, "unexpected method call of extended interface");
-        return !ArrayUtils.contains(fieldModified, false);
+        checkExtendedInterface();
+        final int lastIndex = this.fieldModifiedBits.length - 1;
+        for (int i = 0; i < lastIndex; i++) {
+            if (this.fieldModifiedBits[i] != -1L) {
+                return false;
+            }
+        }
+        return lastIndex < 0 || this.fieldModifiedBits[lastIndex] == this.lastWordMask;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.extension.ModificationAwareExt#getModifiedFieldCount()
+     */
+    @Override
+    public int getModifiedFieldCount() {
+        checkExtendedInterface();
+        return bitCount(this.fieldModifiedBits);
+    }
+
+    static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.coliper.ibean.extension.ModificationAwareExt#forEachModifiedField(
+     * java.util.function.ObjIntConsumer)
+     */
+    @Override
+    public void forEachModifiedField(ObjIntConsumer<String> visitor) {
+        requireNonNull(visitor, "visitor");
+        checkExtendedInterface();
+        final List<IBeanFieldMetaInfo> fieldMetas = this.beanMetaInfo.fieldMetaInfos();
+        final long[] bits = this.fieldModifiedBits;
+        for (int ordinal = nextModifiedOrdinal(bits, 0); ordinal >= 0; ordinal =
+                nextModifiedOrdinal(bits, ordinal + 1)) {
+            visitor.accept(fieldMetas.get(ordinal).fieldName(), ordinal);
+        }
+    }
+
+    // Returns the first ordinal >= fromOrdinal of a modified field or -1 if
+    // there is none.
+    static int nextModifiedOrdinal(long[] bits, int fromOrdinal) {
+        int wordIndex = fromOrdinal / Long.SIZE;
+        if (wordIndex >= bits.length) {
+            return -1;
+        }
+        long word = bits[wordIndex] & (-1L << fromOrdinal);
+        while (word == 0L) {
+            if (++wordIndex == bits.length) {
+                return -1;
+            }
+            word = bits[wordIndex];
+        }
+        return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.coliper.ibean.extension.ModificationAwareExt#getModifiedFieldBits(long[])
+     */
+    @Override
+    public long[] getModifiedFieldBits(long[] target) {
+        checkExtendedInterface();
+        final int noOfWords = this.fieldModifiedBits.length;
+        if (target == null) {
+            return this.fieldModifiedBits.clone();
+        }
+        checkArgument(target.length >= noOfWords, "target array too small, needs %s elements",
+                noOfWords);
+        System.arraycopy(this.fieldModifiedBits, 0, target, 0, noOfWords);
+        Arrays.fill(target, noOfWords, target.length, 0L);
+        return target;
     }
 
 }
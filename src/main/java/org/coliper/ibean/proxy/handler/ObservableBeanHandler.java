@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.BeanChangeListener;
+import org.coliper.ibean.extension.ChangedFields;
+import org.coliper.ibean.extension.ObservableBean;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link ObservableBean}.
+ *
+ * @author alex@coliper.org
+ */
+public class ObservableBeanHandler extends StatefulExtensionHandler implements ObservableBean {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT = new ExtensionSupport(ObservableBean.class,
+            ObservableBeanHandler.class, true/* stateful */);
+
+    // Per bean type one immutable ChangedFields per field ordinal. Used for
+    // notifications outside of a batch, which always concern a single field,
+    // so that setter calls do not need to allocate.
+    private static final Map<IBeanTypeMetaInfo<?>, ChangedFields[]> SINGLE_FIELD_CHANGES =
+            new ConcurrentHashMap<>();
+
+    // listeners might be added or removed during a notification
+    private final List<BeanChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private ChangedFields[] singleFieldChanges = null;
+    // fields changed within the current batch, packed like in ChangedFields
+    private long[] pendingChanges = null;
+    private boolean hasPendingChanges = false;
+    private Object proxyInstance = null;
+    private int batchDepth = 0;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo, org.coliper.ibean.IBeanFactory)
+     */
+    @Override
+    public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
+            IBeanFactory factory) {
+        this.proxyInstance = proxyInstance;
+        this.singleFieldChanges = SINGLE_FIELD_CHANGES.computeIfAbsent(metaInfo,
+                ObservableBeanHandler::singleFieldChanges);
+        this.pendingChanges = new long[(metaInfo.fieldMetaInfos().size() + 63) >> 6];
+    }
+
+    private static ChangedFields[] singleFieldChanges(IBeanTypeMetaInfo<?> metaInfo) {
+        final ChangedFields[] changes = new ChangedFields[metaInfo.fieldMetaInfos().size()];
+        for (int ordinal = 0; ordinal < changes.length; ordinal++) {
+            changes[ordinal] = ChangedFields.ofSingleField(ordinal);
+        }
+        return changes;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.listeners.clear();
+        this.clearPendingChanges();
+        this.batchDepth = 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        final int ordinal = fieldMeta.ordinal();
+        if (this.batchDepth > 0) {
+            this.pendingChanges[ordinal >> 6] |= 1L << ordinal;
+            this.hasPendingChanges = true;
+        } else if (!this.listeners.isEmpty()) {
+            this.notifyListeners(this.singleFieldChanges[ordinal]);
+        }
+    }
+
+    private void notifyListeners(ChangedFields changedFields) {
+        for (BeanChangeListener listener : this.listeners) {
+            listener.beanChanged(this.proxyInstance, changedFields);
+        }
+    }
+
+    private void clearPendingChanges() {
+        if (this.hasPendingChanges) {
+            Arrays.fill(this.pendingChanges, 0L);
+            this.hasPendingChanges = false;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.extension.ObservableBean#addChangeListener(org.coliper.
+     * ibean.extension.BeanChangeListener)
+     */
+    @Override
+    public void addChangeListener(BeanChangeListener listener) {
+        requireNonNull(listener, "listener");
+        this.listeners.add(listener);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.extension.ObservableBean#removeChangeListener(org.
+     * coliper.ibean.extension.BeanChangeListener)
+     */
+    @Override
+    public void removeChangeListener(BeanChangeListener listener) {
+        requireNonNull(listener, "listener");
+        this.listeners.remove(listener);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.ObservableBean#beginChangeBatch()
+     */
+    @Override
+    public void beginChangeBatch() {
+        this.batchDepth++;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.ObservableBean#endChangeBatch()
+     */
+    @Override
+    public void endChangeBatch() {
+        checkState(this.batchDepth > 0, "no change batch started");
+        this.batchDepth--;
+        if (this.batchDepth == 0 && this.hasPendingChanges) {
+            // one copy per batch; listeners might change the bean again,
+            // therefore pending changes need to be taken out before notifying
+            final ChangedFields changedFields = this.listeners.isEmpty() ? null
+                    : new ChangedFields(this.pendingChanges.clone());
+            this.clearPendingChanges();
+            if (changedFields != null) {
+                this.notifyListeners(changedFields);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.ObservableBean#isInChangeBatch()
+     */
+    @Override
+    public boolean isInChangeBatch() {
+        return this.batchDepth > 0;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import java.lang.reflect.Method;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.Snapshotable;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.coliper.ibean.util.ReflectionUtil;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link Snapshotable}.
+ *
+ * @author alex@coliper.org
+ */
+public class SnapshotableHandler extends StatefulExtensionHandler
+        implements Snapshotable<Object> {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT = new ExtensionSupport(Snapshotable.class,
+            SnapshotableHandler.class, true/* stateful */);
+
+    @SuppressWarnings("rawtypes")
+    private static final Method SNAPSHOT_METHOD =
+            ReflectionUtil.lookupInterfaceMethod(Snapshotable.class, Snapshotable::snapshot);
+
+    // volatile as snapshots are usually handed over to other threads
+    private volatile boolean snapshot = false;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        this.snapshot = false;
+    }
+
+    /**
+     * Creates the snapshot in case of {@link Snapshotable#snapshot()} as this
+     * requires access to the field values, all other calls are forwarded to
+     * the handler itself like in the super class.
+     *
+     * @see StatefulExtensionHandler#handleExtendedInterfaceCall(IBeanContext,
+     *      IBeanFieldAccess, Object, Method, Object[])
+     */
+    @Override
+    public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance, Method method, Object[] params) throws Throwable {
+        if (SNAPSHOT_METHOD.equals(method)) {
+            return this.createSnapshot(context, bean, proxyInstance);
+        }
+        return super.handleExtendedInterfaceCall(context, bean, proxyInstance, method, params);
+    }
+
+    private Object createSnapshot(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance) {
+        if (this.snapshot) {
+            return proxyInstance;
+        }
+        final Object snapshotBean = context.createWithSameFieldValues(bean);
+        context.extensionHandlerOf(snapshotBean, SnapshotableHandler.class)
+                .orElseThrow(IllegalStateException::new).snapshot = true;
+        return snapshotBean;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#interceptSetterCall(org.
+     * coliper.ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object interceptSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        if (this.snapshot) {
+            throw new UnsupportedOperationException("snapshot beans are read-only");
+        }
+        return newValue;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Snapshotable#snapshot()
+     */
+    @Override
+    public Object snapshot() {
+        // handled in handleExtendedInterfaceCall()
+        throw new IllegalStateException("unexpected call of snapshot()");
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Snapshotable#isSnapshot()
+     */
+    @Override
+    public boolean isSnapshot() {
+        return this.snapshot;
+    }
+}
@@ -14,6 +14,7 @@
 
 package org.coliper.ibean.proxy.handler;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import org.coliper.ibean.IBeanFieldMetaInfo;
@@ -44,7 +45,8 @@ public abstract class StatefulExtensionHandler implements ExtensionHandler {
     /**
      * This default implementation re-calls the interface method onto the
      * handler itself assuming the handler implements the extension interface as
-     * well.
+     * well. Exceptions thrown by the handler method are passed through
+     * unwrapped.
      * 
      * @see ExtensionHandler#handleExtendedInterfaceCall(IBeanContext,
      *      IBeanFieldAccess, Object, Method, Object[])
@@ -52,7 +54,11 @@ public abstract class StatefulExtensionHandler implements ExtensionHandler {
     @Override
     public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
             Object proxyInstance, Method method, Object[] params) throws Throwable {
-        return method.invoke(this, params);
+        try {
+            return method.invoke(this, params);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
     }
 
 }
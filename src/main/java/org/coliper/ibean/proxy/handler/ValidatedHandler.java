@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.InvalidIBeanTypeException;
+import org.coliper.ibean.extension.BeanValidationException;
+import org.coliper.ibean.extension.Validated;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.IBeanFieldAccess;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link Validated}.
+ *
+ * @author alex@coliper.org
+ */
+public class ValidatedHandler extends StatefulExtensionHandler {
+
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT =
+            new ExtensionSupport(Validated.class, ValidatedHandler.class, true/* stateful */);
+
+    private static final String METHOD_NAME_VIOLATIONS = "violations";
+    private static final String METHOD_NAME_IS_VALID = "isValid";
+    private static final String METHOD_NAME_ASSERT_VALID = "assertValid";
+
+    /*
+     * The constraints of a single field compiled from the annotations of its
+     * getter. Fields without any constraint do not get an instance at all.
+     */
+    private static final class FieldConstraints {
+        private final String fieldName;
+        private final boolean notNull;
+        private final Validated.Range range;
+        private final Validated.Size size;
+        private final Pattern pattern;
+
+        private FieldConstraints(IBeanFieldMetaInfo fieldMeta, Class<?> beanType) {
+            final Method getter = fieldMeta.getterMethod();
+            final Class<?> fieldType = fieldMeta.fieldType();
+            this.fieldName = fieldMeta.fieldName();
+            this.notNull = getter.isAnnotationPresent(Validated.NotNull.class);
+            this.range = getter.getAnnotation(Validated.Range.class);
+            this.size = getter.getAnnotation(Validated.Size.class);
+            final Validated.Pattern patternAnnotation =
+                    getter.getAnnotation(Validated.Pattern.class);
+            this.pattern =
+                    patternAnnotation == null ? null : Pattern.compile(patternAnnotation.value());
+            if (this.range != null && !isNumericType(fieldType)) {
+                throw new InvalidIBeanTypeException(beanType,
+                        "@Range not applicable to field " + this.fieldName);
+            }
+            if (this.size != null && !hasSize(fieldType)) {
+                throw new InvalidIBeanTypeException(beanType,
+                        "@Size not applicable to field " + this.fieldName);
+            }
+            if (this.pattern != null && !CharSequence.class.isAssignableFrom(fieldType)) {
+                throw new InvalidIBeanTypeException(beanType,
+                        "@Pattern not applicable to field " + this.fieldName);
+            }
+        }
+
+        private static boolean isNumericType(Class<?> type) {
+            if (type.isPrimitive()) {
+                return type != boolean.class && type != char.class && type != void.class;
+            }
+            return Number.class.isAssignableFrom(type);
+        }
+
+        private static boolean hasSize(Class<?> type) {
+            return type.isArray() || CharSequence.class.isAssignableFrom(type)
+                    || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+        }
+
+        private boolean isEmpty() {
+            return !this.notNull && this.range == null && this.size == null
+                    && this.pattern == null;
+        }
+
+        /*
+         * Returns a description of the violated constraint or null if the
+         * value is valid.
+         */
+        private String violation(Object value) {
+            if (value == null) {
+                return this.notNull ? this.message("must not be null") : null;
+            }
+            if (this.range != null && !this.inRange((Number) value)) {
+                return this.message(String.format("%s is not between %d and %d", value,
+                        this.range.min(), this.range.max()));
+            }
+            if (this.size != null) {
+                final int size = sizeOf(value);
+                if (size < this.size.min() || size > this.size.max()) {
+                    return this.message(String.format("size %d is not between %d and %d", size,
+                            this.size.min(), this.size.max()));
+                }
+            }
+            if (this.pattern != null && !this.pattern.matcher((CharSequence) value).matches()) {
+                return this.message(String.format("'%s' does not match '%s'", value,
+                        this.pattern.pattern()));
+            }
+            return null;
+        }
+
+        private boolean inRange(Number value) {
+            if (value instanceof Double || value instanceof Float) {
+                final double doubleValue = value.doubleValue();
+                // NaN is never in range
+                return doubleValue >= this.range.min() && doubleValue <= this.range.max();
+            }
+            if (value instanceof BigDecimal || value instanceof BigInteger) {
+                final BigDecimal decimal = new BigDecimal(value.toString());
+                return decimal.compareTo(BigDecimal.valueOf(this.range.min())) >= 0
+                        && decimal.compareTo(BigDecimal.valueOf(this.range.max())) <= 0;
+            }
+            final long longValue = value.longValue();
+            return longValue >= this.range.min() && longValue <= this.range.max();
+        }
+
+        private static int sizeOf(Object value) {
+            if (value instanceof CharSequence) {
+                return ((CharSequence) value).length();
+            }
+            if (value instanceof Collection) {
+                return ((Collection<?>) value).size();
+            }
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).size();
+            }
+            return java.lang.reflect.Array.getLength(value);
+        }
+
+        private String message(String description) {
+            return "field '" + this.fieldName + "': " + description;
+        }
+    }
+
+    /*
+     * The constraints are the same for all beans of a type. They are compiled
+     * once per type, indexed by field ordinal, and shared by all handlers of
+     * that type. Compiling them when a bean is created lets invalid
+     * annotations fail in create() and leaves a plain array access for the
+     * setter calls.
+     */
+    private static final Map<IBeanTypeMetaInfo<?>, FieldConstraints[]> CONSTRAINTS =
+            new ConcurrentHashMap<>();
+
+    private FieldConstraints[] constraints = null;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onInitStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo, org.coliper.ibean.IBeanFactory)
+     */
+    @Override
+    public void onInitStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo,
+            IBeanFactory factory) {
+        this.constraints = CONSTRAINTS.computeIfAbsent(metaInfo, ValidatedHandler::compile);
+    }
+
+    private static FieldConstraints[] compile(IBeanTypeMetaInfo<?> metaInfo) {
+        final FieldConstraints[] constraints = new FieldConstraints[metaInfo.noOfFields()];
+        for (IBeanFieldMetaInfo fieldMeta : metaInfo.fieldMetaInfos()) {
+            final FieldConstraints fieldConstraints =
+                    new FieldConstraints(fieldMeta, metaInfo.beanType());
+            if (!fieldConstraints.isEmpty()) {
+                constraints[fieldMeta.ordinal()] = fieldConstraints;
+            }
+        }
+        return constraints;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#interceptSetterCall(org.
+     * coliper.ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Object interceptSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        final FieldConstraints constraints = this.constraints[fieldMeta.ordinal()];
+        if (constraints != null) {
+            final String violation = constraints.violation(newValue);
+            if (violation != null) {
+                throw new BeanValidationException(ImmutableList.of(violation));
+            }
+        }
+        return newValue;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.handler.StatefulExtensionHandler#
+     * handleExtendedInterfaceCall(org.coliper.ibean.proxy.IBeanContext,
+     * org.coliper.ibean.proxy.IBeanFieldAccess, java.lang.Object,
+     * java.lang.reflect.Method, java.lang.Object[])
+     */
+    @Override
+    public Object handleExtendedInterfaceCall(IBeanContext<?> context, IBeanFieldAccess bean,
+            Object proxyInstance, Method method, Object[] params) throws Throwable {
+        final List<String> violations = this.violations(context, bean);
+        switch (method.getName()) {
+        case METHOD_NAME_VIOLATIONS:
+            return violations;
+        case METHOD_NAME_IS_VALID:
+            return Boolean.valueOf(violations.isEmpty());
+        case METHOD_NAME_ASSERT_VALID:
+            if (!violations.isEmpty()) {
+                throw new BeanValidationException(violations);
+            }
+            return proxyInstance; /* this */
+        default:
+            throw new UnsupportedOperationException("unexpected call of " + method);
+        }
+    }
+
+    private List<String> violations(IBeanContext<?> context, IBeanFieldAccess bean) {
+        final List<IBeanFieldMetaInfo> fieldMetas = context.metaInfo().fieldMetaInfos();
+        final FieldConstraints[] constraints = this.constraints;
+        List<String> violations = null;
+        for (int ordinal = 0; ordinal < constraints.length; ordinal++) {
+            if (constraints[ordinal] == null) {
+                continue;
+            }
+            final String violation =
+                    constraints[ordinal].violation(bean.getFieldValue(fieldMetas.get(ordinal)));
+            if (violation != null) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                violations.add(violation);
+            }
+        }
+        return violations == null ? ImmutableList.of() : ImmutableList.copyOf(violations);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.handler;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.IBeanFieldMetaInfo;
+import org.coliper.ibean.IBeanTypeMetaInfo;
+import org.coliper.ibean.extension.BeanVersionConflictException;
+import org.coliper.ibean.extension.Versioned;
+import org.coliper.ibean.proxy.ExtensionHandler;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+/**
+ * {@link ExtensionHandler} implementation for bean extension interface
+ * {@link Versioned}.
+ *
+ * @author alex@coliper.org
+ */
+public class VersionedHandler extends StatefulExtensionHandler implements Versioned {
+    /**
+     * {@link ExtensionSupport} related to this handler supposed to be used when
+     * configuring extension handlers in {@link IBeanFactory}s, for example in
+     * {@link ProxyIBeanFactory.Builder#withInterfaceSupport(ExtensionSupport)}.
+     */
+    public static final ExtensionSupport SUPPORT =
+            new ExtensionSupport(Versioned.class, VersionedHandler.class, true/* stateful */);
+
+    private static final AtomicLongFieldUpdater<VersionedHandler> VERSION_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(VersionedHandler.class, "version");
+
+    // volatile as the version is supposed to be read from other threads
+    private volatile long version = 0L;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.coliper.ibean.proxy.ExtensionHandler#onResetStateful(java.lang.Object,
+     * org.coliper.ibean.IBeanTypeMetaInfo)
+     */
+    @Override
+    public void onResetStateful(Object proxyInstance, IBeanTypeMetaInfo<?> metaInfo) {
+        // the version is not set back to 0 as versions taken before the reset
+        // must not match afterwards
+        VERSION_UPDATER.incrementAndGet(this);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.proxy.ExtensionHandler#afterSetterCall(org.coliper.
+     * ibean.proxy.IBeanContext, org.coliper.ibean.IBeanFieldMetaInfo,
+     * java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void afterSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+            Object newValue, Object proxyInstance) {
+        VERSION_UPDATER.incrementAndGet(this);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Versioned#version()
+     */
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Versioned#isUnchangedSince(long)
+     */
+    @Override
+    public boolean isUnchangedSince(long version) {
+        return this.version == version;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.coliper.ibean.extension.Versioned#assertUnchangedSince(long)
+     */
+    @Override
+    public void assertUnchangedSince(long version) throws BeanVersionConflictException {
+        // check only, not atomic with subsequent setter calls (see Versioned)
+        final long currentVersion = this.version;
+        if (currentVersion != version) {
+            throw new BeanVersionConflictException(version, currentVersion);
+        }
+    }
+}
@@ -187,6 +187,47 @@ public class ReflectionUtil {
         return ret;
     }
 
+    /**
+     * Applies the widening primitive conversion of the Java language to a boxed
+     * primitive value, for example converts an {@link Integer} into a
+     * {@link Long} if the target type is <code>long.class</code> or
+     * <code>Long.class</code>. Needed whenever a value that passed a check like
+     * {@link ClassUtils#isAssignable(Class, Class, boolean)} is stored as is
+     * and later unboxed as the target type.
+     * 
+     * @param value
+     *            any value or <code>null</code>
+     * @param targetType
+     *            the type the value is to be assigned to
+     * @return the widened value if <code>value</code> is a boxed primitive
+     *         that can be widened to the primitive type of
+     *         <code>targetType</code>; otherwise <code>value</code> unchanged
+     */
+    public static Object widenPrimitiveValue(Object value, Class<?> targetType) {
+        requireNonNull(targetType, "targetType");
+        final Class<?> primitiveType =
+                targetType.isPrimitive() ? targetType : ClassUtils.wrapperToPrimitive(targetType);
+        if (value == null || primitiveType == null
+                || ClassUtils.primitiveToWrapper(primitiveType).isInstance(value)
+                || !ClassUtils.isAssignable(value.getClass(), primitiveType, true)) {
+            return value;
+        }
+        final Number number = value instanceof Character
+                ? Integer.valueOf(((Character) value).charValue()) : (Number) value;
+        if (primitiveType == short.class) {
+            return Short.valueOf(number.shortValue());
+        } else if (primitiveType == int.class) {
+            return Integer.valueOf(number.intValue());
+        } else if (primitiveType == long.class) {
+            return Long.valueOf(number.longValue());
+        } else if (primitiveType == float.class) {
+            return Float.valueOf(number.floatValue());
+        } else if (primitiveType == double.class) {
+            return Double.valueOf(number.doubleValue());
+        }
+        return value;
+    }
+
     /*
      * no instances
      */
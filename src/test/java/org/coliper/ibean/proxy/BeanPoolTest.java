@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class BeanPoolTest {
+
+    public static interface PooledBean
+            extends ModificationAwareExt, Freezable<PooledBean> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+
+        int getInt();
+        void setInt(int i);
+      //@formatter:on
+    }
+
+    public static interface OtherBean {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+      //@formatter:on
+    }
+
+    private final ProxyIBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testAcquireFromEmptyPool() throws Exception {
+        IBeanPool<PooledBean> pool = this.factory.createPool(PooledBean.class, 2);
+        assertThat(pool.capacity()).isEqualTo(2);
+        assertThat(pool.idleCount()).isEqualTo(0);
+        PooledBean bean = pool.acquire();
+        assertThat(bean).isNotNull();
+        assertThat(bean.getString()).isNull();
+        assertThat(pool.idleCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReleasedBeanIsReused() throws Exception {
+        IBeanPool<PooledBean> pool = this.factory.createPool(PooledBean.class, 2);
+        PooledBean bean = pool.acquire();
+        pool.release(bean);
+        assertThat(pool.idleCount()).isEqualTo(1);
+        assertThat(pool.acquire()).isSameAs(bean);
+        assertThat(pool.idleCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReleaseResetsFieldsAndHandlerState() throws Exception {
+        IBeanPool<PooledBean> pool = this.factory.createPool(PooledBean.class, 2);
+        PooledBean bean = pool.acquire();
+        bean.setString("abc");
+        bean.setInt(42);
+        bean.freeze();
+        assertThat(bean.isModified()).isTrue();
+        assertThat(bean.allFieldsModified()).isTrue();
+
+        pool.release(bean);
+        PooledBean reused = pool.acquire();
+
+        assertThat(reused.getString()).isNull();
+        assertThat(reused.getInt()).isEqualTo(0);
+        assertThat(reused.isModified()).isFalse();
+        assertThat(reused.getModifiedFieldNames()).isEmpty();
+        assertThat(reused.isFrozen()).isFalse();
+        reused.setString("xyz");
+        assertThat(reused.getModifiedFieldNames()).containsExactly("string");
+    }
+
+    @Test
+    public void testReleaseIntoFullPool() throws Exception {
+        IBeanPool<PooledBean> pool = this.factory.createPool(PooledBean.class, 1);
+        PooledBean bean1 = pool.acquire();
+        PooledBean bean2 = pool.acquire();
+        pool.release(bean1);
+        pool.release(bean2);
+        assertThat(pool.idleCount()).isEqualTo(1);
+        assertThat(pool.acquire()).isSameAs(bean1);
+    }
+
+    @Test
+    public void testInvalidRelease() throws Exception {
+        IBeanPool<PooledBean> pool = this.factory.createPool(PooledBean.class, 2);
+        PooledBean foreignBean = ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build()
+                .create(PooledBean.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> pool.release(foreignBean));
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        IBeanPool<Object> rawPool = (IBeanPool) pool;
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> rawPool.release(this.factory.create(OtherBean.class)));
+
+        PooledBean bean = pool.acquire();
+        pool.release(bean);
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> pool.release(bean));
+        assertThat(pool.idleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentReleaseOfSameBean() throws Exception {
+        final int noOfThreads = 4;
+        IBeanPool<PooledBean> pool = this.factory.createPool(PooledBean.class, noOfThreads);
+        for (int round = 0; round < 100; round++) {
+            PooledBean bean = pool.acquire();
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger successCount = new AtomicInteger();
+            Thread[] threads = new Thread[noOfThreads];
+            for (int i = 0; i < noOfThreads; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        start.await();
+                        pool.release(bean);
+                        successCount.incrementAndGet();
+                    } catch (IllegalStateException | InterruptedException e) {
+                        // expected for all threads but one
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertThat(successCount.get()).isEqualTo(1);
+            assertThat(pool.idleCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testInvalidCapacity() throws Exception {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> this.factory.createPool(PooledBean.class, 0));
+    }
+}
@@ -16,6 +16,8 @@ import org.coliper.ibean.PrimitivesBeanClassicImpl;
 import org.coliper.ibean.SampleBeanClassic;
 import org.coliper.ibean.SampleBeanClassicImpl;
 import org.coliper.ibean.extension.CloneableBean;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAware;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
@@ -129,4 +131,176 @@ public class CloningTest {
         assertThat(nestedCopy).isNotSameAs(nestedOrig);
         assertThat(nestedCopy.getList()).isSameAs(nestedOrig.getList());
     }
+
+    public static interface ModificationAwareCloneable
+            extends ModificationAware, Freezable<ModificationAwareCloneable>,
+            CloneableBean<ModificationAwareCloneable> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+
+        List<String> getList();
+        void setList(List<String> l);
+      //@formatter:on
+    }
+
+    @Test
+    public void testCloneHasInitialExtensionState() throws Exception {
+        ModificationAwareCloneable orig = this.factory.create(ModificationAwareCloneable.class);
+        orig.setString("abc");
+        orig.setList(Lists.newArrayList("x", "y"));
+        orig.freeze();
+
+        ModificationAwareCloneable clone = orig.clone();
+        assertThat(clone.getString()).isEqualTo("abc");
+        assertThat(clone.getList()).isSameAs(orig.getList());
+        assertThat(clone.isModified()).isFalse();
+        assertThat(clone.isFrozen()).isFalse();
+
+        ModificationAwareCloneable deepClone = orig.deepClone();
+        assertThat(deepClone.getString()).isSameAs(orig.getString());
+        assertThat(deepClone.getList()).isNotSameAs(orig.getList());
+        assertThat(deepClone.getList()).isEqualTo(orig.getList());
+        assertThat(deepClone.isModified()).isFalse();
+        assertThat(deepClone.isFrozen()).isFalse();
+
+        clone.setString("xyz");
+        assertThat(orig.getString()).isEqualTo("abc");
+    }
+
+    @Test
+    public void testCopyOnWriteClone() throws Exception {
+        IBeanFactory cowFactory = ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                .withCopyOnWriteCloning(true).build();
+        SampleBeanClassic expected = new SampleBeanClassicImpl().fillWithTestValues();
+        SampleBeanClassicCloneable bean = cowFactory.create(SampleBeanClassicCloneable.class);
+        expected.copyTo(bean);
+
+        SampleBeanClassicCloneable clone1 = bean.clone();
+        SampleBeanClassicCloneable clone2 = bean.clone();
+        BeanTestUtil.assertEqualsBean(SampleBeanClassic.class, BeanStyle.CLASSIC, expected,
+                clone1);
+
+        clone1.setString("changed in clone");
+        assertThat(bean.getString()).isEqualTo(expected.getString());
+        assertThat(clone2.getString()).isEqualTo(expected.getString());
+
+        bean.setIntObject(-1);
+        assertThat(clone1.getIntObject()).isEqualTo(expected.getIntObject());
+        assertThat(clone2.getIntObject()).isEqualTo(expected.getIntObject());
+        assertThat(clone1.getString()).isEqualTo("changed in clone");
+
+        clone2.setString("changed in clone 2");
+        assertThat(bean.getString()).isEqualTo(expected.getString());
+        assertThat(clone1.getString()).isEqualTo("changed in clone");
+    }
+
+    @Test
+    public void testCopyOnWriteCloneHasInitialExtensionState() throws Exception {
+        IBeanFactory cowFactory = ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                .withCopyOnWriteCloning(true).build();
+        ModificationAwareCloneable orig = cowFactory.create(ModificationAwareCloneable.class);
+        orig.setString("abc");
+        orig.freeze();
+
+        ModificationAwareCloneable clone = orig.clone();
+        assertThat(clone.getString()).isEqualTo("abc");
+        assertThat(clone.isModified()).isFalse();
+        assertThat(clone.isFrozen()).isFalse();
+
+        clone.setString("xyz");
+        assertThat(clone.isModified()).isTrue();
+        assertThat(orig.getString()).isEqualTo("abc");
+    }
+
+    public static interface GraphNode extends CloneableBean<GraphNode> {
+      //@formatter:off
+        String getName();
+        void setName(String n);
+
+        GraphNode getNext();
+        void setNext(GraphNode n);
+
+        List<GraphNode> getChildren();
+        void setChildren(List<GraphNode> l);
+      //@formatter:on
+    }
+
+    private GraphNode createNode(IBeanFactory factory, String name) {
+        GraphNode node = factory.create(GraphNode.class);
+        node.setName(name);
+        return node;
+    }
+
+    @Test
+    public void testDeepClonePreservesSharedReferences() throws Exception {
+        GraphNode shared = this.createNode(this.factory, "shared");
+        GraphNode root = this.createNode(this.factory, "root");
+        GraphNode child = this.createNode(this.factory, "child");
+        child.setNext(shared);
+        root.setNext(shared);
+        root.setChildren(Lists.newArrayList(child, shared, child));
+
+        GraphNode rootClone = root.deepClone();
+
+        assertThat(rootClone.getNext()).isNotSameAs(shared);
+        assertThat(rootClone.getNext().getName()).isEqualTo("shared");
+        assertThat(rootClone.getChildren().get(1)).isSameAs(rootClone.getNext());
+        assertThat(rootClone.getChildren().get(0)).isNotSameAs(child);
+        assertThat(rootClone.getChildren().get(0)).isSameAs(rootClone.getChildren().get(2));
+        assertThat(rootClone.getChildren().get(0).getNext()).isSameAs(rootClone.getNext());
+    }
+
+    @Test
+    public void testDeepCloneWithCycles() throws Exception {
+        GraphNode node1 = this.createNode(this.factory, "1");
+        GraphNode node2 = this.createNode(this.factory, "2");
+        node1.setNext(node2);
+        node2.setNext(node1);
+        List<GraphNode> list = Lists.newArrayList(node1);
+        node1.setChildren(list);
+        node2.setChildren(list);
+
+        GraphNode clone1 = node1.deepClone();
+
+        GraphNode clone2 = clone1.getNext();
+        assertThat(clone2).isNotSameAs(node2);
+        assertThat(clone2.getName()).isEqualTo("2");
+        assertThat(clone2.getNext()).isSameAs(clone1);
+        assertThat(clone1.getChildren()).isNotSameAs(list);
+        assertThat(clone1.getChildren()).isSameAs(clone2.getChildren());
+        assertThat(clone1.getChildren().get(0)).isSameAs(clone1);
+
+        // a new deepClone call starts with a fresh identity map
+        assertThat(node1.deepClone()).isNotSameAs(clone1);
+    }
+
+    @Test
+    public void testParallelDeepClone() throws Exception {
+        IBeanFactory parallelFactory = ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                .withParallelDeepCloning(100).build();
+        GraphNode shared = this.createNode(parallelFactory, "shared");
+        GraphNode root = this.createNode(parallelFactory, "root");
+        List<GraphNode> children = Lists.newArrayList();
+        for (int i = 0; i < 5000; i++) {
+            GraphNode child = this.createNode(parallelFactory, "child" + i);
+            child.setNext(shared);
+            child.setChildren(Lists.newArrayList(shared));
+            children.add(child);
+        }
+        root.setChildren(children);
+
+        GraphNode rootClone = root.deepClone();
+
+        assertThat(rootClone.getChildren()).hasSize(5000);
+        GraphNode sharedClone = rootClone.getChildren().get(0).getNext();
+        assertThat(sharedClone).isNotSameAs(shared);
+        for (int i = 0; i < 5000; i++) {
+            GraphNode childClone = rootClone.getChildren().get(i);
+            assertThat(childClone).isNotSameAs(children.get(i));
+            assertThat(childClone.getName()).isEqualTo("child" + i);
+            assertThat(childClone.getNext()).isSameAs(sharedClone);
+            assertThat(childClone.getChildren().get(0)).isSameAs(sharedClone);
+        }
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class IBeanMapperTest {
+
+    public static interface Order extends ModificationAwareExt, Freezable<Order> {
+      //@formatter:off
+        String getId();
+        void setId(String s);
+
+        int getQuantity();
+        void setQuantity(int i);
+
+        Long getPrice();
+        void setPrice(Long l);
+
+        List<String> getTags();
+        void setTags(List<String> l);
+
+        String getInternalNote();
+        void setInternalNote(String s);
+      //@formatter:on
+    }
+
+    public static interface OrderSummary {
+      //@formatter:off
+        String getId();
+        void setId(String s);
+
+        Integer getQuantity();
+        void setQuantity(Integer i);
+
+        String getPrice();
+        void setPrice(String s);
+      //@formatter:on
+    }
+
+    public static interface OrderTotals {
+      //@formatter:off
+        long getQuantity();
+        void setQuantity(long l);
+
+        Object getPrice();
+        void setPrice(Object o);
+      //@formatter:on
+    }
+
+    public static class OrderDto {
+        private String id;
+        private long quantity;
+        private long price;
+        private List<String> tags;
+
+        public String getId() {
+            return this.id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public long getQuantity() {
+            return this.quantity;
+        }
+
+        public void setQuantity(long quantity) {
+            this.quantity = quantity;
+        }
+
+        public long getPrice() {
+            return this.price;
+        }
+
+        public void setPrice(long price) {
+            this.price = price;
+        }
+
+        public List<String> getTags() {
+            return this.tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+
+    private final ProxyIBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    private Order createOrder() {
+        Order order = this.factory.create(Order.class);
+        order.setId("o-1");
+        order.setQuantity(3);
+        order.setPrice(250L);
+        order.setTags(Arrays.asList("a", "b"));
+        order.setInternalNote("secret");
+        return order;
+    }
+
+    @Test
+    public void testBeanToBean() throws Exception {
+        IBeanMapper<Order, OrderSummary> mapper =
+                this.factory.mapper(Order.class, OrderSummary.class);
+        assertThat(mapper.mappedFieldNames()).containsOnly("id", "quantity");
+        assertThat(this.factory.mapper(Order.class, OrderSummary.class)).isSameAs(mapper);
+
+        OrderSummary summary = mapper.map(this.createOrder());
+        assertThat(summary.getId()).isEqualTo("o-1");
+        assertThat(summary.getQuantity()).isEqualTo(3);
+        assertThat(summary.getPrice()).isNull();
+    }
+
+    @Test
+    public void testBeanToPojo() throws Exception {
+        IBeanMapper<Order, OrderDto> mapper = this.factory.mapper(Order.class, OrderDto.class);
+        assertThat(mapper.mappedFieldNames()).containsOnly("id", "quantity", "price", "tags");
+        Order order = this.createOrder();
+        OrderDto dto = mapper.map(order);
+        assertThat(dto.getId()).isEqualTo("o-1");
+        assertThat(dto.getQuantity()).isEqualTo(3L);
+        assertThat(dto.getPrice()).isEqualTo(250L);
+        assertThat(dto.getTags()).isSameAs(order.getTags());
+
+        order.setPrice(null);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> mapper.map(order));
+    }
+
+    @Test
+    public void testPojoToBean() throws Exception {
+        IBeanMapper<OrderDto, Order> mapper = this.factory.mapper(OrderDto.class, Order.class);
+        // long does not fit into int
+        assertThat(mapper.mappedFieldNames()).containsOnly("id", "price", "tags");
+        OrderDto dto = new OrderDto();
+        dto.setId("o-2");
+        dto.setPrice(7L);
+        Order order = mapper.map(dto);
+        assertThat(order.getId()).isEqualTo("o-2");
+        assertThat(order.getPrice()).isEqualTo(7L);
+        assertThat(order.getQuantity()).isEqualTo(0);
+        assertThat(order.getModifiedFieldNames()).containsOnly("id", "price", "tags");
+    }
+
+    @Test
+    public void testPrimitiveWidening() throws Exception {
+        IBeanMapper<Order, OrderTotals> mapper =
+                this.factory.mapper(Order.class, OrderTotals.class);
+        assertThat(mapper.mappedFieldNames()).containsOnly("quantity", "price");
+        OrderTotals totals = mapper.map(this.createOrder());
+        assertThat(totals.getQuantity()).isEqualTo(3L);
+        assertThat(totals.getPrice()).isEqualTo(250L);
+
+        // widening is not applied the other way round
+        assertThat(this.factory.mapper(OrderTotals.class, Order.class).mappedFieldNames())
+                .isEmpty();
+    }
+
+    @Test
+    public void testCopyRunsExtensionHandlers() throws Exception {
+        IBeanMapper<Order, Order> mapper = this.factory.mapper(Order.class, Order.class);
+        Order source = this.createOrder();
+        Order target = this.factory.create(Order.class);
+        target.setInternalNote("own");
+        target.resetModified();
+        source.setInternalNote(null);
+        mapper.copy(source, target);
+        assertThat(target.getId()).isEqualTo("o-1");
+        assertThat(target.getInternalNote()).isNull();
+        assertThat(target.allFieldsModified()).isTrue();
+
+        target.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> mapper.copy(source, target));
+    }
+
+    @Test
+    public void testInvalidMappers() throws Exception {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> this.factory.mapper(OrderDto.class, OrderDto.class));
+        IBeanMapper<Order, OrderDto> mapper = this.factory.mapper(Order.class, OrderDto.class);
+        Order foreignBean = ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build()
+                .create(Order.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> mapper.map(foreignBean));
+    }
+}
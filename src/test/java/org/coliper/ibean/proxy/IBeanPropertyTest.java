@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.coliper.ibean.BeanStyle;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class IBeanPropertyTest {
+
+    public static interface Customer extends ModificationAwareExt, Freezable<Customer> {
+      //@formatter:off
+        String getName();
+        void setName(String s);
+
+        int getAge();
+        void setAge(int i);
+
+        Long getRevenue();
+        void setRevenue(Long l);
+
+        boolean isActive();
+        void setActive(boolean b);
+
+        List<String> getTags();
+        void setTags(List<String> l);
+      //@formatter:on
+    }
+
+    public static interface OptionalBean {
+      //@formatter:off
+        Optional<String> getName();
+        void setName(String s);
+      //@formatter:on
+    }
+
+    private final ProxyIBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testGetAndSet() throws Exception {
+        IBeanProperty<Customer, String> name =
+                this.factory.property(Customer.class, Customer::getName);
+        assertThat(name.name()).isEqualTo("name");
+        assertThat(name.type()).isEqualTo(String.class);
+        assertThat(name.beanType()).isEqualTo(Customer.class);
+
+        Customer customer = this.factory.create(Customer.class);
+        assertThat(name.get(customer)).isNull();
+        name.set(customer, "Jo");
+        assertThat(customer.getName()).isEqualTo("Jo");
+        assertThat(name.get(customer)).isEqualTo("Jo");
+        assertThat(customer.getModifiedFieldNames()).containsExactly("name");
+
+        customer.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> name.set(customer, "Al"));
+    }
+
+    @Test
+    public void testPrimitiveAccess() throws Exception {
+        IBeanProperty<Customer, Integer> age =
+                this.factory.property(Customer.class, Customer::getAge);
+        IBeanProperty<Customer, Long> revenue =
+                this.factory.property(Customer.class, "revenue", Long.class);
+        IBeanProperty<Customer, Boolean> active =
+                this.factory.property(Customer.class, Customer::isActive);
+        Customer customer = this.factory.create(Customer.class);
+        customer.setAge(42);
+        customer.setActive(true);
+
+        assertThat(age.getInt(customer)).isEqualTo(42);
+        assertThat(age.getLong(customer)).isEqualTo(42L);
+        assertThat(age.getDouble(customer)).isEqualTo(42.0);
+        assertThat(active.getBoolean(customer)).isTrue();
+        assertThatExceptionOfType(NullPointerException.class)
+                .isThrownBy(() -> revenue.getLong(customer));
+        revenue.set(customer, 7L);
+        assertThat(revenue.getLong(customer)).isEqualTo(7L);
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> revenue.getInt(customer));
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> active.getInt(customer));
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> age.getBoolean(customer));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> age.set(customer, null));
+    }
+
+    @Test
+    public void testInvalidProperties() throws Exception {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> this.factory.property(Customer.class, "unknown", String.class));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> this.factory.property(Customer.class, "age", Long.class));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> this.factory.property(Customer.class, c -> c.toString()));
+        assertThat(this.factory.property(Customer.class, "tags", List.class).type())
+                .isEqualTo(List.class);
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        IBeanProperty<Customer, Object> rawRevenue =
+                (IBeanProperty) this.factory.property(Customer.class, Customer::getRevenue);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> rawRevenue.set(this.factory.create(Customer.class), "x"));
+
+        ProxyIBeanFactory optionalFactory = ProxyIBeanFactory.builder()
+                .withBeanStyle(BeanStyle.CLASSIC_WITH_OPTIONAL).build();
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+                () -> optionalFactory.property(OptionalBean.class, OptionalBean::getName));
+        assertThat(optionalFactory.property(OptionalBean.class, "name", String.class).type())
+                .isEqualTo(String.class);
+    }
+
+    @Test
+    public void testBeanOfOtherFactory() throws Exception {
+        IBeanProperty<Customer, String> name =
+                this.factory.property(Customer.class, Customer::getName);
+        Customer foreignBean = ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build()
+                .create(Customer.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> name.get(foreignBean));
+    }
+}
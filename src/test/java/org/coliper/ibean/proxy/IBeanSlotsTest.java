@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class IBeanSlotsTest {
+
+    public static interface Quote extends ModificationAwareExt, Freezable<Quote> {
+      //@formatter:off
+        double getAsk();
+        void setAsk(double d);
+
+        Float getBid();
+        void setBid(Float f);
+
+        String getSymbol();
+        void setSymbol(String s);
+
+        long getTime();
+        void setTime(long l);
+
+        short getVolume();
+        void setVolume(short s);
+      //@formatter:on
+    }
+
+    // ordinals follow the alphabetical order of the field names
+    private static final int ASK = 0;
+    private static final int BID = 1;
+    private static final int TIME = 3;
+    private static final int VOLUME = 4;
+
+    private final ProxyIBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    private Quote createQuote() {
+        Quote quote = this.factory.create(Quote.class);
+        quote.setAsk(1.5);
+        quote.setBid(1.25f);
+        quote.setSymbol("XYZ");
+        quote.setTime(1000L);
+        quote.setVolume((short) 12);
+        return quote;
+    }
+
+    @Test
+    public void testObjectArrayRoundTrip() throws Exception {
+        IBeanSlots<Quote> slots = this.factory.slots(Quote.class);
+        assertThat(slots.noOfFields()).isEqualTo(5);
+        Object[] row = new Object[7];
+        slots.exportTo(this.createQuote(), row, 1);
+        assertThat(row).containsExactly(null, 1.5, 1.25f, "XYZ", 1000L, (short) 12, null);
+
+        row[3] = "ABC";
+        Quote copy = slots.create(row, 1);
+        assertThat(copy.getSymbol()).isEqualTo("ABC");
+        assertThat(copy.getTime()).isEqualTo(1000L);
+        assertThat(copy.allFieldsModified()).isTrue();
+
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+                .isThrownBy(() -> slots.exportTo(copy, row, 3));
+    }
+
+    @Test
+    public void testInvalidImport() throws Exception {
+        IBeanSlots<Quote> slots = this.factory.slots(Quote.class);
+        Quote quote = this.createQuote();
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+                () -> slots.importFrom(quote, new Object[] { 2.0, null, "A", null, null }, 0));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+                () -> slots.importFrom(quote, new Object[] { 2.0, null, "A", 1, (short) 1 }, 0));
+        assertThat(quote.getAsk()).isEqualTo(1.5);
+
+        quote.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class).isThrownBy(() -> slots
+                .importFrom(quote, new Object[] { 2.0, null, "A", 1L, (short) 1 }, 0));
+    }
+
+    @Test
+    public void testPrimitiveArrays() throws Exception {
+        IBeanSlots<Quote> slots = this.factory.slots(Quote.class);
+        Quote quote = this.createQuote();
+        long[] longs = new long[2];
+        slots.exportLongs(quote, new int[] { TIME, VOLUME }, longs, 0);
+        assertThat(longs).containsExactly(1000L, 12L);
+        double[] doubles = new double[3];
+        slots.exportDoubles(quote, new int[] { ASK, BID, VOLUME }, doubles, 0);
+        assertThat(doubles).containsExactly(1.5, 1.25, 12.0);
+
+        quote.resetModified();
+        slots.importLongs(quote, new int[] { VOLUME, TIME }, new long[] { 0L, 7L, 8L }, 1);
+        assertThat(quote.getVolume()).isEqualTo((short) 7);
+        assertThat(quote.getTime()).isEqualTo(8L);
+        slots.importDoubles(quote, new int[] { BID, ASK }, new double[] { 0.5, 2.5 }, 0);
+        assertThat(quote.getBid()).isEqualTo(0.5f);
+        assertThat(quote.getAsk()).isEqualTo(2.5);
+        assertThat(quote.getModifiedFieldNames()).containsOnly("volume", "time", "bid", "ask");
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> slots
+                .importLongs(quote, new int[] { TIME, VOLUME }, new long[] { 1L, 40000L }, 0));
+        assertThat(quote.getTime()).isEqualTo(8L);
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+                () -> slots.exportLongs(quote, new int[] { ASK }, new long[1], 0));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+                () -> slots.importDoubles(quote, new int[] { TIME }, new double[1], 0));
+
+        quote.setBid(null);
+        assertThatExceptionOfType(NullPointerException.class).isThrownBy(
+                () -> slots.exportDoubles(quote, new int[] { BID }, new double[1], 0));
+    }
+
+    @Test
+    public void testAtomicConcurrencyMode() throws Exception {
+        ProxyIBeanFactory atomicFactory = ProxyIBeanFactory.builder()
+                .withDefaultInterfaceSupport().withConcurrencyMode(ConcurrencyMode.ATOMIC).build();
+        IBeanSlots<Quote> slots = atomicFactory.slots(Quote.class);
+        Object[] row = new Object[] { 1.0, 2.0f, "S", 3L, (short) 4 };
+        Quote quote = slots.create(row, 0);
+        Object[] exported = new Object[5];
+        slots.exportTo(quote, exported, 0);
+        assertThat(exported).containsExactly(row);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.coliper.ibean.extension.AtomicFields;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Completable;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.coliper.ibean.proxy.ConcurrencyMode;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class AtomicFieldsTest {
+
+    public static interface CounterBean extends AtomicFields, Freezable<CounterBean>,
+            ModificationAwareExt, Completable<CounterBean> {
+      //@formatter:off
+        int getHits();
+        void setHits(int i);
+
+        long getBytes();
+        void setBytes(long l);
+
+        String getState();
+        void setState(String s);
+      //@formatter:on
+    }
+
+    private static final int NO_OF_THREADS = 8;
+    private static final int NO_OF_INCREMENTS = 20000;
+
+    private static ProxyIBeanFactory factory(ConcurrencyMode mode) {
+        return ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                .withConcurrencyMode(mode).build();
+    }
+
+    @Test
+    public void testOperations() throws Exception {
+        for (ConcurrencyMode mode : ConcurrencyMode.values()) {
+            CounterBean bean = factory(mode).create(CounterBean.class);
+            // fields sorted by name: bytes, hits, state
+            assertThat(bean.incrementAndGet("hits")).isEqualTo(1L);
+            assertThat(bean.getAndAdd(1, 10L)).isEqualTo(1L);
+            assertThat(bean.getHits()).isEqualTo(11);
+            assertThat(bean.getAndAdd("bytes", 1L << 40)).isEqualTo(0L);
+            assertThat(bean.incrementAndGet(0)).isEqualTo((1L << 40) + 1);
+
+            assertThat(bean.compareAndSet("hits", 5, 6)).isFalse();
+            assertThat(bean.compareAndSet("hits", 11, 12)).isTrue();
+            assertThat(bean.getHits()).isEqualTo(12);
+
+            final String state = "open";
+            assertThat(bean.compareAndSet("state", null, state)).isTrue();
+            assertThat(bean.isComplete()).isTrue();
+            assertThat(bean.compareAndSet(2, new String("open"), "x")).isFalse();
+            assertThat(bean.getAndSet("state", null)).isSameAs(state);
+            assertThat(bean.isComplete()).isFalse();
+            assertThat(bean.getModifiedFieldNames()).containsExactly("bytes", "hits", "state");
+        }
+    }
+
+    @Test
+    public void testIntOverflow() throws Exception {
+        CounterBean bean = factory(ConcurrencyMode.ATOMIC).create(CounterBean.class);
+        bean.setHits(Integer.MAX_VALUE);
+        assertThat(bean.incrementAndGet("hits")).isEqualTo(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testInvalidCalls() throws Exception {
+        CounterBean bean = factory(ConcurrencyMode.ATOMIC).create(CounterBean.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> bean.incrementAndGet("state"));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> bean.incrementAndGet("unknown"));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> bean.getAndSet(3, null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> bean.getAndSet("hits", null));
+        bean.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> bean.incrementAndGet("hits"));
+        assertThat(bean.getHits()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRejectedOperationDoesNotMarkModified() throws Exception {
+        for (ConcurrencyMode mode : ConcurrencyMode.values()) {
+            CounterBean bean = factory(mode).create(CounterBean.class);
+            bean.freeze();
+            // ModificationAwareExt is intercepted before Freezable rejects
+            assertThatExceptionOfType(BeanFrozenException.class)
+                    .isThrownBy(() -> bean.incrementAndGet("hits"));
+            assertThatExceptionOfType(BeanFrozenException.class)
+                    .isThrownBy(() -> bean.setState("x"));
+            assertThat(bean.isModified()).isFalse();
+            assertThat(bean.getModifiedFieldNames()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws Exception {
+        for (ConcurrencyMode mode : ConcurrencyMode.values()) {
+            final CounterBean bean = factory(mode).create(CounterBean.class);
+            final ExecutorService executor = Executors.newFixedThreadPool(NO_OF_THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < NO_OF_THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        for (int j = 0; j < NO_OF_INCREMENTS; j++) {
+                            bean.incrementAndGet("hits");
+                            bean.getAndAdd("bytes", 3L);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            assertThat(bean.getHits()).isEqualTo(NO_OF_THREADS * NO_OF_INCREMENTS);
+            assertThat(bean.getBytes()).isEqualTo(3L * NO_OF_THREADS * NO_OF_INCREMENTS);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.extension.AtomicUpdatable;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class AtomicUpdatableTest {
+
+    public static interface Quote extends AtomicUpdatable<Quote> {
+      //@formatter:off
+        long getBid();
+        void setBid(long l);
+
+        long getAsk();
+        void setAsk(long l);
+
+        String getSymbol();
+        void setSymbol(String s);
+      //@formatter:on
+    }
+
+    private static final int NO_OF_UPDATES = 200000;
+    private static final int NO_OF_READERS = 3;
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testUpdateAndRead() throws Exception {
+        Quote quote = this.factory.create(Quote.class);
+        assertThat(quote.update(q -> {
+            q.setBid(10L);
+            q.setAsk(12L);
+        })).isSameAs(quote);
+        long spread = quote.read(q -> q.getAsk() - q.getBid());
+        assertThat(spread).isEqualTo(2L);
+    }
+
+    @Test
+    public void testNestedCalls() throws Exception {
+        Quote quote = this.factory.create(Quote.class);
+        quote.update(q -> {
+            q.setBid(1L);
+            q.update(q2 -> q2.setAsk(q2.read(q3 -> q3.getBid()) + 1));
+        });
+        assertThat(quote.getAsk()).isEqualTo(2L);
+        long ask = quote.read(q -> q.read(Quote::getAsk));
+        assertThat(ask).isEqualTo(2L);
+    }
+
+    @Test
+    public void testExceptions() throws Exception {
+        Quote quote = this.factory.create(Quote.class);
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> quote.update(q -> {
+            q.setBid(5L);
+            throw new IllegalStateException();
+        }));
+        // lock got released, changes done so far are kept
+        quote.update(q -> q.setAsk(6L));
+        assertThat(quote.getBid()).isEqualTo(5L);
+        assertThatExceptionOfType(NullPointerException.class)
+                .isThrownBy(() -> quote.read(q -> q.getSymbol().length()));
+    }
+
+    @Test
+    public void testReadersNeverSeeTornUpdates() throws Exception {
+        final Quote quote = this.factory.create(Quote.class);
+        quote.update(q -> q.setAsk(1L));
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread writer = new Thread(() -> {
+            for (long i = 1; i <= NO_OF_UPDATES; i++) {
+                final long bid = i;
+                quote.update(q -> {
+                    q.setBid(bid);
+                    q.setAsk(bid + 1);
+                });
+            }
+        });
+        final Thread[] readers = new Thread[NO_OF_READERS];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                try {
+                    long lastBid = 0L;
+                    while (lastBid < NO_OF_UPDATES) {
+                        final long[] bidAsk =
+                                quote.read(q -> new long[] { q.getBid(), q.getAsk() });
+                        assertThat(bidAsk[1]).isEqualTo(bidAsk[0] + 1);
+                        assertThat(bidAsk[0]).isGreaterThanOrEqualTo(lastBid);
+                        lastBid = bidAsk[0];
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            readers[i].start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertThat(failure.get()).isNull();
+    }
+}
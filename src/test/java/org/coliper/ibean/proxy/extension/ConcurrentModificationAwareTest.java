@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.coliper.ibean.proxy.ConcurrencyMode;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * Runs all tests of {@link ExtensionModificationAwareTest} with a factory in
+ * {@link ConcurrencyMode#CONCURRENT}.
+ * 
+ * @author alex@coliper.org
+ */
+public class ConcurrentModificationAwareTest extends ExtensionModificationAwareTest {
+
+    public static interface CounterBean extends ModificationAwareExt {
+      //@formatter:off
+        int getA(); void setA(int i);
+        int getB(); void setB(int i);
+        int getC(); void setC(int i);
+        int getD(); void setD(int i);
+        int getE(); void setE(int i);
+        int getF(); void setF(int i);
+      //@formatter:on
+    }
+
+    private static final int NO_OF_ROUNDS = 2000;
+
+    @Override
+    protected ProxyIBeanFactory createFactory() {
+        return ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                .withConcurrencyMode(ConcurrencyMode.CONCURRENT).build();
+    }
+
+    @Test
+    public void testNoModificationLostOnConcurrentSetters() throws Exception {
+        final CounterBean bean = this.createFactory().create(CounterBean.class);
+        final List<Runnable> setters = new ArrayList<>();
+        setters.add(() -> bean.setA(1));
+        setters.add(() -> bean.setB(1));
+        setters.add(() -> bean.setC(1));
+        setters.add(() -> bean.setD(1));
+        setters.add(() -> bean.setE(1));
+        setters.add(() -> bean.setF(1));
+        // all setter threads plus the checking main thread
+        final CyclicBarrier barrier = new CyclicBarrier(setters.size() + 1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (Runnable setter : setters) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < NO_OF_ROUNDS; i++) {
+                        barrier.await();
+                        setter.run();
+                        barrier.await();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (int i = 0; i < NO_OF_ROUNDS; i++) {
+            bean.resetModified();
+            barrier.await();
+            barrier.await();
+            assertThat(bean.getModifiedFieldCount()).isEqualTo(setters.size());
+            assertThat(bean.allFieldsModified()).isTrue();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failure.get()).isNull();
+    }
+
+    @Test
+    public void testDeepModificationTrackingNotSupported() throws Exception {
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                        .withConcurrencyMode(ConcurrencyMode.CONCURRENT)
+                        .withDeepModificationTracking(true).build());
+    }
+}
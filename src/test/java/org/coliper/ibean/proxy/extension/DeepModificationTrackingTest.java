@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.extension.CloneableBean;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class DeepModificationTrackingTest {
+
+    public static interface Parent extends ModificationAware, CloneableBean<Parent> {
+      //@formatter:off
+        Child getChild();
+        void setChild(Child c);
+
+        List<Child> getChildren();
+        void setChildren(List<Child> c);
+
+        Parent getParent();
+        void setParent(Parent p);
+      //@formatter:on
+    }
+
+    public static interface Child extends ModificationAware {
+      //@formatter:off
+        String getName();
+        void setName(String n);
+      //@formatter:on
+    }
+
+    private final IBeanFactory factory = ProxyIBeanFactory.builder()
+            .withDefaultInterfaceSupport().withDeepModificationTracking(true).build();
+
+    @Test
+    public void testNestedBeanModification() throws Exception {
+        Parent parent = this.factory.create(Parent.class);
+        Child child = this.factory.create(Child.class);
+        parent.setChild(child);
+        parent.resetModified();
+        assertThat(parent.isModified()).isFalse();
+        assertThat(child.isModified()).isFalse();
+
+        child.setName("x");
+        assertThat(parent.isModified()).isTrue();
+
+        parent.resetModified();
+        assertThat(parent.isModified()).isFalse();
+        assertThat(child.isModified()).isFalse();
+    }
+
+    @Test
+    public void testModificationOverSeveralLevels() throws Exception {
+        Parent root = this.factory.create(Parent.class);
+        Parent middle = this.factory.create(Parent.class);
+        Child child = this.factory.create(Child.class);
+        root.setParent(middle);
+        middle.setChild(child);
+        root.resetModified();
+        assertThat(middle.isModified()).isFalse();
+
+        child.setName("x");
+        assertThat(middle.isModified()).isTrue();
+        assertThat(root.isModified()).isTrue();
+    }
+
+    @Test
+    public void testReplacedChildIsUnlinked() throws Exception {
+        Parent parent = this.factory.create(Parent.class);
+        Child oldChild = this.factory.create(Child.class);
+        parent.setChild(oldChild);
+        parent.setChild(this.factory.create(Child.class));
+        parent.resetModified();
+
+        oldChild.setName("x");
+        assertThat(parent.isModified()).isFalse();
+        parent.getChild().setName("y");
+        assertThat(parent.isModified()).isTrue();
+    }
+
+    @Test
+    public void testCollectionElements() throws Exception {
+        Parent parent = this.factory.create(Parent.class);
+        List<Child> children = new ArrayList<>();
+        children.add(this.factory.create(Child.class));
+        children.add(this.factory.create(Child.class));
+        parent.setChildren(children);
+        parent.resetModified();
+
+        children.get(1).setName("x");
+        assertThat(parent.isModified()).isTrue();
+        parent.resetModified();
+        assertThat(children.get(1).isModified()).isFalse();
+    }
+
+    @Test
+    public void testModifiedChildMarksNewParent() throws Exception {
+        Parent parent = this.factory.create(Parent.class);
+        parent.resetModified();
+        Child child = this.factory.create(Child.class);
+        child.setName("x");
+        parent.setChild(child);
+        parent.resetModified();
+        assertThat(child.isModified()).isFalse();
+
+        Parent other = this.factory.create(Parent.class);
+        other.setChild(child);
+        other.resetModified();
+        child.setName("y");
+        assertThat(other.isModified()).isTrue();
+        assertThat(parent.isModified()).isTrue();
+    }
+
+    @Test
+    public void testChildLinkedOnGetter() throws Exception {
+        Parent parent = this.factory.create(Parent.class);
+        parent.setChild(this.factory.create(Child.class));
+        Parent clone = parent.clone();
+        assertThat(clone.isModified()).isFalse();
+        // clone received its fields without setter calls
+        Child child = clone.getChild();
+        parent.resetModified();
+        child.setName("x");
+        assertThat(clone.isModified()).isTrue();
+    }
+
+    @Test
+    public void testModifiedChildLinkedOnGetter() throws Exception {
+        Parent parent = this.factory.create(Parent.class);
+        Child child = this.factory.create(Child.class);
+        parent.setChild(child);
+        child.setName("x");
+        Parent clone = parent.clone();
+        assertThat(clone.isModified()).isFalse();
+        clone.getChild();
+        assertThat(clone.isModified()).isTrue();
+        clone.resetModified();
+        assertThat(clone.isModified()).isFalse();
+        assertThat(child.isModified()).isFalse();
+        assertThat(parent.isModified()).isTrue();
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        Parent parent1 = this.factory.create(Parent.class);
+        Parent parent2 = this.factory.create(Parent.class);
+        parent1.setParent(parent2);
+        parent2.setParent(parent1);
+        parent1.resetModified();
+        assertThat(parent2.isModified()).isFalse();
+        parent2.setChild(null);
+        assertThat(parent1.isModified()).isTrue();
+        parent2.resetModified();
+        assertThat(parent1.isModified()).isFalse();
+    }
+
+    @Test
+    public void testSharedChildResetByOneParent() throws Exception {
+        Parent parent1 = this.factory.create(Parent.class);
+        Parent parent2 = this.factory.create(Parent.class);
+        Child child = this.factory.create(Child.class);
+        parent1.setChild(child);
+        parent2.setChild(child);
+        parent1.resetModified();
+        parent2.resetModified();
+
+        child.setName("x");
+        assertThat(parent1.isModified()).isTrue();
+        assertThat(parent2.isModified()).isTrue();
+
+        // resetting one parent resets the child but the other parent still
+        // knows that its child changed since its own last reset
+        parent1.resetModified();
+        assertThat(child.isModified()).isFalse();
+        assertThat(parent1.isModified()).isFalse();
+        assertThat(parent2.isModified()).isTrue();
+
+        parent2.resetModified();
+        assertThat(parent2.isModified()).isFalse();
+        child.setName("y");
+        assertThat(parent1.isModified()).isTrue();
+        assertThat(parent2.isModified()).isTrue();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        IBeanFactory defaultFactory =
+                ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+        Parent parent = defaultFactory.create(Parent.class);
+        Child child = defaultFactory.create(Child.class);
+        parent.setChild(child);
+        parent.resetModified();
+        child.setName("x");
+        assertThat(parent.isModified()).isFalse();
+    }
+}
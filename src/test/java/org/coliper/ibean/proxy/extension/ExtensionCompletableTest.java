@@ -21,7 +21,9 @@ import java.util.Optional;
 
 import org.coliper.ibean.BeanStyle;
 import org.coliper.ibean.extension.BeanIncompleteException;
+import org.coliper.ibean.extension.CloneableBean;
 import org.coliper.ibean.extension.Completable;
+import org.coliper.ibean.proxy.IBeanPool;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
 import org.junit.Test;
 
@@ -123,4 +125,43 @@ public class ExtensionCompletableTest {
         assertThatExceptionOfType(BeanIncompleteException.class)
                 .isThrownBy(() -> bean.assertComplete());
     }
+
+    public static interface CloneableBeanType
+            extends Completable<CloneableBeanType>, CloneableBean<CloneableBeanType> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+
+        Long getLong();
+        void setLong(Long l);
+      //@formatter:on
+    }
+
+    @Test
+    public void testCompletenessOfClonesAndPooledBeans() throws Exception {
+        for (boolean copyOnWrite : new boolean[] { false, true }) {
+            ProxyIBeanFactory factory = ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                    .withCopyOnWriteCloning(copyOnWrite).build();
+            CloneableBeanType bean = factory.create(CloneableBeanType.class);
+            bean.setString("a");
+            CloneableBeanType incompleteClone = bean.clone();
+            bean.setLong(1L);
+            CloneableBeanType completeClone = bean.clone();
+            assertThat(incompleteClone.isComplete()).isFalse();
+            assertThat(completeClone.isComplete()).isTrue();
+            completeClone.setString(null);
+            assertThat(completeClone.isComplete()).isFalse();
+            assertThat(bean.isComplete()).isTrue();
+        }
+
+        ProxyIBeanFactory factory =
+                ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+        IBeanPool<CloneableBeanType> pool = factory.createPool(CloneableBeanType.class, 1);
+        CloneableBeanType pooledBean = pool.acquire();
+        pooledBean.setString("a");
+        pooledBean.setLong(1L);
+        assertThat(pooledBean.isComplete()).isTrue();
+        pool.release(pooledBean);
+        assertThat(pool.acquire().isComplete()).isFalse();
+    }
 }
@@ -1,5 +1,8 @@
 package org.coliper.ibean.proxy.extension;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
 import java.util.Date;
 
 import org.coliper.ibean.BeanStyle;
@@ -11,11 +14,16 @@ import org.coliper.ibean.SampleBeanModern;
 import org.coliper.ibean.SampleBeanModernImpl;
 import org.coliper.ibean.extension.GsonSerializerDeserializerForIBeans;
 import org.coliper.ibean.extension.GsonSupport;
+import org.coliper.ibean.extension.JsonSerializationMode;
+import org.coliper.ibean.extension.ModificationAwareExt;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
 import org.junit.Test;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
 
 public class ExtensionGsonSupportTest {
 
@@ -52,6 +60,29 @@ public class ExtensionGsonSupportTest {
         Date date();
     }
 
+    public static interface TrackedChildGson extends GsonSupport, ModificationAwareExt {
+      //@formatter:off
+        String getName();
+        void setName(String n);
+
+        int getCount();
+        void setCount(int c);
+      //@formatter:on
+    }
+
+    public static interface TrackedParentGson extends GsonSupport, ModificationAwareExt {
+      //@formatter:off
+        String getName();
+        void setName(String n);
+
+        int getCount();
+        void setCount(int c);
+
+        TrackedChildGson getChild();
+        void setChild(TrackedChildGson c);
+      //@formatter:on
+    }
+
     public ExtensionGsonSupportTest() {
     }
 
@@ -164,4 +195,79 @@ public class ExtensionGsonSupportTest {
         BeanTestUtil.assertEqualsBean(Nested.class, BeanStyle.MODERN, root, copy,
                 requireNestedObjectsSame);
     }
+
+    private String toJson(Object bean, JsonSerializationMode mode) {
+        return new GsonBuilder().serializeNulls()
+                .registerTypeHierarchyAdapter(GsonSupport.class,
+                        new GsonSerializerDeserializerForIBeans(this.factoryClassic, mode))
+                .create().toJson(bean);
+    }
+
+    private TrackedParentGson createUnmodifiedParent() {
+        TrackedParentGson parent = this.factoryClassic.create(TrackedParentGson.class);
+        parent.setName("parent");
+        parent.setChild(this.factoryClassic.create(TrackedChildGson.class));
+        parent.getChild().setName("child");
+        parent.resetModified();
+        parent.getChild().resetModified();
+        return parent;
+    }
+
+    @Test
+    public void testModifiedFieldsOnly() {
+        TrackedParentGson parent = this.createUnmodifiedParent();
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS)).isEqualTo("{}");
+
+        parent.setCount(5);
+        parent.setName(null);
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS))
+                .isEqualTo("{\"count\":5,\"name\":null}");
+
+        parent.resetModified();
+        parent.getChild().setCount(3);
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS))
+                .isEqualTo("{\"child\":{\"count\":3}}");
+        assertThat(this.toJson(parent, JsonSerializationMode.ALL_FIELDS)).isEqualTo(
+                "{\"child\":{\"count\":3,\"name\":\"child\"},\"count\":5,\"name\":null}");
+    }
+
+    @Test
+    public void testMergePatch() {
+        TrackedParentGson parent = this.createUnmodifiedParent();
+        parent.getChild().setCount(3);
+        assertThat(this.toJson(parent, JsonSerializationMode.MERGE_PATCH))
+                .isEqualTo("{\"child\":{\"count\":3}}");
+
+        TrackedChildGson newChild = this.factoryClassic.create(TrackedChildGson.class);
+        newChild.setCount(7);
+        parent.setChild(newChild);
+        assertThat(this.toJson(parent, JsonSerializationMode.MERGE_PATCH))
+                .isEqualTo("{\"child\":{\"count\":7,\"name\":null}}");
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS))
+                .isEqualTo("{\"child\":{\"count\":7}}");
+    }
+
+    // GsonSupport implemented without a ProxyIBeanFactory
+    public static class HandWrittenGson implements GsonSupport {
+        @Override
+        public void readFromJsonObject(JsonObject jsonObject,
+                JsonDeserializationContext context) {
+            // not needed
+        }
+
+        @Override
+        public void writeToJsonObject(JsonObject jsonObject, JsonSerializationContext context) {
+            jsonObject.addProperty("name", "hand written");
+        }
+    }
+
+    @Test
+    public void testDefaultWriteWithMode() {
+        HandWrittenGson bean = new HandWrittenGson();
+        assertThat(this.toJson(bean, JsonSerializationMode.ALL_FIELDS))
+                .isEqualTo("{\"name\":\"hand written\"}");
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> bean.writeToJsonObject(new JsonObject(), null,
+                        JsonSerializationMode.MODIFIED_FIELDS));
+    }
 }
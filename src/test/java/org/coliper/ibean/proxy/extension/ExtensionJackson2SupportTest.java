@@ -12,6 +12,8 @@ import org.coliper.ibean.PrimitivesBeanClassicImpl;
 import org.coliper.ibean.SampleBeanModern;
 import org.coliper.ibean.extension.Jackson2ModuleForIBeans;
 import org.coliper.ibean.extension.Jackson2Support;
+import org.coliper.ibean.extension.JsonSerializationMode;
+import org.coliper.ibean.extension.ModificationAwareExt;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
 import org.junit.Test;
 
@@ -51,6 +53,29 @@ public class ExtensionJackson2SupportTest {
         Date date();
     }
 
+    public static interface TrackedChildJackson2 extends Jackson2Support, ModificationAwareExt {
+      //@formatter:off
+        String getName();
+        void setName(String n);
+
+        int getCount();
+        void setCount(int c);
+      //@formatter:on
+    }
+
+    public static interface TrackedParentJackson2 extends Jackson2Support, ModificationAwareExt {
+      //@formatter:off
+        String getName();
+        void setName(String n);
+
+        int getCount();
+        void setCount(int c);
+
+        TrackedChildJackson2 getChild();
+        void setChild(TrackedChildJackson2 c);
+      //@formatter:on
+    }
+
     public ExtensionJackson2SupportTest() {
     }
 
@@ -155,4 +180,54 @@ public class ExtensionJackson2SupportTest {
         BeanTestUtil.assertEqualsBean(Nested.class, BeanStyle.MODERN, root, copy,
                 requireNestedObjectsSame);
     }
+
+    private String toJson(Object bean, JsonSerializationMode mode) throws Exception {
+        return this.jackson2Classic.writer()
+                .withAttribute(Jackson2ModuleForIBeans.SERIALIZATION_MODE_ATTRIBUTE, mode)
+                .writeValueAsString(bean);
+    }
+
+    private TrackedParentJackson2 createUnmodifiedParent() {
+        TrackedParentJackson2 parent = this.factoryClassic.create(TrackedParentJackson2.class);
+        parent.setName("parent");
+        parent.setChild(this.factoryClassic.create(TrackedChildJackson2.class));
+        parent.getChild().setName("child");
+        parent.resetModified();
+        parent.getChild().resetModified();
+        return parent;
+    }
+
+    @Test
+    public void testModifiedFieldsOnly() throws Exception {
+        TrackedParentJackson2 parent = this.createUnmodifiedParent();
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS)).isEqualTo("{}");
+
+        parent.setCount(5);
+        parent.setName(null);
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS))
+                .isEqualTo("{\"count\":5,\"name\":null}");
+
+        parent.resetModified();
+        parent.getChild().setCount(3);
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS))
+                .isEqualTo("{\"child\":{\"count\":3}}");
+        assertThat(this.toJson(parent, JsonSerializationMode.ALL_FIELDS)).isEqualTo(
+                "{\"child\":{\"count\":3,\"name\":\"child\"},\"count\":5,\"name\":null}");
+    }
+
+    @Test
+    public void testMergePatch() throws Exception {
+        TrackedParentJackson2 parent = this.createUnmodifiedParent();
+        parent.getChild().setCount(3);
+        assertThat(this.toJson(parent, JsonSerializationMode.MERGE_PATCH))
+                .isEqualTo("{\"child\":{\"count\":3}}");
+
+        TrackedChildJackson2 newChild = this.factoryClassic.create(TrackedChildJackson2.class);
+        newChild.setCount(7);
+        parent.setChild(newChild);
+        assertThat(this.toJson(parent, JsonSerializationMode.MERGE_PATCH))
+                .isEqualTo("{\"child\":{\"count\":7,\"name\":null}}");
+        assertThat(this.toJson(parent, JsonSerializationMode.MODIFIED_FIELDS))
+                .isEqualTo("{\"child\":{\"count\":7}}");
+    }
 }
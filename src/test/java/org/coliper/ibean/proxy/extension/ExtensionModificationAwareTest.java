@@ -15,10 +15,22 @@
 package org.coliper.ibean.proxy.extension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.coliper.ibean.IBeanFieldMetaInfo;
 import org.coliper.ibean.extension.ModificationAware;
 import org.coliper.ibean.extension.ModificationAwareExt;
+import org.coliper.ibean.proxy.ExtensionSupport;
+import org.coliper.ibean.proxy.IBeanContext;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.coliper.ibean.proxy.handler.ModificationAwareHandler;
 import org.junit.Test;
 
 /**
@@ -43,10 +55,24 @@ public class ExtensionModificationAwareTest {
     public static interface BeanTypeExt extends BeanType, ModificationAwareExt {
     }
 
+    public static class CountingModificationAwareHandler extends ModificationAwareHandler {
+        static final AtomicInteger SETTER_CALLS = new AtomicInteger();
+
+        @Override
+        public Object interceptSetterCall(IBeanContext<?> context, IBeanFieldMetaInfo fieldMeta,
+                Object newValue, Object proxyInstance) {
+            SETTER_CALLS.incrementAndGet();
+            return super.interceptSetterCall(context, fieldMeta, newValue, proxyInstance);
+        }
+    }
+
+    protected ProxyIBeanFactory createFactory() {
+        return ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+    }
+
     @Test
     public void test() throws Exception {
-        BeanType bean = ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build()
-                .create(BeanType.class);
+        BeanType bean = this.createFactory().create(BeanType.class);
         assertThat(bean.isModified()).isFalse();
 
         bean.resetModified();
@@ -82,8 +108,7 @@ public class ExtensionModificationAwareTest {
 
     @Test
     public void testExt() throws Exception {
-        BeanTypeExt bean = ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build()
-                .create(BeanTypeExt.class);
+        BeanTypeExt bean = this.createFactory().create(BeanTypeExt.class);
         assertThat(bean.isModified()).isFalse();
         assertThat(bean.getModifiedFieldNames()).isEmpty();
         assertThat(bean.allFieldsModified()).isFalse();
@@ -142,4 +167,149 @@ public class ExtensionModificationAwareTest {
                 .containsExactlyInAnyOrder(new String[] { "string" });
         assertThat(bean.allFieldsModified()).isFalse();
     }
+
+    public static interface WideBeanType extends ModificationAwareExt {
+      //@formatter:off
+        String getA();  void setA(String s);
+        String getB();  void setB(String s);
+        String getC();  void setC(String s);
+        String getD();  void setD(String s);
+        String getE();  void setE(String s);
+        String getF();  void setF(String s);
+        String getG();  void setG(String s);
+        String getH();  void setH(String s);
+        String getI();  void setI(String s);
+        String getJ();  void setJ(String s);
+        String getK();  void setK(String s);
+        String getL();  void setL(String s);
+        String getM();  void setM(String s);
+        String getN();  void setN(String s);
+        String getO();  void setO(String s);
+        String getP();  void setP(String s);
+        String getQ();  void setQ(String s);
+        String getR();  void setR(String s);
+        String getS();  void setS(String s);
+        String getT();  void setT(String s);
+        String getU();  void setU(String s);
+        String getV();  void setV(String s);
+        String getW();  void setW(String s);
+        String getX();  void setX(String s);
+        String getY();  void setY(String s);
+        String getZ();  void setZ(String s);
+        String getA1(); void setA1(String s);
+        String getB1(); void setB1(String s);
+        String getC1(); void setC1(String s);
+        String getD1(); void setD1(String s);
+        String getE1(); void setE1(String s);
+        String getF1(); void setF1(String s);
+        String getG1(); void setG1(String s);
+        String getH1(); void setH1(String s);
+        String getI1(); void setI1(String s);
+        String getJ1(); void setJ1(String s);
+        String getK1(); void setK1(String s);
+        String getL1(); void setL1(String s);
+        String getM1(); void setM1(String s);
+        String getN1(); void setN1(String s);
+        String getO1(); void setO1(String s);
+        String getP1(); void setP1(String s);
+        String getQ1(); void setQ1(String s);
+        String getR1(); void setR1(String s);
+        String getS1(); void setS1(String s);
+        String getT1(); void setT1(String s);
+        String getU1(); void setU1(String s);
+        String getV1(); void setV1(String s);
+        String getW1(); void setW1(String s);
+        String getX1(); void setX1(String s);
+        String getY1(); void setY1(String s);
+        String getZ1(); void setZ1(String s);
+        String getA2(); void setA2(String s);
+        String getB2(); void setB2(String s);
+        String getC2(); void setC2(String s);
+        String getD2(); void setD2(String s);
+        String getE2(); void setE2(String s);
+        String getF2(); void setF2(String s);
+        String getG2(); void setG2(String s);
+        String getH2(); void setH2(String s);
+        String getI2(); void setI2(String s);
+        String getJ2(); void setJ2(String s);
+        String getK2(); void setK2(String s);
+        String getL2(); void setL2(String s);
+        String getM2(); void setM2(String s);
+        String getN2(); void setN2(String s);
+        String getO2(); void setO2(String s);
+        String getP2(); void setP2(String s);
+      //@formatter:on
+    }
+
+    @Test
+    public void testExtBitsAndVisitor() throws Exception {
+        BeanTypeExt bean = this.createFactory().create(BeanTypeExt.class);
+        // ordinals: double=0, int=1, string=2
+        assertThat(bean.getModifiedFieldCount()).isEqualTo(0);
+        assertThat(bean.getModifiedFieldBits(null)).containsExactly(0L);
+
+        bean.setString("a");
+        bean.setDouble(1.0);
+        assertThat(bean.getModifiedFieldCount()).isEqualTo(2);
+        long[] bits = new long[] { -1L, -1L };
+        assertThat(bean.getModifiedFieldBits(bits)).isSameAs(bits);
+        assertThat(bits).containsExactly(0b101L, 0L);
+
+        List<String> names = new ArrayList<>();
+        List<Integer> ordinals = new ArrayList<>();
+        bean.forEachModifiedField((name, ordinal) -> {
+            names.add(name);
+            ordinals.add(ordinal);
+        });
+        assertThat(names).containsExactly("double", "string");
+        assertThat(ordinals).containsExactly(0, 2);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> bean.getModifiedFieldBits(new long[0]));
+    }
+
+    @Test
+    public void testExtWideBean() throws Exception {
+        WideBeanType bean = this.createFactory().create(WideBeanType.class);
+        BeanInfo beanInfo = Introspector.getBeanInfo(WideBeanType.class);
+        List<PropertyDescriptor> properties = new ArrayList<>();
+        for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
+            if (property.getWriteMethod() != null) {
+                properties.add(property);
+            }
+        }
+        assertThat(properties).hasSize(68);
+
+        for (int i = 0; i < properties.size(); i++) {
+            assertThat(bean.allFieldsModified()).isFalse();
+            properties.get(i).getWriteMethod().invoke(bean, "x");
+            assertThat(bean.getModifiedFieldCount()).isEqualTo(i + 1);
+        }
+        assertThat(bean.allFieldsModified()).isTrue();
+        assertThat(bean.getModifiedFieldNames()).hasSize(68);
+        assertThat(bean.getModifiedFieldBits(null)).containsExactly(-1L, 0xFL);
+
+        bean.resetModified();
+        bean.setP2("y");
+        bean.setA("y");
+        List<String> names = new ArrayList<>();
+        bean.forEachModifiedField((name, ordinal) -> names.add(name));
+        assertThat(names).containsExactly("a", "p2");
+        assertThat(bean.getModifiedFieldNames()).containsExactly("a", "p2");
+        assertThat(bean.allFieldsModified()).isFalse();
+    }
+
+    @Test
+    public void testHandlerOfSubInterfaceInterceptsOnce() throws Exception {
+        // handler is registered for ModificationAwareExt and ModificationAware
+        ProxyIBeanFactory factory = ProxyIBeanFactory.builder()
+                .withInterfaceSupport(new ExtensionSupport(ModificationAwareExt.class,
+                        CountingModificationAwareHandler.class, true/* stateful */))
+                .build();
+        BeanTypeExt bean = factory.create(BeanTypeExt.class);
+        CountingModificationAwareHandler.SETTER_CALLS.set(0);
+        bean.setInt(1);
+        assertThat(CountingModificationAwareHandler.SETTER_CALLS.get()).isEqualTo(1);
+        assertThat(bean.getModifiedFieldNames()).containsExactly("int");
+    }
 }
@@ -17,10 +17,26 @@ package org.coliper.ibean.proxy.extension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.coliper.ibean.IBeanFactory;
 import org.coliper.ibean.extension.BeanFrozenException;
 import org.coliper.ibean.extension.Freezable;
 import org.coliper.ibean.extension.TempFreezable;
 import org.coliper.ibean.proxy.ProxyIBeanFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
 import org.junit.Test;
 
 /**
@@ -106,4 +122,109 @@ public class FreezableTest {
         assertThatExceptionOfType(BeanFrozenException.class)
                 .isThrownBy(() -> bean.setString("slls"));
     }
+
+    public static interface GraphNode extends TempFreezable<GraphNode> {
+      //@formatter:off
+        String getName();
+        void setName(String s);
+
+        GraphNode getParent();
+        void setParent(GraphNode n);
+
+        List<GraphNode> getChildren();
+        void setChildren(List<GraphNode> l);
+
+        Set<String> getTags();
+        void setTags(Set<String> s);
+
+        SortedSet<Integer> getSortedNumbers();
+        void setSortedNumbers(SortedSet<Integer> s);
+
+        Map<String, List<GraphNode>> getIndex();
+        void setIndex(Map<String, List<GraphNode>> m);
+
+        ArrayList<String> getArrayList();
+        void setArrayList(ArrayList<String> l);
+
+        FreezableBean getOther();
+        void setOther(FreezableBean b);
+      //@formatter:on
+    }
+
+    private GraphNode createNode(IBeanFactory factory, String name, GraphNode parent) {
+        GraphNode node = factory.create(GraphNode.class);
+        node.setName(name);
+        node.setParent(parent);
+        return node;
+    }
+
+    @Test
+    public void testDeepFreeze() throws Exception {
+        final IBeanFactory factory =
+                ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+        GraphNode root = this.createNode(factory, "root", null);
+        GraphNode child1 = this.createNode(factory, "c1", root);
+        GraphNode child2 = this.createNode(factory, "c2", root);
+        GraphNode shared = this.createNode(factory, "shared", child1);
+        FreezableBean other = factory.create(FreezableBean.class);
+        List<GraphNode> children = new ArrayList<>(Arrays.asList(child1, child2, shared));
+        root.setChildren(children);
+        root.setTags(new HashSet<>(Arrays.asList("a", "b")));
+        root.setSortedNumbers(new TreeSet<>(Arrays.asList(3, 1, 2)));
+        Map<String, List<GraphNode>> index = new HashMap<>();
+        index.put("all", children);
+        index.put("shared", new ArrayList<>(Arrays.asList(shared)));
+        root.setIndex(index);
+        root.setArrayList(new ArrayList<>(Arrays.asList("x")));
+        child1.setChildren(new ArrayList<>(Arrays.asList(shared)));
+        child2.setOther(other);
+
+        assertThat(root.deepFreeze()).isSameAs(root);
+
+        for (GraphNode node : Arrays.asList(root, child1, child2, shared)) {
+            assertThat(node.isFrozen()).isTrue();
+        }
+        assertThat(other.isFrozen()).isTrue();
+        assertThat(root.getChildren()).isInstanceOf(ImmutableList.class)
+                .containsExactly(child1, child2, shared);
+        assertThat(root.getChildren().get(2)).isSameAs(shared);
+        assertThat(child1.getChildren().get(0)).isSameAs(shared);
+        assertThat(root.getTags()).isInstanceOf(ImmutableSet.class)
+                .containsExactlyInAnyOrder("a", "b");
+        assertThat(root.getSortedNumbers()).isInstanceOf(ImmutableSortedSet.class)
+                .containsExactly(1, 2, 3);
+        assertThat(root.getIndex()).isInstanceOf(ImmutableMap.class);
+        // same original list results in same immutable copy
+        assertThat(root.getIndex().get("all")).isSameAs(root.getChildren());
+        assertThat(root.getIndex().get("shared")).isInstanceOf(ImmutableList.class);
+        // field type ArrayList does not allow an immutable replacement
+        assertThat(root.getArrayList()).isInstanceOf(ArrayList.class).containsExactly("x");
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> root.getTags().add("c"));
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> shared.setName("changed"));
+    }
+
+    @Test
+    public void testDeepFreezeWithNullElementsAndUnfreeze() throws Exception {
+        final IBeanFactory factory =
+                ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+        GraphNode node = this.createNode(factory, "n", null);
+        node.setChildren(new ArrayList<>(Arrays.asList((GraphNode) null)));
+        Map<String, List<GraphNode>> index = new HashMap<>();
+        index.put("none", null);
+        node.setIndex(index);
+
+        node.deepFreeze();
+        assertThat(node.getChildren()).containsExactly((GraphNode) null);
+        assertThat(node.getIndex()).containsEntry("none", null);
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> node.getChildren().clear());
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> node.getIndex().clear());
+
+        node.unfreeze();
+        node.setName("changed");
+        assertThat(node.getName()).isEqualTo("changed");
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.extension.BeanDelta;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.Journaled;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.extension.TempFreezable;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.coliper.ibean.proxy.handler.FreezableHandler;
+import org.coliper.ibean.proxy.handler.JournaledHandler;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class JournaledTest {
+
+    public static interface BeanType extends Journaled, ModificationAware, Freezable<BeanType> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+
+        int getInt();
+        void setInt(int i);
+
+        Long getLong();
+        void setLong(Long l);
+      //@formatter:on
+    }
+
+    public static interface OtherBeanType extends Journaled {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+      //@formatter:on
+    }
+
+    public static interface FreezableBeanType extends Journaled, TempFreezable<FreezableBeanType> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+      //@formatter:on
+    }
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testEmptyJournal() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        assertThat(bean.hasJournalEntries()).isFalse();
+        bean.getString();
+        assertThat(bean.hasJournalEntries()).isFalse();
+        BeanDelta delta = bean.drainJournal();
+        assertThat(delta.isEmpty()).isTrue();
+        assertThat(delta.size()).isEqualTo(0);
+        assertThat(delta.beanType()).isSameAs(BeanType.class);
+    }
+
+    @Test
+    public void testDrainJournal() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        bean.setString("a");
+        bean.setInt(5);
+        bean.setString("b");
+        bean.setString("c");
+        assertThat(bean.hasJournalEntries()).isTrue();
+
+        BeanDelta delta = bean.drainJournal();
+        assertThat(bean.hasJournalEntries()).isFalse();
+        assertThat(delta.size()).isEqualTo(2);
+        assertThat(delta.fieldName(0)).isEqualTo("string");
+        assertThat(delta.oldValue(0)).isNull();
+        assertThat(delta.newValue(0)).isEqualTo("c");
+        assertThat(delta.fieldName(1)).isEqualTo("int");
+        assertThat(delta.ordinal(1)).isEqualTo(0);
+        assertThat(delta.oldValue(1)).isEqualTo(0);
+        assertThat(delta.newValue(1)).isEqualTo(5);
+
+        bean.setString("d");
+        delta = bean.drainJournal();
+        assertThat(delta.size()).isEqualTo(1);
+        assertThat(delta.oldValue(0)).isEqualTo("c");
+        assertThat(delta.newValue(0)).isEqualTo("d");
+    }
+
+    @Test
+    public void testClearJournal() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        bean.setLong(7L);
+        bean.clearJournal();
+        assertThat(bean.hasJournalEntries()).isFalse();
+        assertThat(bean.drainJournal().isEmpty()).isTrue();
+        bean.setLong(8L);
+        BeanDelta delta = bean.drainJournal();
+        assertThat(delta.oldValue(0)).isEqualTo(7L);
+        assertThat(delta.newValue(0)).isEqualTo(8L);
+    }
+
+    @Test
+    public void testApplyTo() throws Exception {
+        BeanType source = this.factory.create(BeanType.class);
+        BeanType replica = this.factory.create(BeanType.class);
+        replica.setLong(99L);
+        replica.resetModified();
+
+        source.setString("x");
+        source.setInt(-3);
+        source.drainJournal().applyTo(replica);
+
+        assertThat(replica.getString()).isEqualTo("x");
+        assertThat(replica.getInt()).isEqualTo(-3);
+        assertThat(replica.getLong()).isEqualTo(99L);
+        assertThat(replica.isModified()).isTrue();
+
+        replica.freeze();
+        source.setString("y");
+        BeanDelta delta = source.drainJournal();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> delta.applyTo(replica));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> delta.applyTo(this.factory.create(OtherBeanType.class)));
+    }
+
+    @Test
+    public void testRejectedChangeNotJournaled() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        bean.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> bean.setString("x"));
+        assertThat(bean.hasJournalEntries()).isFalse();
+    }
+
+    @Test
+    public void testChangeRejectedByLaterHandlerNotJournaled() throws Exception {
+        // Freezable intercepts after Journaled here
+        IBeanFactory factory = ProxyIBeanFactory.builder()
+                .withInterfaceSupport(JournaledHandler.SUPPORT)
+                .withInterfaceSupport(FreezableHandler.SUPPORT).build();
+        FreezableBeanType bean = factory.create(FreezableBeanType.class);
+        bean.setString("a");
+        bean.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> bean.setString("x"));
+        BeanDelta delta = bean.drainJournal();
+        assertThat(delta.size()).isEqualTo(1);
+        assertThat(delta.oldValue(0)).isNull();
+        assertThat(delta.newValue(0)).isEqualTo("a");
+
+        bean.unfreeze();
+        bean.setString("b");
+        delta = bean.drainJournal();
+        assertThat(delta.size()).isEqualTo(1);
+        assertThat(delta.oldValue(0)).isEqualTo("a");
+        assertThat(delta.newValue(0)).isEqualTo("b");
+    }
+}
@@ -16,6 +16,13 @@ package org.coliper.ibean.proxy.extension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.coliper.ibean.BeanStyle;
 import org.coliper.ibean.IBeanFactory;
 import org.coliper.ibean.extension.LazyInit;
@@ -71,4 +78,39 @@ public class LazyInitTest {
         assertThat(child).isNotNull();
         assertThat(child.parent()).isNull();
     }
+
+    @Test
+    public void testChildIsStoredInParent() {
+        Parent parent = this.factory.create(Parent.class);
+        Child child = parent.child();
+        assertThat(parent.child()).isSameAs(child);
+        child.parent(parent);
+        assertThat(parent.child().parent()).isSameAs(parent);
+
+        Endless endless = this.factory.create(Endless.class);
+        endless.other().other();
+        assertThat(endless.other().other()).isSameAs(endless.other().other());
+    }
+
+    @Test
+    public void testConcurrentChildCreation() throws Exception {
+        final int noOfThreads = 8;
+        for (int loop = 0; loop < 200; loop++) {
+            final Parent parent = this.factory.create(Parent.class);
+            final CyclicBarrier barrier = new CyclicBarrier(noOfThreads);
+            ExecutorService executor = Executors.newFixedThreadPool(noOfThreads);
+            List<Future<Child>> futures = new ArrayList<>();
+            for (int i = 0; i < noOfThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return parent.child();
+                }));
+            }
+            Child expected = parent.child();
+            for (Future<Child> future : futures) {
+                assertThat(future.get()).isSameAs(expected);
+            }
+            executor.shutdown();
+        }
+    }
 }
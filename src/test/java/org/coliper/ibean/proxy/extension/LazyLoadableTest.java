@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.LazyLoadable;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.extension.NullSafe;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class LazyLoadableTest {
+
+    public static interface Customer
+            extends LazyLoadable, ModificationAware, Freezable<Customer> {
+      //@formatter:off
+        String getName();
+        void setName(String s);
+
+        @LazyLoadable.Lazy
+        String getHistory();
+        void setHistory(String s);
+
+        @LazyLoadable.Lazy
+        long getRevenue();
+        void setRevenue(long l);
+      //@formatter:on
+    }
+
+    public static interface NullSafeCustomer extends LazyLoadable, NullSafe {
+      //@formatter:off
+        @LazyLoadable.Lazy
+        String getHistory();
+        void setHistory(String s);
+      //@formatter:on
+    }
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testLoadOnFirstAccess() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        Customer customer = this.factory.create(Customer.class);
+        customer.setName("Jo");
+        customer.registerFieldLoader((bean, fieldMeta) -> {
+            loads.incrementAndGet();
+            assertThat(bean).isSameAs(customer);
+            return fieldMeta.fieldName().equals("history") ? "h-" + customer.getName() : 7L;
+        });
+        customer.resetModified();
+        assertThat(customer.isFieldLoaded("history")).isFalse();
+        assertThat(customer.isFieldLoaded("name")).isTrue();
+
+        assertThat(customer.getName()).isEqualTo("Jo");
+        assertThat(loads.get()).isEqualTo(0);
+        assertThat(customer.getHistory()).isEqualTo("h-Jo");
+        assertThat(customer.getHistory()).isEqualTo("h-Jo");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(customer.isFieldLoaded("history")).isTrue();
+        assertThat(customer.getRevenue()).isEqualTo(7L);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(customer.isModified()).isFalse();
+    }
+
+    @Test
+    public void testSetFieldIsNotLoaded() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        customer.registerFieldLoader((bean, fieldMeta) -> {
+            throw new IllegalStateException("must not be called");
+        });
+        customer.setHistory("set");
+        assertThat(customer.isFieldLoaded("history")).isTrue();
+        assertThat(customer.getHistory()).isEqualTo("set");
+    }
+
+    @Test
+    public void testFailedLoadIsRetried() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        Customer customer = this.factory.create(Customer.class);
+        customer.registerFieldLoader((bean, fieldMeta) -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("store unavailable");
+            }
+            return "loaded";
+        });
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> customer.getHistory());
+        assertThat(customer.isFieldLoaded("history")).isFalse();
+        assertThat(customer.getHistory()).isEqualTo("loaded");
+
+        Customer other = this.factory.create(Customer.class);
+        other.registerFieldLoader((bean, fieldMeta) -> "wrong type");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> other.getRevenue());
+    }
+
+    @Test
+    public void testLoadedValueWidenedToFieldType() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        customer.registerFieldLoader((bean, fieldMeta) -> 7);
+        assertThat(customer.getRevenue()).isEqualTo(7L);
+        assertThat(customer.getRevenue()).isEqualTo(7L);
+
+        Customer other = this.factory.create(Customer.class);
+        other.supplyLoadedValue("revenue", (short) 3);
+        assertThat(other.getRevenue()).isEqualTo(3L);
+    }
+
+    @Test
+    public void testFrozenBeanIsNotLoaded() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        customer.registerFieldLoader((bean, fieldMeta) -> {
+            throw new IllegalStateException("must not be called");
+        });
+        customer.freeze();
+        assertThat(customer.getHistory()).isNull();
+        assertThat(customer.isFieldLoaded("history")).isFalse();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> customer.supplyLoadedValue("history", "h"));
+        assertThat(customer.getHistory()).isNull();
+    }
+
+    @Test
+    public void testWithoutLoader() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        assertThat(customer.getHistory()).isNull();
+        assertThat(customer.getRevenue()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testLoadBeforeNullSafeCheck() throws Exception {
+        NullSafeCustomer customer = this.factory.create(NullSafeCustomer.class);
+        customer.registerFieldLoader((bean, fieldMeta) -> "loaded");
+        assertThat(customer.getHistory()).isEqualTo("loaded");
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        final List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Customer customer = this.factory.create(Customer.class);
+            customer.setName("c" + i);
+            customers.add(customer);
+        }
+        customers.get(0).setHistory("kept");
+        customers.get(1).setHistory("kept");
+        customers.get(1).setRevenue(1L);
+        final AtomicInteger calls = new AtomicInteger();
+
+        LazyLoadable.prefetch(customers, (beans, fieldNames) -> {
+            calls.incrementAndGet();
+            assertThat(beans).hasSize(9).doesNotContain(customers.get(1));
+            assertThat(fieldNames).containsExactly("history", "revenue");
+            Object[][] values = new Object[beans.size()][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new Object[] { "h-" + beans.get(i).getName(), (long) i };
+            }
+            return values;
+        }, "history", "revenue");
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(customers.get(0).getHistory()).isEqualTo("kept");
+        assertThat(customers.get(0).getRevenue()).isEqualTo(0L);
+        assertThat(customers.get(1).getRevenue()).isEqualTo(1L);
+        assertThat(customers.get(9).getHistory()).isEqualTo("h-c9");
+        assertThat(customers.get(9).getRevenue()).isEqualTo(8L);
+        assertThat(customers.get(9).isFieldLoaded("revenue")).isTrue();
+
+        LazyLoadable.prefetch(customers, (beans, fieldNames) -> {
+            throw new IllegalStateException("must not be called");
+        }, "history");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> customers.get(0).supplyLoadedValue("name", "x"));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.MapView;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class MapViewTest {
+
+    public static interface Customer extends MapView, ModificationAwareExt, Freezable<Customer> {
+      //@formatter:off
+        String getName();
+        void setName(String s);
+
+        int getAge();
+        void setAge(int i);
+
+        Long getRevenue();
+        void setRevenue(Long l);
+      //@formatter:on
+    }
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testReadThroughView() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        Map<String, Object> map = customer.asMap();
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.keySet()).containsExactly("age", "name", "revenue");
+        assertThat(map.get("name")).isNull();
+        assertThat(map.get("unknown")).isNull();
+        assertThat(map.get(5)).isNull();
+
+        customer.setName("Jo");
+        customer.setAge(42);
+        assertThat(map.values()).containsExactly(42, "Jo", null);
+        assertThat(map.containsKey("age")).isTrue();
+        assertThat(map.containsValue("Jo")).isTrue();
+        assertThat(map).isEqualTo(new HashMap<>(map));
+    }
+
+    @Test
+    public void testWriteThroughView() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        Map<String, Object> map = customer.asMap();
+        assertThat(map.put("name", "Jo")).isNull();
+        assertThat(map.put("name", "Al")).isEqualTo("Jo");
+        map.put("age", 7);
+        map.entrySet().stream().filter(e -> e.getKey().equals("revenue"))
+                .forEach(e -> e.setValue(100L));
+        assertThat(customer.getName()).isEqualTo("Al");
+        assertThat(customer.getAge()).isEqualTo(7);
+        assertThat(customer.getRevenue()).isEqualTo(100L);
+        assertThat(customer.getModifiedFieldNames()).containsOnly("name", "age", "revenue");
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> map.put("unknown", "x"));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> map.put("age", null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> map.put("age", "old"));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> map.remove("age"));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> map.clear());
+
+        customer.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> map.put("name", "Bo"));
+        assertThat(customer.getName()).isEqualTo("Al");
+    }
+
+    @Test
+    public void testNumbersWidenedToFieldType() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        Map<String, Object> map = customer.asMap();
+        map.put("revenue", 5);
+        assertThat(customer.getRevenue()).isEqualTo(5L);
+        assertThat(map.get("revenue")).isEqualTo(5L);
+        map.put("age", (short) 3);
+        assertThat(customer.getAge()).isEqualTo(3);
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("revenue", 7);
+        values.put("age", 'a');
+        customer.loadFromMap(values);
+        assertThat(customer.getRevenue()).isEqualTo(7L);
+        assertThat(customer.getAge()).isEqualTo(97);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> map.put("age", 5L));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> map.put("revenue", 1.5));
+    }
+
+    @Test
+    public void testLoadFromMap() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        customer.setRevenue(5L);
+        customer.resetModified();
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Jo");
+        values.put("age", 30);
+        customer.loadFromMap(values);
+        assertThat(customer.getName()).isEqualTo("Jo");
+        assertThat(customer.getAge()).isEqualTo(30);
+        assertThat(customer.getRevenue()).isEqualTo(5L);
+        assertThat(customer.getModifiedFieldNames()).containsOnly("name", "age");
+
+        values.put("name", "Al");
+        values.put("unknown", 1);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> customer.loadFromMap(values));
+        values.remove("unknown");
+        values.put("revenue", "a lot");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> customer.loadFromMap(values));
+        assertThat(customer.getName()).isEqualTo("Jo");
+
+        Customer copy = this.factory.create(Customer.class);
+        copy.loadFromMap(customer.asMap());
+        assertThat(copy).isEqualTo(customer);
+    }
+}
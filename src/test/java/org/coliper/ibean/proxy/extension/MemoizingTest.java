@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.InvalidIBeanTypeException;
+import org.coliper.ibean.extension.Memoizing;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class MemoizingTest {
+
+    // counts evaluations of the memoized methods below
+    private static final AtomicInteger EVALUATIONS = new AtomicInteger();
+
+    public static interface OrderLine extends Memoizing {
+      //@formatter:off
+        long getPrice();
+        void setPrice(long l);
+
+        int getQuantity();
+        void setQuantity(int i);
+
+        String getComment();
+        void setComment(String s);
+
+        @Memoizing.Memoized(dependsOn = { "price", "quantity" })
+        default long total() {
+            EVALUATIONS.incrementAndGet();
+            return getPrice() * getQuantity();
+        }
+
+        @Memoizing.Memoized
+        default String key() {
+            EVALUATIONS.incrementAndGet();
+            return getComment() == null ? null : getComment() + "/" + getQuantity();
+        }
+
+        default String plain() {
+            EVALUATIONS.incrementAndGet();
+            return "plain";
+        }
+      //@formatter:on
+    }
+
+    public static interface UnknownDependency extends Memoizing {
+      //@formatter:off
+        int getInt();
+        void setInt(int i);
+
+        @Memoizing.Memoized(dependsOn = "long")
+        default int doubled() {
+            return getInt() * 2;
+        }
+      //@formatter:on
+    }
+
+    public static interface MethodWithParameter extends Memoizing {
+      //@formatter:off
+        int getInt();
+        void setInt(int i);
+
+        @Memoizing.Memoized
+        default int multiplied(int factor) {
+            return getInt() * factor;
+        }
+      //@formatter:on
+    }
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testResultIsCachedUntilDependencyChanges() throws Exception {
+        OrderLine line = this.factory.create(OrderLine.class);
+        line.setPrice(5L);
+        line.setQuantity(3);
+        EVALUATIONS.set(0);
+
+        assertThat(line.total()).isEqualTo(15L);
+        assertThat(line.total()).isEqualTo(15L);
+        assertThat(EVALUATIONS.get()).isEqualTo(1);
+
+        line.setComment("x");
+        assertThat(line.total()).isEqualTo(15L);
+        assertThat(EVALUATIONS.get()).isEqualTo(1);
+
+        line.setQuantity(4);
+        assertThat(line.total()).isEqualTo(20L);
+        assertThat(EVALUATIONS.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testWithoutDependenciesAndNullResult() throws Exception {
+        OrderLine line = this.factory.create(OrderLine.class);
+        EVALUATIONS.set(0);
+        assertThat(line.key()).isNull();
+        assertThat(line.key()).isNull();
+        assertThat(EVALUATIONS.get()).isEqualTo(1);
+
+        line.setPrice(1L);
+        line.setComment("c");
+        line.setQuantity(2);
+        assertThat(line.key()).isEqualTo("c/2");
+        assertThat(EVALUATIONS.get()).isEqualTo(2);
+
+        line.invalidateMemoizedResults();
+        assertThat(line.key()).isEqualTo("c/2");
+        assertThat(EVALUATIONS.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testUnannotatedMethodNotCached() throws Exception {
+        OrderLine line = this.factory.create(OrderLine.class);
+        EVALUATIONS.set(0);
+        line.plain();
+        line.plain();
+        assertThat(EVALUATIONS.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testResultsArePerBean() throws Exception {
+        OrderLine line1 = this.factory.create(OrderLine.class);
+        OrderLine line2 = this.factory.create(OrderLine.class);
+        line1.setPrice(2L);
+        line1.setQuantity(2);
+        line2.setPrice(3L);
+        line2.setQuantity(3);
+        assertThat(line1.total()).isEqualTo(4L);
+        assertThat(line2.total()).isEqualTo(9L);
+    }
+
+    @Test
+    public void testInvalidMemoizedMethods() throws Exception {
+        assertThatExceptionOfType(InvalidIBeanTypeException.class)
+                .isThrownBy(() -> this.factory.create(UnknownDependency.class));
+        assertThatExceptionOfType(InvalidIBeanTypeException.class)
+                .isThrownBy(() -> this.factory.create(MethodWithParameter.class));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.extension.BeanChangeListener;
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.ChangedFields;
+import org.coliper.ibean.extension.CloneableBean;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.ObservableBean;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class ObservableBeanTest {
+
+    public static interface BeanType
+            extends ObservableBean, Freezable<BeanType>, CloneableBean<BeanType> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+
+        int getInt();
+        void setInt(int i);
+
+        Long getLong();
+        void setLong(Long l);
+      //@formatter:on
+    }
+
+    private static class RecordingListener implements BeanChangeListener {
+        final List<Object> beans = new ArrayList<>();
+        final List<ChangedFields> changes = new ArrayList<>();
+
+        @Override
+        public void beanChanged(Object bean, ChangedFields changedFields) {
+            this.beans.add(bean);
+            this.changes.add(changedFields);
+        }
+    }
+
+    private static ChangedFields bits(int... ordinals) {
+        BitSet bitSet = new BitSet();
+        for (int ordinal : ordinals) {
+            bitSet.set(ordinal);
+        }
+        return new ChangedFields(bitSet.toLongArray());
+    }
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testNotificationPerSetterOutsideBatch() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        RecordingListener listener = new RecordingListener();
+        bean.addChangeListener(listener);
+        bean.setString("a");
+        bean.setInt(1);
+        bean.getLong();
+        // ordinals: int=0, long=1, string=2
+        assertThat(listener.changes).containsExactly(bits(2), bits(0));
+        assertThat(listener.beans).containsExactly(bean, bean);
+
+        bean.removeChangeListener(listener);
+        bean.setString("b");
+        assertThat(listener.changes).hasSize(2);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        bean.addChangeListener(listener1);
+        bean.addChangeListener(listener2);
+
+        bean.beginChangeBatch();
+        assertThat(bean.isInChangeBatch()).isTrue();
+        bean.setString("a");
+        bean.setLong(5L);
+        bean.beginChangeBatch();
+        bean.setString("b");
+        bean.endChangeBatch();
+        assertThat(listener1.changes).isEmpty();
+        bean.endChangeBatch();
+        assertThat(bean.isInChangeBatch()).isFalse();
+
+        assertThat(listener1.changes).containsExactly(bits(1, 2));
+        assertThat(listener2.changes).containsExactly(bits(1, 2));
+
+        // empty batch does not notify
+        bean.beginChangeBatch();
+        bean.endChangeBatch();
+        assertThat(listener1.changes).hasSize(1);
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> bean.endChangeBatch());
+    }
+
+    @Test
+    public void testChangedFieldsSharedAndImmutable() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        bean.addChangeListener(listener1);
+        bean.addChangeListener(listener2);
+
+        bean.setString("a");
+        bean.setString("b");
+        assertThat(listener1.changes.get(1)).isSameAs(listener1.changes.get(0));
+        assertThat(listener2.changes.get(0)).isSameAs(listener1.changes.get(0));
+
+        bean.beginChangeBatch();
+        bean.setInt(1);
+        bean.setLong(2L);
+        bean.endChangeBatch();
+        ChangedFields batchChanges = listener1.changes.get(2);
+        assertThat(listener2.changes.get(2)).isSameAs(batchChanges);
+        assertThat(batchChanges.size()).isEqualTo(2);
+        assertThat(batchChanges.contains(0)).isTrue();
+        assertThat(batchChanges.contains(2)).isFalse();
+
+        batchChanges.toBitSet().set(2);
+        assertThat(batchChanges).isEqualTo(bits(0, 1));
+        List<Integer> visited = new ArrayList<>();
+        batchChanges.forEach(visited::add);
+        assertThat(visited).containsExactly(0, 1);
+    }
+
+    @Test
+    public void testRejectedChangeNotNotified() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        RecordingListener listener = new RecordingListener();
+        bean.addChangeListener(listener);
+        bean.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class)
+                .isThrownBy(() -> bean.setString("x"));
+        assertThat(listener.changes).isEmpty();
+    }
+
+    @Test
+    public void testListenerChangingBean() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        RecordingListener listener = new RecordingListener();
+        bean.addChangeListener((b, changedFields) -> {
+            if (changedFields.contains(2)) {
+                ((BeanType) b).setInt(((BeanType) b).getString().length());
+            }
+        });
+        bean.addChangeListener(listener);
+        bean.setString("abc");
+        assertThat(bean.getInt()).isEqualTo(3);
+        assertThat(listener.changes).containsExactlyInAnyOrder(bits(0), bits(2));
+    }
+
+    @Test
+    public void testCloneHasNoListeners() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        RecordingListener listener = new RecordingListener();
+        bean.addChangeListener(listener);
+        BeanType clone = bean.clone();
+        clone.setString("a");
+        assertThat(listener.changes).isEmpty();
+    }
+}
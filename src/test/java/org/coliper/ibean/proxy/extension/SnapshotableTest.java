@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.coliper.ibean.extension.Completable;
+import org.coliper.ibean.extension.ModificationAware;
+import org.coliper.ibean.extension.Snapshotable;
+import org.coliper.ibean.proxy.ConcurrencyMode;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class SnapshotableTest {
+
+    public static interface Stats
+            extends Snapshotable<Stats>, ModificationAware, Completable<Stats> {
+      //@formatter:off
+        long getCount();
+        void setCount(long l);
+
+        long getSum();
+        void setSum(long l);
+
+        String getName();
+        void setName(String s);
+      //@formatter:on
+    }
+
+    private static final int NO_OF_CHANGES = 50000;
+
+    private static ProxyIBeanFactory factory(ConcurrencyMode mode) {
+        return ProxyIBeanFactory.builder().withDefaultInterfaceSupport()
+                .withConcurrencyMode(mode).build();
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        for (ConcurrencyMode mode : ConcurrencyMode.values()) {
+            Stats stats = factory(mode).create(Stats.class);
+            stats.setCount(3L);
+            stats.setName("a");
+            Stats snapshot = stats.snapshot();
+            Stats secondSnapshot = stats.snapshot();
+            assertThat(snapshot).isNotSameAs(stats).isEqualTo(stats);
+            assertThat(snapshot.isSnapshot()).isTrue();
+            assertThat(stats.isSnapshot()).isFalse();
+            assertThat(snapshot.isModified()).isFalse();
+            assertThat(snapshot.isComplete()).isTrue();
+            assertThat(snapshot.snapshot()).isSameAs(snapshot);
+
+            stats.setCount(4L);
+            stats.setName(null);
+            assertThat(snapshot.getCount()).isEqualTo(3L);
+            assertThat(snapshot.getName()).isEqualTo("a");
+            assertThat(secondSnapshot.getCount()).isEqualTo(3L);
+            assertThat(stats.getCount()).isEqualTo(4L);
+            assertThat(stats.isComplete()).isFalse();
+            assertThat(snapshot.isComplete()).isTrue();
+        }
+    }
+
+    @Test
+    public void testSnapshotIsReadOnly() throws Exception {
+        Stats stats = factory(ConcurrencyMode.UNSYNCHRONIZED).create(Stats.class);
+        Stats snapshot = stats.snapshot();
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> snapshot.setCount(1L));
+        assertThat(snapshot.isModified()).isFalse();
+        assertThat(snapshot.getCount()).isEqualTo(0L);
+        stats.setCount(1L);
+        assertThat(stats.getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testSnapshotsReadByOtherThread() throws Exception {
+        final Stats stats = factory(ConcurrencyMode.UNSYNCHRONIZED).create(Stats.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final List<Future<?>> checks = new ArrayList<>();
+            for (long i = 1; i <= NO_OF_CHANGES; i++) {
+                stats.setCount(i);
+                stats.setSum(stats.getSum() + i);
+                if (i % 100 == 0) {
+                    final Stats snapshot = stats.snapshot();
+                    checks.add(executor.submit(() -> {
+                        final long count = snapshot.getCount();
+                        assertThat(snapshot.getSum()).isEqualTo(count * (count + 1) / 2);
+                    }));
+                }
+            }
+            for (Future<?> check : checks) {
+                check.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testSnapshotsWhileOtherThreadChangesBean() throws Exception {
+        final Stats stats = factory(ConcurrencyMode.CONCURRENT).create(Stats.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                for (long i = 1; i <= NO_OF_CHANGES; i++) {
+                    stats.setCount(i);
+                }
+            });
+            final List<Stats> snapshots = new ArrayList<>();
+            final List<Long> counts = new ArrayList<>();
+            while (!writer.isDone()) {
+                final Stats snapshot = stats.snapshot();
+                snapshots.add(snapshot);
+                counts.add(snapshot.getCount());
+            }
+            writer.get();
+            // snapshots must not see any change done after their creation
+            for (int i = 0; i < snapshots.size(); i++) {
+                assertThat(snapshots.get(i).getCount()).isEqualTo(counts.get(i));
+            }
+            assertThat(stats.getCount()).isEqualTo(NO_OF_CHANGES);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.coliper.ibean.IBeanFactory;
+import org.coliper.ibean.InvalidIBeanTypeException;
+import org.coliper.ibean.extension.BeanValidationException;
+import org.coliper.ibean.extension.ModificationAwareExt;
+import org.coliper.ibean.extension.Validated;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class ValidatedTest {
+
+    public static interface Customer extends Validated<Customer>, ModificationAwareExt {
+      //@formatter:off
+        @Validated.NotNull @Validated.Size(min = 1, max = 5)
+        String getName();
+        void setName(String s);
+
+        @Validated.Range(min = 1, max = 150)
+        int getAge();
+        void setAge(int i);
+
+        @Validated.Range(max = 10)
+        Double getScore();
+        void setScore(Double d);
+
+        @Validated.Pattern("[A-Z]{2}")
+        String getCountry();
+        void setCountry(String s);
+
+        @Validated.Size(max = 2)
+        List<String> getTags();
+        void setTags(List<String> l);
+
+        String getComment();
+        void setComment(String s);
+      //@formatter:on
+    }
+
+    public static interface InvalidBean extends Validated<InvalidBean> {
+      //@formatter:off
+        @Validated.Pattern("x+")
+        int getInt();
+        void setInt(int i);
+      //@formatter:on
+    }
+
+    private final IBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    private Customer validCustomer() {
+        Customer customer = this.factory.create(Customer.class);
+        customer.setName("Jo");
+        customer.setAge(30);
+        return customer;
+    }
+
+    @Test
+    public void testInvalidSetterCallRejected() throws Exception {
+        Customer customer = this.validCustomer();
+        customer.resetModified();
+
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setName(null));
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setName("Johnny"));
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setAge(151));
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setScore(Double.NaN));
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setCountry("de"));
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setTags(Arrays.asList("a", "b", "c")));
+
+        assertThat(customer.getName()).isEqualTo("Jo");
+        assertThat(customer.getAge()).isEqualTo(30);
+        assertThat(customer.getScore()).isNull();
+        assertThat(customer.isModified()).isFalse();
+
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.setAge(0))
+                .withMessage("field 'age': 0 is not between 1 and 150");
+    }
+
+    @Test
+    public void testValidSetterCalls() throws Exception {
+        Customer customer = this.validCustomer();
+        customer.setScore(9.5);
+        customer.setCountry("DE");
+        customer.setCountry(null);
+        customer.setTags(Arrays.asList("a", "b"));
+        customer.setComment(null);
+        assertThat(customer.isValid()).isTrue();
+        assertThat(customer.violations()).isEmpty();
+        assertThat(customer.assertValid()).isSameAs(customer);
+        assertThat(customer.getModifiedFieldNames()).containsOnly("name", "age", "score",
+                "country", "tags", "comment");
+    }
+
+    @Test
+    public void testViolationsOfNewBean() throws Exception {
+        Customer customer = this.factory.create(Customer.class);
+        assertThat(customer.isValid()).isFalse();
+        assertThat(customer.violations()).containsExactly(
+                "field 'age': 0 is not between 1 and 150", "field 'name': must not be null");
+        assertThatExceptionOfType(BeanValidationException.class)
+                .isThrownBy(() -> customer.assertValid())
+                .withMessageContaining("must not be null");
+        customer.setName("Al");
+        customer.setAge(1);
+        assertThat(customer.assertValid()).isSameAs(customer);
+    }
+
+    @Test
+    public void testValidateAll() throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            customers.add(i % 10 == 0 ? this.factory.create(Customer.class) : this.validCustomer());
+        }
+        Map<Customer, List<String>> invalid = Validated.validateAll(customers);
+        assertThat(invalid).hasSize(100);
+        for (int i = 0; i < 1000; i += 10) {
+            assertThat(invalid.get(customers.get(i))).hasSize(2);
+        }
+        assertThat(Validated.validateAll(customers.subList(1, 10))).isEmpty();
+    }
+
+    @Test
+    public void testInvalidConstraint() throws Exception {
+        assertThatExceptionOfType(InvalidIBeanTypeException.class)
+                .isThrownBy(() -> this.factory.create(InvalidBean.class));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.coliper.ibean.proxy.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.Assert.fail;
+
+import org.coliper.ibean.extension.BeanFrozenException;
+import org.coliper.ibean.extension.BeanVersionConflictException;
+import org.coliper.ibean.extension.Freezable;
+import org.coliper.ibean.extension.Versioned;
+import org.coliper.ibean.proxy.IBeanPool;
+import org.coliper.ibean.proxy.ProxyIBeanFactory;
+import org.junit.Test;
+
+/**
+ * @author alex@coliper.org
+ *
+ */
+public class VersionedTest {
+
+    public static interface BeanType extends Versioned, Freezable<BeanType> {
+      //@formatter:off
+        String getString();
+        void setString(String s);
+
+        int getInt();
+        void setInt(int i);
+      //@formatter:on
+    }
+
+    private final ProxyIBeanFactory factory =
+            ProxyIBeanFactory.builder().withDefaultInterfaceSupport().build();
+
+    @Test
+    public void testVersionIncreasesWithSetterCalls() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        assertThat(bean.version()).isEqualTo(0L);
+        bean.getString();
+        assertThat(bean.version()).isEqualTo(0L);
+        bean.setString("a");
+        bean.setInt(1);
+        bean.setInt(1);
+        assertThat(bean.version()).isEqualTo(3L);
+    }
+
+    @Test
+    public void testUnchangedSince() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        bean.setString("a");
+        final long version = bean.version();
+        assertThat(bean.isUnchangedSince(version)).isTrue();
+        bean.assertUnchangedSince(version);
+
+        bean.setString("b");
+        assertThat(bean.isUnchangedSince(version)).isFalse();
+        try {
+            bean.assertUnchangedSince(version);
+            fail("BeanVersionConflictException expected");
+        } catch (BeanVersionConflictException e) {
+            assertThat(e.expectedVersion()).isEqualTo(1L);
+            assertThat(e.actualVersion()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    public void testRejectedSetterKeepsVersion() throws Exception {
+        BeanType bean = this.factory.create(BeanType.class);
+        bean.setInt(5);
+        bean.freeze();
+        assertThatExceptionOfType(BeanFrozenException.class).isThrownBy(() -> bean.setInt(6));
+        assertThat(bean.version()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testVersionNotReusedAfterPoolRelease() throws Exception {
+        IBeanPool<BeanType> pool = this.factory.createPool(BeanType.class, 1);
+        BeanType bean = pool.acquire();
+        final long version = bean.version();
+        pool.release(bean);
+        assertThat(pool.acquire().isUnchangedSince(version)).isFalse();
+    }
+}
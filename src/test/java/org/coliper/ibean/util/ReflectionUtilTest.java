@@ -72,4 +72,21 @@ public class ReflectionUtilTest {
         assertThatExceptionOfType(RuntimeException.class).isThrownBy(
                 () -> ReflectionUtil.invokeMethodUnchecked(reader, Reader.class.getMethod("read")));
     }
+
+    @Test
+    public void testWidenPrimitiveValue() {
+        assertThat(ReflectionUtil.widenPrimitiveValue(5, long.class)).isEqualTo(5L);
+        assertThat(ReflectionUtil.widenPrimitiveValue(5, Long.class)).isEqualTo(5L);
+        assertThat(ReflectionUtil.widenPrimitiveValue((byte) 5, short.class))
+                .isEqualTo((short) 5);
+        assertThat(ReflectionUtil.widenPrimitiveValue('a', int.class)).isEqualTo(97);
+        assertThat(ReflectionUtil.widenPrimitiveValue(5L, double.class)).isEqualTo(5.0);
+        assertThat(ReflectionUtil.widenPrimitiveValue(1.5f, double.class)).isEqualTo(1.5);
+        // no narrowing and no conversion of non primitive values
+        assertThat(ReflectionUtil.widenPrimitiveValue(5L, int.class)).isEqualTo(5L);
+        assertThat(ReflectionUtil.widenPrimitiveValue(5, char.class)).isEqualTo(5);
+        assertThat(ReflectionUtil.widenPrimitiveValue("5", long.class)).isEqualTo("5");
+        assertThat(ReflectionUtil.widenPrimitiveValue(5, Object.class)).isEqualTo(5);
+        assertThat(ReflectionUtil.widenPrimitiveValue(null, long.class)).isNull();
+    }
 }